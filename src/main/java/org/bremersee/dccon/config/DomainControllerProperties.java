@@ -17,6 +17,7 @@
 package org.bremersee.dccon.config;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -121,6 +122,10 @@ public class DomainControllerProperties implements Serializable {
 
   private SearchScope dnsNodeFindOneSearchScope = SearchScope.SUBTREE;
 
+  private int dnsNodeBulkSearchSize = 100;
+
+  private int dnsNodeDeleteParallelism = 4;
+
 
   private String kinitBinary = "/usr/bin/kinit";
 
@@ -128,6 +133,12 @@ public class DomainControllerProperties implements Serializable {
 
   private String kinitPasswordFile = "/var/lib/dc-con/dc-pass.txt";
 
+  private String kerberosCredentialCache;
+
+  private Duration kerberosTicketLifetime = Duration.ofHours(10L);
+
+  private Duration kerberosTicketRenewBefore = Duration.ofHours(1L);
+
   private String sudoBinary = "/usr/bin/sudo";
 
   private boolean usingSudo = true;
@@ -136,6 +147,34 @@ public class DomainControllerProperties implements Serializable {
 
   private String sambaToolExecDir = "/tmp";
 
+  private boolean sambaToolBatchEnabled = false;
+
+  private String sambaToolBatchScript;
+
+  private String pythonBinary = "/usr/bin/python3";
+
+  private boolean sambaToolWorkerEnabled = false;
+
+  private int sambaToolWorkerCount = 2;
+
+  private String sambaToolWorkerScript;
+
+  private Duration sambaToolWorkerStartTimeout = Duration.ofSeconds(30L);
+
+  private int cliReadConcurrency = 4;
+
+  private int cliWriteConcurrency = 2;
+
+  private int cliQueueCapacity = 50;
+
+  private Duration cliMaxWaitTime = Duration.ofSeconds(30L);
+
+  private int jobConcurrency = 2;
+
+  private int jobQueueCapacity = 100;
+
+  private Duration jobTimeToLive = Duration.ofHours(1L);
+
   private String loginShell = "/bin/bash";
 
   private String homeDirectoryTemplate = "\\\\data\\users\\{}";
@@ -147,6 +186,18 @@ public class DomainControllerProperties implements Serializable {
 
   private String dhcpLeaseListExecDir = "/tmp";
 
+  private boolean dhcpLeasesFileEnabled = false;
+
+  private String dhcpLeasesFile = "/var/lib/dhcp/dhcpd.leases";
+
+  private Duration dhcpLeasesTimeToLive = Duration.ofSeconds(30L);
+
+  private Duration dhcpLeasesMaxStaleness = Duration.ofMinutes(5L);
+
+  private Duration dhcpLeasesRefreshBackoff = Duration.ofSeconds(5L);
+
+  private Duration dhcpLeasesRefreshMaxBackoff = Duration.ofMinutes(2L);
+
 
   private String nameServerHost = "ns.samdom.example.org";
 
@@ -158,6 +209,10 @@ public class DomainControllerProperties implements Serializable {
 
   private List<String> excludedNodeRegexList = new ArrayList<>();
 
+  private Duration dnsZoneCacheTimeToLive = Duration.ofMinutes(5L);
+
+  private boolean dnsNameResolutionEnabled = false;
+
 
   private String ip4Regex = "^(?:[0-9]{1,3}\\.){3}[0-9]{1,3}$";
 
@@ -23,10 +23,19 @@ import org.bremersee.dccon.model.DhcpLease;
 import org.bremersee.dccon.model.DnsNode;
 import org.bremersee.dccon.model.DnsZone;
 import org.bremersee.dccon.model.UnknownFilter;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
+import org.bremersee.dccon.service.Job;
 import org.bremersee.dccon.service.NameServerService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -94,6 +103,57 @@ public class NameServerManagementController implements NameServerManagementApi {
     return ResponseEntity.ok(nameServerService.getDnsNodes(zoneName, unknownFilter, query));
   }
 
+  /**
+   * Gets dns nodes with or without the correlated records and the dhcp leases. This mapping is
+   * used instead of {@link #getDnsNodes(String, UnknownFilter, String)}, if one of the flags is
+   * present.
+   *
+   * @param zoneName the zone name
+   * @param unknownFilter the unknown filter
+   * @param query the query
+   * @param withCorrelation specifies whether the correlated records (A to PTR and PTR to A)
+   *     should be inserted or not (default is {@code true})
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not (default is
+   *     {@code true})
+   * @return the dns nodes
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN', 'ROLE_LOCAL_USER')")
+  @GetMapping(
+      path = "/api/dns/zones/{zoneName}",
+      params = "withCorrelation",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<DnsNode>> getDnsNodes(
+      @PathVariable("zoneName") String zoneName,
+      @RequestParam(name = "filter", defaultValue = "NO_UNKNOWN") UnknownFilter unknownFilter,
+      @RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "withCorrelation", required = false) Boolean withCorrelation,
+      @RequestParam(name = "withDhcp", required = false) Boolean withDhcp) {
+    return ResponseEntity.ok(nameServerService
+        .getDnsNodes(zoneName, unknownFilter, query, withCorrelation, withDhcp));
+  }
+
+  /**
+   * Gets dns nodes with or without the dhcp leases.
+   *
+   * @param zoneName the zone name
+   * @param unknownFilter the unknown filter
+   * @param query the query
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not
+   * @return the dns nodes
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN', 'ROLE_LOCAL_USER')")
+  @GetMapping(
+      path = "/api/dns/zones/{zoneName}",
+      params = {"withDhcp", "!withCorrelation"},
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<DnsNode>> getDnsNodesWithDhcp(
+      @PathVariable("zoneName") String zoneName,
+      @RequestParam(name = "filter", defaultValue = "NO_UNKNOWN") UnknownFilter unknownFilter,
+      @RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "withDhcp") Boolean withDhcp) {
+    return getDnsNodes(zoneName, unknownFilter, query, null, withDhcp);
+  }
+
   @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
   @Override
   public ResponseEntity<DnsNode> saveDnsNode(
@@ -104,6 +164,24 @@ public class NameServerManagementController implements NameServerManagementApi {
         .orElseGet(() -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
   }
 
+  /**
+   * Save several dns nodes of a dns zone with one request.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @return the result of every dns node
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
+  @PostMapping(
+      path = "/api/dns/zones/{zoneName}/nodes/bulk",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<DnsNodeSaveResult>> saveDnsNodes(
+      @PathVariable("zoneName") String zoneName,
+      @RequestBody List<DnsNode> dnsNodes) {
+    return ResponseEntity.ok(nameServerService.saveAll(zoneName, dnsNodes));
+  }
+
   @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN', 'ROLE_LOCAL_USER')")
   @Override
   public ResponseEntity<DnsNode> getDnsNode(
@@ -113,6 +191,57 @@ public class NameServerManagementController implements NameServerManagementApi {
     return ResponseEntity.of(nameServerService.getDnsNode(zoneName, nodeName, unknownFilter));
   }
 
+  /**
+   * Gets a dns node with or without the correlated records and the dhcp leases. This mapping is
+   * used instead of {@link #getDnsNode(String, String, UnknownFilter)}, if one of the flags is
+   * present.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param unknownFilter the unknown filter
+   * @param withCorrelation specifies whether the correlated records (A to PTR and PTR to A)
+   *     should be inserted or not (default is {@code true})
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not (default is
+   *     {@code true})
+   * @return the dns node
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN', 'ROLE_LOCAL_USER')")
+  @GetMapping(
+      path = "/api/dns/zones/{zoneName}/{nodeName}",
+      params = "withCorrelation",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<DnsNode> getDnsNode(
+      @PathVariable("zoneName") String zoneName,
+      @PathVariable("nodeName") String nodeName,
+      @RequestParam(name = "filter", defaultValue = "NO_UNKNOWN") UnknownFilter unknownFilter,
+      @RequestParam(name = "withCorrelation", required = false) Boolean withCorrelation,
+      @RequestParam(name = "withDhcp", required = false) Boolean withDhcp) {
+    return ResponseEntity.of(nameServerService
+        .getDnsNode(zoneName, nodeName, unknownFilter, withCorrelation, withDhcp));
+  }
+
+  /**
+   * Gets a dns node with or without the dhcp leases.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param unknownFilter the unknown filter
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not
+   * @return the dns node
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN', 'ROLE_LOCAL_USER')")
+  @GetMapping(
+      path = "/api/dns/zones/{zoneName}/{nodeName}",
+      params = {"withDhcp", "!withCorrelation"},
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<DnsNode> getDnsNodeWithDhcp(
+      @PathVariable("zoneName") String zoneName,
+      @PathVariable("nodeName") String nodeName,
+      @RequestParam(name = "filter", defaultValue = "NO_UNKNOWN") UnknownFilter unknownFilter,
+      @RequestParam(name = "withDhcp") Boolean withDhcp) {
+    return getDnsNode(zoneName, nodeName, unknownFilter, null, withDhcp);
+  }
+
   @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
   @Override
   public ResponseEntity<Boolean> deleteDnsNode(String zoneName, String nodeName) {
@@ -130,4 +259,68 @@ public class NameServerManagementController implements NameServerManagementApi {
     return ResponseEntity.ok().build();
   }
 
+  /**
+   * Add dns zone in the background.
+   *
+   * @param dnsZone the dns zone
+   * @return the job
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
+  @PostMapping(
+      path = "/api/dns/jobs/zones",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Job> addDnsZoneAsync(
+      @Valid @RequestBody DnsZone dnsZone) {
+    return ResponseEntity.accepted().body(nameServerService.addDnsZoneAsync(dnsZone));
+  }
+
+  /**
+   * Delete dns zone in the background.
+   *
+   * @param zoneName the zone name
+   * @return the job
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
+  @DeleteMapping(
+      path = "/api/dns/jobs/zones/{zoneName}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Job> deleteDnsZoneAsync(
+      @PathVariable("zoneName") String zoneName) {
+    return ResponseEntity.accepted().body(nameServerService.deleteDnsZoneAsync(zoneName));
+  }
+
+  /**
+   * Delete dns nodes in the background.
+   *
+   * @param zoneName the zone name
+   * @param nodeNames the node names, if it is empty, all dns nodes will be deleted
+   * @return the job
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
+  @DeleteMapping(
+      path = "/api/dns/jobs/zones/{zoneName}/nodes",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Job> deleteAllDnsNodesAsync(
+      @PathVariable("zoneName") String zoneName,
+      @RequestParam(name = "nodeNames", required = false) List<String> nodeNames) {
+    return ResponseEntity.accepted()
+        .body(nameServerService.deleteAllDnsNodesAsync(zoneName, nodeNames));
+  }
+
+  /**
+   * Gets a job.
+   *
+   * @param jobId the job id
+   * @return the job
+   */
+  @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_DC_CON_ADMIN')")
+  @GetMapping(
+      path = "/api/dns/jobs/{jobId}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Job> getJob(
+      @PathVariable("jobId") String jobId) {
+    return ResponseEntity.of(nameServerService.getJob(jobId));
+  }
+
 }
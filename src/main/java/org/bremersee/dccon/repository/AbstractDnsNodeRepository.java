@@ -21,15 +21,23 @@ import static org.bremersee.dccon.model.UnknownFilter.NO_UNKNOWN;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.LongConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DhcpLease;
@@ -38,6 +46,9 @@ import org.bremersee.dccon.model.DnsPair;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.DnsZone;
 import org.bremersee.dccon.model.UnknownFilter;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.util.StringUtils;
 
 /**
@@ -45,6 +56,7 @@ import org.springframework.util.StringUtils;
  *
  * @author Christian Bremer
  */
+@Slf4j
 public abstract class AbstractDnsNodeRepository extends AbstractRepository
     implements DnsNodeRepository {
 
@@ -55,11 +67,17 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
   private final DnsZoneRepository dnsZoneRepository;
 
   @Getter(AccessLevel.PACKAGE)
-  private final List<Pattern> excludedNodeNamePatterns;
+  private final ExcludedNamePatterns excludedNodeNamePatterns;
 
   @Getter(AccessLevel.PACKAGE)
   private final Pattern patternIp4;
 
+  private volatile DnsZoneIndex dnsZoneIndex;
+
+  private final DnsNodeIpIndex dnsNodeIpIndex = new DnsNodeIpIndex();
+
+  private Validator validator;
+
   /**
    * Instantiates a new abstract repository.
    *
@@ -77,12 +95,93 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
     super(properties, ldapTemplate);
     this.dhcpRepository = dhcpRepository;
     this.dnsZoneRepository = dnsZoneRepository;
-    this.excludedNodeNamePatterns = properties.getExcludedNodeRegexList().stream()
-        .map(Pattern::compile)
-        .collect(Collectors.toList());
+    this.excludedNodeNamePatterns = new ExcludedNamePatterns(
+        properties.getExcludedNodeRegexList());
     this.patternIp4 = Pattern.compile(properties.getIp4Regex());
   }
 
+  /**
+   * Sets the validator, that checks the constraints of every dns node of
+   * {@link #saveAll(String, Collection)}.
+   *
+   * @param validator the validator
+   */
+  @Autowired(required = false)
+  public void setValidator(final Validator validator) {
+    this.validator = validator;
+  }
+
+  /**
+   * Gets the dns zone index. It will be rebuilt, if it doesn't exist or if it is expired.
+   *
+   * @return the dns zone index
+   */
+  DnsZoneIndex getDnsZoneIndex() {
+    DnsZoneIndex index = dnsZoneIndex;
+    if (index == null || index.isExpired(getProperties().getDnsZoneCacheTimeToLive())) {
+      index = new DnsZoneIndex(
+          getProperties(),
+          dnsZoneRepository.findAll().collect(Collectors.toList()));
+      dnsZoneIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * Invalidates the dns zone index, when a dns zone was created or deleted.
+   *
+   * @param event the dns zone changed event
+   */
+  @EventListener
+  public void onDnsZoneChanged(final DnsZoneChangedEvent event) {
+    log.debug("msg=[Dns zone changed, invalidating dns zone index.] zone=[{}]",
+        event.getZoneName());
+    dnsZoneIndex = null;
+  }
+
+  /**
+   * Gets the index of the IPv4 addresses to the dns nodes. It will be built, if it doesn't exist.
+   *
+   * @return the dns node ip index
+   */
+  DnsNodeIpIndex getDnsNodeIpIndex() {
+    if (!dnsNodeIpIndex.isInitialized()) {
+      reconcileDnsNodeIpIndex();
+    }
+    return dnsNodeIpIndex;
+  }
+
+  /**
+   * Rebuilds the index of the IPv4 addresses to the dns nodes from all forward zones.
+   */
+  public void reconcileDnsNodeIpIndex() {
+    log.trace("msg=[Reconciling ip index of dns nodes.]");
+    final Map<String, List<DnsNode>> dnsNodesByZone = new HashMap<>();
+    for (final DnsZone zone : getDnsZoneIndex().getNonReverseZones()) {
+      dnsNodesByZone.put(
+          zone.getName(),
+          findAll(zone.getName(), ALL, null, false, false).collect(Collectors.toList()));
+    }
+    dnsNodeIpIndex.replaceAll(dnsNodesByZone);
+  }
+
+  /**
+   * Updates the index of the IPv4 addresses to the dns nodes after a dns node was saved or
+   * deleted.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param dnsNode the saved dns node or {@code null}, if the dns node was deleted
+   */
+  void updateDnsNodeIpIndex(
+      final String zoneName,
+      final String nodeName,
+      final DnsNode dnsNode) {
+    if (dnsNodeIpIndex.isInitialized() && !dnsZoneRepository.isDnsReverseZone(zoneName)) {
+      dnsNodeIpIndex.put(zoneName, nodeName, dnsNode);
+    }
+  }
+
   /**
    * Is non excluded dns node boolean.
    *
@@ -120,23 +219,24 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
    * @return the boolean
    */
   boolean isExcludedDnsNode(final String dnsNodeName) {
-    return dnsNodeName != null && excludedNodeNamePatterns.stream()
-        .anyMatch(pattern -> pattern.matcher(dnsNodeName).matches());
+    return excludedNodeNamePatterns.matches(dnsNodeName);
   }
 
   @Override
   public List<DnsNode> findByIps(final Set<String> ips, final UnknownFilter unknownFilter) {
+    final Set<DnsNodeIpIndex.Entry> entries = new LinkedHashSet<>();
+    for (final String ip : ips) {
+      entries.addAll(getDnsNodeIpIndex().find(ip));
+    }
     final List<DnsNode> nodes = new ArrayList<>();
-    for (DnsZone zone : dnsZoneRepository.findNonDnsReverseZones().collect(Collectors.toList())) {
-      for (DnsNode node : findAll(zone.getName(), unknownFilter, null)
-          .collect(Collectors.toList())) {
-        for (DnsRecord record : node.getRecords()) {
-          if (DnsRecordType.A.is(record.getRecordType())
-              && ips.contains(record.getRecordValue())) {
-            nodes.add(node);
-          }
-        }
-      }
+    final DhcpLeaseSnapshot leases = entries.isEmpty() ? null : dhcpRepository.findActiveSnapshot();
+    for (final DnsNodeIpIndex.Entry entry : entries) {
+      findOne(entry.getZoneName(), entry.getNodeName(), unknownFilter, true, false)
+          .filter(node -> node.getRecords().stream()
+              .anyMatch(record -> DnsRecordType.A.is(record.getRecordType())
+                  && ips.contains(record.getRecordValue())))
+          .map(node -> insertDhcpLeases(entry.getZoneName(), node, leases))
+          .ifPresent(nodes::add);
     }
     return nodes;
   }
@@ -146,20 +246,11 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
       final String hostName,
       final UnknownFilter unknownFilter) {
 
-    final List<String> zoneNames = dnsZoneRepository.findNonDnsReverseZones()
-        .map(DnsZone::getName)
-        .sorted((o1, o2) -> {
-          int n1 = StringUtils.countOccurrencesOf(o1, ".");
-          int n2 = StringUtils.countOccurrencesOf(o2, ".");
-          return n2 - n1;
-        })
-        .collect(Collectors.toList());
-    for (String zoneName : zoneNames) {
-      final String suffix = "." + zoneName;
-      if (hostName.endsWith(suffix)) {
-        final String name = hostName.substring(0, hostName.length() - suffix.length());
-        return findOne(zoneName, name, unknownFilter);
-      }
+    final Optional<DnsZone> dnsZone = getDnsZoneIndex().findDnsZoneByFqdn(hostName);
+    if (dnsZone.isPresent()) {
+      final String zoneName = dnsZone.get().getName();
+      final String name = hostName.substring(0, hostName.length() - zoneName.length() - 1);
+      return findOne(zoneName, name, unknownFilter);
     }
     return findOne(getProperties().getDefaultZone(), hostName, unknownFilter);
   }
@@ -225,55 +316,41 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
   }
 
   /**
-   * Find one optional.
+   * Insert dhcp leases dns node.
    *
    * @param zoneName the zone name
-   * @param nodeName the node name
-   * @param unknownFilter the unknown filter
-   * @param withCorrelationValues the with correlation values
-   * @param withDhcpLeases the with dhcp leases
-   * @return the optional
+   * @param dnsNode the dns node
+   * @return the dns node
    */
-  abstract Optional<DnsNode> findOne(
-      String zoneName,
-      String nodeName,
-      UnknownFilter unknownFilter,
-      boolean withCorrelationValues,
-      boolean withDhcpLeases);
-
-  @Override
-  public Optional<DnsNode> findOne(
+  DnsNode insertDhcpLeases(
       final String zoneName,
-      final String nodeName,
-      final UnknownFilter unknownFilter) {
-    return findOne(zoneName, nodeName, unknownFilter, true, true);
+      final DnsNode dnsNode) {
+    return insertDhcpLeases(zoneName, dnsNode, dhcpRepository.findActiveSnapshot());
   }
 
   /**
-   * Insert dhcp leases dns node.
+   * Insert dhcp leases dns node. Callers, that insert the leases into several dns nodes, should
+   * get the snapshot of the active leases only once.
    *
    * @param zoneName the zone name
    * @param dnsNode the dns node
+   * @param leases the snapshot of the active dhcp leases
    * @return the dns node
    */
   DnsNode insertDhcpLeases(
       final String zoneName,
-      final DnsNode dnsNode) {
-
-    final boolean isReverseZone = dnsZoneRepository.isDnsReverseZone(zoneName);
-    final Map<String, DhcpLease> leaseMap = isReverseZone
-        ? dhcpRepository.findActiveByHostName() : dhcpRepository.findActiveByIp();
+      final DnsNode dnsNode,
+      final DhcpLeaseSnapshot leases) {
 
     for (final DnsRecord record : dnsNode.getRecords()) {
       if (DnsRecordType.A.is(record.getRecordType())) {
-        record.setDhcpLease(leaseMap.get(record.getRecordValue()));
+        record.setDhcpLease(leases.findByIp(record.getRecordValue()).orElse(null));
       } else if (DnsRecordType.PTR.is(record.getRecordType())
           && record.getRecordValue().endsWith("." + getProperties().getDefaultZone())) {
         final String hostName = record.getRecordValue().substring(
             0,
-            record.getRecordValue().length() - ("." + getProperties().getDefaultZone()).length())
-            .toLowerCase();
-        record.setDhcpLease(leaseMap.get(hostName));
+            record.getRecordValue().length() - ("." + getProperties().getDefaultZone()).length());
+        record.setDhcpLease(leases.findByHostName(hostName).orElse(null));
       }
     }
     return dnsNode;
@@ -295,6 +372,77 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
     return dnsNode;
   }
 
+  /**
+   * Insert correlation values into all given dns nodes. The correlated dns zones are loaded only
+   * once, so that no further directory round trips are necessary for each record.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @return the dns nodes
+   */
+  List<DnsNode> insertCorrelationValues(
+      final String zoneName,
+      final List<DnsNode> dnsNodes) {
+
+    if (dnsNodes.isEmpty()) {
+      return dnsNodes;
+    }
+    final Map<String, Map<String, DnsNode>> correlatedNodes = new HashMap<>();
+    for (final DnsNode dnsNode : dnsNodes) {
+      dnsNode.setRecords(dnsNode.getRecords().stream()
+          .map(dnsRecord -> insertCorrelationValue(
+              dnsRecord,
+              findCorrelatedDnsNode(dnsRecord, correlatedNodes)))
+          .collect(Collectors.toSet()));
+    }
+    return dnsNodes;
+  }
+
+  /**
+   * Find correlated dns node in the given (lazily loaded) correlated nodes.
+   *
+   * @param record the record
+   * @param correlatedNodes the correlated nodes (zone name -> node name -> node)
+   * @return the correlated dns node
+   */
+  private Optional<DnsNode> findCorrelatedDnsNode(
+      final DnsRecord record,
+      final Map<String, Map<String, DnsNode>> correlatedNodes) {
+
+    return findCorrelatedDnsNodeName(record).map(pair -> correlatedNodes
+        .computeIfAbsent(pair.getZoneName().toLowerCase(), key -> findAll(
+            pair.getZoneName(), NO_UNKNOWN, null, false, false)
+            .collect(Collectors.toMap(
+                dnsNode -> dnsNode.getName().toLowerCase(),
+                dnsNode -> dnsNode,
+                (first, second) -> first)))
+        .get(pair.getNode().getName().toLowerCase()));
+  }
+
+  /**
+   * Find the zone name and the node name of the correlated dns node without loading it.
+   *
+   * @param record the record
+   * @return the dns pair with the zone name and a dns node, that has only a name
+   */
+  private Optional<DnsPair> findCorrelatedDnsNodeName(final DnsRecord record) {
+    final Optional<String> zoneName;
+    final Optional<String> nodeName;
+    if (DnsRecordType.A.is(record.getRecordType())) {
+      zoneName = findDnsZoneByIp4(record.getRecordValue()).map(DnsZone::getName);
+      nodeName = zoneName.flatMap(name -> getDnsNodeNameByIp4(record.getRecordValue(), name));
+    } else if (DnsRecordType.PTR.is(record.getRecordType())) {
+      zoneName = findDnsZoneByFqdn(record.getRecordValue()).map(DnsZone::getName);
+      nodeName = zoneName.flatMap(name -> getDnsNodeNameByFqdn(record.getRecordValue(), name));
+    } else {
+      return Optional.empty();
+    }
+    return nodeName.map(name -> DnsPair.builder()
+        .zoneName(zoneName.get())
+        .node(DnsNode.builder().name(name).build())
+        .build());
+  }
+
   /**
    * Insert correlation value dns record.
    *
@@ -305,9 +453,25 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
   DnsRecord insertCorrelationValue(
       final String zoneName,
       final DnsRecord dnsRecord) {
-    return findCorrelatedDnsNode(zoneName, dnsRecord)
-        .filter(dnsPair -> Boolean.TRUE.equals(dnsPair.getNodeExists()))
-        .flatMap(dnsPair -> dnsPair.getNode().getRecords().stream()
+    return insertCorrelationValue(
+        dnsRecord,
+        findCorrelatedDnsNode(zoneName, dnsRecord)
+            .filter(dnsPair -> Boolean.TRUE.equals(dnsPair.getNodeExists()))
+            .map(DnsPair::getNode));
+  }
+
+  /**
+   * Insert correlation value of the correlated dns node into the dns record.
+   *
+   * @param dnsRecord the dns record
+   * @param correlatedDnsNode the correlated dns node
+   * @return the dns record
+   */
+  private DnsRecord insertCorrelationValue(
+      final DnsRecord dnsRecord,
+      final Optional<DnsNode> correlatedDnsNode) {
+    return correlatedDnsNode
+        .flatMap(dnsNode -> dnsNode.getRecords().stream()
             .filter(correlatedRecord -> DnsRecordType.areCorrelated(dnsRecord, correlatedRecord))
             .findAny())
         .map(correlatedRecord -> {
@@ -385,6 +549,65 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
                 .build()));
   }
 
+  @Override
+  public List<DnsNodeSaveResult> saveAll(
+      final String zoneName,
+      final Collection<DnsNode> dnsNodes) {
+
+    final List<DnsNodeSaveResult> results = new ArrayList<>();
+    final Set<String> names = new HashSet<>();
+    for (final DnsNode dnsNode : dnsNodes) {
+      final String error = validateSaveAll(dnsNode, names);
+      if (error != null) {
+        results.add(DnsNodeSaveResult.failed(dnsNode != null ? dnsNode.getName() : null, error));
+        continue;
+      }
+      try {
+        final DnsNode existingDnsNode = findOne(zoneName, dnsNode.getName(), ALL, false, false)
+            .orElse(null);
+        results.add(DnsNodeSaveResult.builder()
+            .name(dnsNode.getName())
+            .status(DnsNodeSaveResult.getStatus(existingDnsNode, dnsNode))
+            .node(save(zoneName, dnsNode).orElse(null))
+            .build());
+      } catch (RuntimeException e) {
+        log.warn("msg=[Saving dns node failed.] zone=[{}] node=[{}]",
+            zoneName, dnsNode.getName(), e);
+        results.add(DnsNodeSaveResult.failed(dnsNode.getName(), e.getMessage()));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Validates a dns node, that should be saved together with other dns nodes.
+   *
+   * @param dnsNode the dns node
+   * @param names the lower case names of the already validated dns nodes
+   * @return the error or {@code null}, if the dns node is valid
+   */
+  String validateSaveAll(final DnsNode dnsNode, final Set<String> names) {
+    if (dnsNode == null || !StringUtils.hasText(dnsNode.getName())) {
+      return "The name of the dns node is missing.";
+    }
+    if (isExcludedDnsNode(dnsNode)) {
+      return "Node name is not allowed.";
+    }
+    if (validator != null) {
+      final Set<ConstraintViolation<DnsNode>> violations = validator.validate(dnsNode);
+      if (!violations.isEmpty()) {
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+      }
+    }
+    if (!names.add(dnsNode.getName().toLowerCase())) {
+      return "The dns node is contained more than once.";
+    }
+    return null;
+  }
+
   @Override
   public boolean delete(final String zoneName, final String nodeName) {
     return findOne(zoneName, nodeName, ALL, false, false)
@@ -393,15 +616,88 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
   }
 
   @Override
-  public void deleteAll(final String zoneName, final Collection<String> nodeNames) {
+  public boolean delete(final String zoneName, final DnsNode node) {
+    final PtrRecordChanges ptrRecordChanges = new PtrRecordChanges();
+    final boolean result = doDelete(zoneName, node, ptrRecordChanges);
+    applyPtrRecordChanges(ptrRecordChanges);
+    return result;
+  }
+
+  @Override
+  public void deleteAll(final String zoneName, final LongConsumer progress) {
+    final PtrRecordChanges ptrRecordChanges = new PtrRecordChanges();
+    try (Stream<DnsNode> dnsNodes = findAll(zoneName, ALL, null, false, false)) {
+      doDeleteAll(zoneName, dnsNodes, ptrRecordChanges, progress);
+    } finally {
+      applyPtrRecordChanges(ptrRecordChanges);
+    }
+  }
+
+  @Override
+  public void deleteAll(
+      final String zoneName,
+      final Collection<String> nodeNames,
+      final LongConsumer progress) {
     if (nodeNames != null && !nodeNames.isEmpty()) {
-      for (String nodeName : new LinkedHashSet<>(nodeNames)) {
-        findOne(zoneName, nodeName, ALL, false, false)
-            .ifPresent(dnsNode -> delete(zoneName, dnsNode));
+      final PtrRecordChanges ptrRecordChanges = new PtrRecordChanges();
+      try (Stream<DnsNode> dnsNodes = findAllByNames(zoneName, nodeNames)) {
+        doDeleteAll(zoneName, dnsNodes, ptrRecordChanges, progress);
+      } finally {
+        applyPtrRecordChanges(ptrRecordChanges);
       }
     }
   }
 
+  /**
+   * Find the dns nodes with the given names. The dns nodes contain all records, but no
+   * correlation values and no dhcp leases.
+   *
+   * @param zoneName the zone name
+   * @param nodeNames the node names
+   * @return the found dns nodes
+   */
+  Stream<DnsNode> findAllByNames(final String zoneName, final Collection<String> nodeNames) {
+    return new LinkedHashSet<>(nodeNames).stream()
+        .map(nodeName -> findOne(zoneName, nodeName, ALL, false, false))
+        .filter(Optional::isPresent)
+        .map(Optional::get);
+  }
+
+  /**
+   * Deletes the given dns nodes. The changes of the correlated PTR records must be added to the
+   * given changes, they are applied by the caller.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @param ptrRecordChanges the ptr record changes
+   * @param progress gets the number of deleted dns nodes after every step (can be {@code null})
+   */
+  void doDeleteAll(
+      final String zoneName,
+      final Stream<DnsNode> dnsNodes,
+      final PtrRecordChanges ptrRecordChanges,
+      final LongConsumer progress) {
+    dnsNodes
+        .collect(Collectors.toList())
+        .forEach(dnsNode -> {
+          doDelete(zoneName, dnsNode, ptrRecordChanges);
+          if (progress != null) {
+            progress.accept(1L);
+          }
+        });
+  }
+
+  /**
+   * Deletes the dns node. The changes of the correlated PTR records must be added to the given
+   * changes, they are applied by the caller.
+   *
+   * @param zoneName the zone name
+   * @param node the node
+   * @param ptrRecordChanges the ptr record changes
+   * @return {@code true} if the dns node was deleted, otherwise {@code false}
+   */
+  abstract boolean doDelete(String zoneName, DnsNode node, PtrRecordChanges ptrRecordChanges);
+
   /**
    * Handle ptr records.
    *
@@ -416,72 +712,92 @@ public abstract class AbstractDnsNodeRepository extends AbstractRepository
       final Set<DnsRecord> newRecords,
       final Set<DnsRecord> deletedRecords) {
 
+    final PtrRecordChanges ptrRecordChanges = new PtrRecordChanges();
+    collectPtrRecordChanges(zoneName, nodeName, newRecords, deletedRecords, ptrRecordChanges);
+    applyPtrRecordChanges(ptrRecordChanges);
+  }
+
+  /**
+   * Collects the PTR records, that must be added or removed, because A records of a dns node were
+   * added or deleted. The directory isn't accessed here.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param newRecords the new records
+   * @param deletedRecords the deleted records
+   * @param ptrRecordChanges the ptr record changes
+   */
+  void collectPtrRecordChanges(
+      final String zoneName,
+      final String nodeName,
+      final Set<DnsRecord> newRecords,
+      final Set<DnsRecord> deletedRecords,
+      final PtrRecordChanges ptrRecordChanges) {
+
     if (dnsZoneRepository.isDnsReverseZone(zoneName)) {
       return;
     }
+    final DnsRecord ptrRecord = DnsRecord.builder()
+        .recordType(DnsRecordType.PTR.name())
+        .recordValue(nodeName + "." + zoneName)
+        .build();
     for (final DnsRecord record : deletedRecords) {
-      findCorrelatedDnsNode(zoneName, record).ifPresent(pair -> {
-        final Set<DnsRecord> records = new LinkedHashSet<>(pair.getNode().getRecords());
-        records.remove(DnsRecord.builder()
-            .recordType(DnsRecordType.PTR.name())
-            .recordValue(nodeName + "." + zoneName)
-            .build());
-        final DnsNode node = pair.getNode().toBuilder()
-            .records(records)
-            .build();
-        save(pair.getZoneName(), node);
-      });
+      findCorrelatedDnsNodeName(record).ifPresent(pair -> ptrRecordChanges
+          .remove(pair.getZoneName(), pair.getNode().getName(), ptrRecord));
     }
     for (final DnsRecord record : newRecords) {
-      findCorrelatedDnsNode(zoneName, record).ifPresent(pair -> {
-        final DnsRecord newRecord = DnsRecord.builder()
-            .recordType(DnsRecordType.PTR.name())
-            .recordValue(nodeName + "." + zoneName)
-            .build();
-        if (!pair.getNode().getRecords().contains(newRecord)) {
-          final Set<DnsRecord> records = new LinkedHashSet<>(pair.getNode().getRecords());
-          records.add(newRecord);
-          final DnsNode node = pair.getNode().toBuilder()
-              .records(records)
-              .build();
-          save(pair.getZoneName(), node);
-        }
-      });
+      findCorrelatedDnsNodeName(record).ifPresent(pair -> ptrRecordChanges
+          .add(pair.getZoneName(), pair.getNode().getName(), ptrRecord));
     }
   }
 
   /**
-   * Find dns zone by an IPv4.
+   * Applies the collected PTR record changes. Every correlated dns node is loaded once and saved
+   * once, if its records have changed.
+   *
+   * @param ptrRecordChanges the ptr record changes
+   */
+  void applyPtrRecordChanges(final PtrRecordChanges ptrRecordChanges) {
+    for (final PtrRecordChanges.NodeChanges nodeChanges : ptrRecordChanges.getNodeChanges()) {
+      final Optional<DnsNode> node = findOne(
+          nodeChanges.getZoneName(), nodeChanges.getNodeName(), ALL, false, false);
+      if (!node.isPresent() && nodeChanges.getAdditions().isEmpty()) {
+        continue;
+      }
+      final Set<DnsRecord> records = nodeChanges.apply(node
+          .map(DnsNode::getRecords)
+          .orElseGet(Collections::emptySet));
+      if (records != null) {
+        save(nodeChanges.getZoneName(), node
+            .map(DnsNode::toBuilder)
+            .orElseGet(() -> DnsNode.builder().name(nodeChanges.getNodeName()))
+            .records(records)
+            .build());
+      }
+    }
+  }
+
+  /**
+   * Find the most specific dns reverse zone of an IPv4.
    *
    * @param ip the IPv4
    * @return the dns zone or {@code empty}
    */
   Optional<DnsZone> findDnsZoneByIp4(final String ip) {
-    return dnsZoneRepository.findDnsReverseZones()
-        .filter(dnsZone -> ip4MatchesDnsZone(ip, dnsZone.getName()))
-        .findFirst();
+    if (ip == null || !patternIp4.matcher(ip).matches()) {
+      return Optional.empty();
+    }
+    return getDnsZoneIndex().findDnsZoneByIp4(ip);
   }
 
   /**
-   * Find dns zone by fqdn optional.
+   * Find the most specific dns zone of a full qualified domain name.
    *
    * @param fqdn the fqdn
-   * @return the optional
+   * @return the dns zone or {@code empty}
    */
   Optional<DnsZone> findDnsZoneByFqdn(final String fqdn) {
-    final Map<String, DnsZone> zoneMap = dnsZoneRepository.findNonDnsReverseZones()
-        .collect(Collectors.toMap(dnsNode -> dnsNode.getName().toLowerCase(), dnsNode -> dnsNode));
-    String tmp = fqdn;
-    int i;
-    while ((i = tmp.indexOf('.')) > -1) {
-      final String zoneName = fqdn.substring(i + 1);
-      final DnsZone dnsZone = zoneMap.get(zoneName.toLowerCase());
-      if (dnsZone != null) {
-        return Optional.of(dnsZone);
-      }
-      tmp = zoneName;
-    }
-    return Optional.empty();
+    return getDnsZoneIndex().findDnsZoneByFqdn(fqdn);
   }
 
   /**
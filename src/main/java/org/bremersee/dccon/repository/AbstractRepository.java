@@ -19,11 +19,22 @@ package org.bremersee.dccon.repository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
 import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutorResponse;
+import org.bremersee.dccon.repository.cli.CommandExecutorResponseParser;
+import org.bremersee.dccon.repository.cli.KerberosTicketManager;
+import org.bremersee.dccon.repository.cli.SambaToolBatch;
+import org.bremersee.dccon.repository.cli.SambaToolWorkerPool;
+import org.bremersee.exception.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.Assert;
 
 /**
@@ -31,6 +42,7 @@ import org.springframework.util.Assert;
  *
  * @author Christian Bremer
  */
+@Slf4j
 abstract class AbstractRepository {
 
   private static final Object KINIT_LOG = new Object();
@@ -47,6 +59,12 @@ abstract class AbstractRepository {
   @Getter(AccessLevel.PACKAGE)
   private final LdaptiveTemplate ldapTemplate;
 
+  private KerberosTicketManager kerberosTicketManager;
+
+  private CommandExecutionScheduler commandExecutionScheduler;
+
+  private SambaToolWorkerPool sambaToolWorkerPool;
+
   /**
    * Instantiates a new abstract repository.
    *
@@ -62,16 +80,68 @@ abstract class AbstractRepository {
   }
 
   /**
-   * Calls linux command {@code kinit} for authentication.
+   * Sets kerberos ticket manager.
+   *
+   * @param kerberosTicketManager the kerberos ticket manager
+   */
+  @Autowired(required = false)
+  public void setKerberosTicketManager(final KerberosTicketManager kerberosTicketManager) {
+    this.kerberosTicketManager = kerberosTicketManager;
+  }
+
+  /**
+   * Sets command execution scheduler.
+   *
+   * @param commandExecutionScheduler the command execution scheduler
+   */
+  @Autowired(required = false)
+  public void setCommandExecutionScheduler(
+      final CommandExecutionScheduler commandExecutionScheduler) {
+    this.commandExecutionScheduler = commandExecutionScheduler;
+  }
+
+  /**
+   * Sets samba tool worker pool.
+   *
+   * @param sambaToolWorkerPool the samba tool worker pool
+   */
+  @Autowired(required = false)
+  public void setSambaToolWorkerPool(final SambaToolWorkerPool sambaToolWorkerPool) {
+    this.sambaToolWorkerPool = sambaToolWorkerPool;
+  }
+
+  /**
+   * Executes an external program with the command execution scheduler, so that the number of
+   * programs, that run at the same time, is limited.
+   *
+   * @param <T> the type of the result
+   * @param type the command type
+   * @param command the command
+   * @return the result of the command
+   */
+  <T> T schedule(final CommandType type, final Supplier<T> command) {
+    return commandExecutionScheduler != null
+        ? commandExecutionScheduler.execute(type, command)
+        : command.get();
+  }
+
+  /**
+   * Calls linux command {@code kinit} for authentication. If there is a kerberos ticket manager,
+   * {@code kinit} is only called, if there is no valid ticket.
    */
   void kinit() {
+    if (kerberosTicketManager != null) {
+      kerberosTicketManager.ensureValidTicket();
+      return;
+    }
     synchronized (KINIT_LOG) {
       List<String> commands = new ArrayList<>();
       sudo(commands);
       commands.add(properties.getKinitBinary());
       commands.add(KINIT_PASSWORD_FILE.replace("{}", properties.getKinitPasswordFile()));
       commands.add(properties.getKinitAdministratorName());
-      CommandExecutor.exec(commands, properties.getSambaToolExecDir());
+      schedule(CommandType.WRITE,
+          () -> CommandExecutor.exec(commands, properties.getSambaToolExecDir()));
     }
   }
 
@@ -95,6 +165,131 @@ abstract class AbstractRepository {
   void auth(final List<String> commands) {
     commands.add(USE_KERBEROS);
     commands.add(YES);
+    if (kerberosTicketManager != null) {
+      kerberosTicketManager.addCredentialCache(commands);
+    }
+  }
+
+  /**
+   * Executes a samba-tool command. If the worker mode is enabled, the command is executed by a
+   * samba tool worker, otherwise (or if no worker is available) {@code samba-tool} is started.
+   *
+   * @param <T> the type of the result
+   * @param type the command type
+   * @param args the arguments of the command without the leading {@code samba-tool}
+   * @param parser the response parser
+   * @return the result of the command
+   */
+  <T> T execSambaTool(
+      final CommandType type,
+      final List<String> args,
+      final CommandExecutorResponseParser<T> parser) {
+
+    return schedule(type, () -> parser.parse(retryOnAuthenticationError(
+        () -> runSambaTool(args))));
+  }
+
+  private CommandExecutorResponse runSambaTool(final List<String> args) {
+    if (sambaToolWorkerPool != null) {
+      final CommandExecutorResponse response = sambaToolWorkerPool.exec(args);
+      if (response != null) {
+        return response;
+      }
+    }
+    final List<String> commands = new ArrayList<>();
+    sudo(commands);
+    commands.add(properties.getSambaToolBinary());
+    commands.addAll(args);
+    return CommandExecutor.exec(commands, null, properties.getSambaToolExecDir());
+  }
+
+  /**
+   * Runs the command and runs it once again with a new kerberos ticket, if it failed because the
+   * ticket isn't valid any more (for example because the kdc issued a ticket with a shorter
+   * lifetime or the credential cache was destroyed).
+   *
+   * @param command the command
+   * @return the response of the command
+   */
+  CommandExecutorResponse retryOnAuthenticationError(
+      final Supplier<CommandExecutorResponse> command) {
+    final CommandExecutorResponse response = command.get();
+    if (kerberosTicketManager == null
+        || response.isSuccessful()
+        || !kerberosTicketManager.isAuthenticationError(response.getStderr())) {
+      return response;
+    }
+    log.warn("msg=[Samba tool command failed with an authentication error, getting a new "
+        + "kerberos ticket.] {}", response.toOneLine());
+    kerberosTicketManager.invalidate();
+    kerberosTicketManager.ensureValidTicket();
+    return command.get();
+  }
+
+  /**
+   * Executes the samba-tool commands of the batch. If there is more than one command, they are
+   * executed by one python interpreter (see {@link SambaToolBatch}). Commands, that were not
+   * executed by the batch script (for example because samba's python modules can't be found), are
+   * executed one by one with {@link #execSambaTool(CommandType, List,
+   * CommandExecutorResponseParser)}. The batch script isn't used, if the worker mode is enabled,
+   * because the workers have already loaded samba's python modules.
+   *
+   * @param batch the batch
+   * @throws ServiceException if a command of the batch failed
+   */
+  void execSambaToolBatch(final SambaToolBatch batch) {
+    final List<List<String>> pending = new ArrayList<>();
+    final List<String> failed = new ArrayList<>();
+    final boolean workerMode = sambaToolWorkerPool != null && sambaToolWorkerPool.isEnabled();
+    if (properties.isSambaToolBatchEnabled() && batch.getCommands().size() > 1 && !workerMode) {
+      final List<String> commands = new ArrayList<>();
+      sudo(commands);
+      commands.add(properties.getPythonBinary());
+      commands.add(SambaToolBatch.getScript(properties.getSambaToolBatchScript()));
+      final CommandExecutorResponse response = schedule(CommandType.WRITE, () -> CommandExecutor
+          .exec(commands, null, properties.getSambaToolExecDir(), batch.toInput(), r -> r));
+      final List<Integer> returnCodes = batch.parse(response);
+      // commands, that failed because of an invalid ticket, are executed again with a new one
+      final boolean authenticationError = kerberosTicketManager != null
+          && returnCodes.stream().anyMatch(code -> code != null && code != 0)
+          && kerberosTicketManager.isAuthenticationError(response.getStderr());
+      if (authenticationError) {
+        log.warn("msg=[Samba tool batch failed with an authentication error, getting a new "
+            + "kerberos ticket.] {}", response.toOneLine());
+        kerberosTicketManager.invalidate();
+        kerberosTicketManager.ensureValidTicket();
+      }
+      for (int i = 0; i < returnCodes.size(); i++) {
+        final Integer returnCode = returnCodes.get(i);
+        if (returnCode == null || (returnCode != 0 && authenticationError)) {
+          pending.add(batch.getCommands().get(i));
+        } else if (returnCode != 0) {
+          log.error("msg=[Samba tool command of batch failed.] command=[{}] returnCode=[{}]",
+              batch.getCommands().get(i), returnCode);
+          failed.add(String.join(" ", batch.getCommands().get(i)) + " -> " + returnCode);
+        }
+      }
+      if (!pending.isEmpty()) {
+        log.warn("msg=[Samba tool batch didn't execute all commands, executing them one by one.] "
+            + "script=[{}] pending=[{}]", commands, pending.size());
+      }
+    } else {
+      pending.addAll(batch.getCommands());
+    }
+    for (final List<String> args : pending) {
+      final CommandExecutorResponse response = execSambaTool(
+          CommandType.WRITE, args, r -> r);
+      if (!response.isSuccessful()) {
+        log.error("msg=[Samba tool command failed.] command=[{}] {}", args, response.toOneLine());
+        failed.add(String.join(" ", args) + " -> " + response.getExitCode());
+      }
+    }
+    if (!failed.isEmpty()) {
+      throw ServiceException.internalServerError(
+          "msg=[Samba tool commands of batch failed.] commands=[" + String.join(", ", failed)
+              + "]",
+          "org.bremersee:dc-con-app:e5b27c94-1d3a-4f68-8c0e-6a9f2b7d4c13");
+    }
   }
 
   /**
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.model.DhcpLease;
+import org.bremersee.exception.ServiceException;
+
+/**
+ * The dhcp lease cache serves the last good snapshot of the active leases and refreshes it in the
+ * background, when it is older than the time to live (stale while revalidate). Only one refresh
+ * runs at a time. After a failed refresh the next one is delayed with an exponential backoff.
+ *
+ * <p>A snapshot, that is older than the max staleness, isn't served any more. The caller waits
+ * for the running refresh instead; if the refresh fails or the cache is backing off, the last
+ * error is thrown.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class DhcpLeaseCache {
+
+  private final Object lock = new Object();
+
+  private final Supplier<List<DhcpLease>> loader;
+
+  private final Executor executor;
+
+  private final Duration timeToLive;
+
+  private final Duration maxStaleness;
+
+  private final long initialBackoffMillis;
+
+  private final long maxBackoffMillis;
+
+  private volatile DhcpLeaseSnapshot snapshot;
+
+  private CompletableFuture<DhcpLeaseSnapshot> refresh;
+
+  private volatile int failures;
+
+  private volatile long nextAttemptAt;
+
+  private volatile RuntimeException lastError;
+
+  /**
+   * Instantiates a new dhcp lease cache.
+   *
+   * @param loader the loader of the active leases
+   * @param executor the executor of the refresh
+   * @param timeToLive the age of a snapshot, that triggers a refresh
+   * @param maxStaleness the max age of a snapshot, that is served
+   * @param initialBackoff the delay of a refresh after the first failure
+   * @param maxBackoff the max delay of a refresh after failures
+   */
+  DhcpLeaseCache(
+      final Supplier<List<DhcpLease>> loader,
+      final Executor executor,
+      final Duration timeToLive,
+      final Duration maxStaleness,
+      final Duration initialBackoff,
+      final Duration maxBackoff) {
+    this.loader = loader;
+    this.executor = executor;
+    this.timeToLive = timeToLive;
+    this.maxStaleness = maxStaleness.compareTo(timeToLive) < 0 ? timeToLive : maxStaleness;
+    this.initialBackoffMillis = Math.max(1L, initialBackoff.toMillis());
+    this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+  }
+
+  /**
+   * Gets the snapshot of the active leases.
+   *
+   * @return the snapshot
+   */
+  DhcpLeaseSnapshot get() {
+    final DhcpLeaseSnapshot current = snapshot;
+    if (current != null && !current.isOlderThan(timeToLive)) {
+      return current;
+    }
+    if (current != null && !current.isOlderThan(maxStaleness)) {
+      refreshInBackground();
+      return current;
+    }
+    return refreshAndWait();
+  }
+
+  /**
+   * Starts a refresh in the background, if the snapshot is expired, no refresh is running and the
+   * cache isn't backing off.
+   */
+  void refreshInBackground() {
+    final DhcpLeaseSnapshot current = snapshot;
+    if ((current == null || current.isOlderThan(timeToLive)) && !isBackingOff()) {
+      startRefresh();
+    }
+  }
+
+  /**
+   * Determines whether the next refresh is delayed because of failures.
+   *
+   * @return {@code true} if the cache is backing off, otherwise {@code false}
+   */
+  boolean isBackingOff() {
+    return System.currentTimeMillis() < nextAttemptAt;
+  }
+
+  private DhcpLeaseSnapshot refreshAndWait() {
+    final RuntimeException error = lastError;
+    if (error != null && isBackingOff()) {
+      throw error;
+    }
+    try {
+      return startRefresh().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw ServiceException.internalServerError(
+          "Loading dhcp leases failed.",
+          "org.bremersee:dc-con-app:5c0f7e2a-8d41-4b6e-b1a9-3e6d2f8c7a14",
+          e.getCause());
+    }
+  }
+
+  private CompletableFuture<DhcpLeaseSnapshot> startRefresh() {
+    synchronized (lock) {
+      if (refresh == null) {
+        refresh = new CompletableFuture<>();
+        final CompletableFuture<DhcpLeaseSnapshot> future = refresh;
+        try {
+          executor.execute(() -> load(future));
+        } catch (RuntimeException e) {
+          refresh = null;
+          future.completeExceptionally(e);
+        }
+        return future;
+      }
+      return refresh;
+    }
+  }
+
+  private void load(final CompletableFuture<DhcpLeaseSnapshot> future) {
+    try {
+      final DhcpLeaseSnapshot loaded = DhcpLeaseSnapshot.of(loader.get());
+      snapshot = loaded;
+      failures = 0;
+      nextAttemptAt = 0L;
+      lastError = null;
+      finishRefresh(future);
+      future.complete(loaded);
+
+    } catch (Throwable e) {
+      // Waiting callers must be released on any failure, also on an error.
+      try {
+        backOff(e);
+      } finally {
+        finishRefresh(future);
+        future.completeExceptionally(e);
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+    }
+  }
+
+  private void backOff(final Throwable cause) {
+    final int count = Math.min(failures + 1, 31);
+    final long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << (count - 1));
+    failures = count;
+    nextAttemptAt = System.currentTimeMillis() + (backoff > 0L ? backoff : maxBackoffMillis);
+    lastError = cause instanceof RuntimeException
+        ? (RuntimeException) cause
+        : ServiceException.internalServerError(
+            "Loading dhcp leases failed.",
+            "org.bremersee:dc-con-app:5c0f7e2a-8d41-4b6e-b1a9-3e6d2f8c7a14",
+            cause);
+    log.warn("msg=[Refreshing dhcp leases failed.] failures=[{}] backoffMillis=[{}]",
+        count, backoff, cause);
+  }
+
+  private void finishRefresh(final CompletableFuture<DhcpLeaseSnapshot> future) {
+    synchronized (lock) {
+      if (refresh == future) {
+        refresh = null;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.bremersee.dccon.model.DhcpLease;
+
+/**
+ * The index of dhcp leases by ip4 address. The ip is packed into an {@code int} and the mac
+ * into a {@code long}; both are stored in arrays with open addressing (linear probing), so that a
+ * lookup needs neither string hashing nor boxing. If there are several leases with the same ip or
+ * mac, the first one wins.
+ *
+ * @author Christian Bremer
+ */
+final class DhcpLeaseIp4Index {
+
+  private static final int[] EMPTY_SLOTS = new int[0];
+
+  private final int[] ips;
+
+  private final long[] macs;
+
+  private final DhcpLease[] leases;
+
+  private final int[] macSlots;
+
+  private final int size;
+
+  /**
+   * Instantiates a new dhcp lease index. Leases without a valid ip4 address are ignored.
+   *
+   * @param orderedLeases the leases, the first one of an ip or mac wins
+   */
+  DhcpLeaseIp4Index(final Collection<DhcpLease> orderedLeases) {
+    final int capacity = capacity(orderedLeases.size());
+    ips = new int[capacity];
+    macs = new long[capacity];
+    leases = new DhcpLease[capacity];
+    macSlots = orderedLeases.isEmpty() ? EMPTY_SLOTS : new int[capacity];
+    int count = 0;
+    for (final DhcpLease lease : orderedLeases) {
+      final long ip = packIp4(lease.getIp());
+      if (ip >= 0L && put((int) ip, packMac(lease.getMac()), lease)) {
+        count++;
+      }
+    }
+    size = count;
+  }
+
+  private static int capacity(final int expectedSize) {
+    // the load factor is at most 0.5
+    int capacity = 2;
+    while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static int hash(final int key) {
+    final int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int hash(final long key) {
+    return hash((int) (key ^ (key >>> 32)));
+  }
+
+  private boolean put(final int ip, final long mac, final DhcpLease lease) {
+    final int mask = leases.length - 1;
+    int slot = hash(ip) & mask;
+    while (leases[slot] != null) {
+      if (ips[slot] == ip) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    ips[slot] = ip;
+    macs[slot] = mac;
+    leases[slot] = lease;
+    if (mac >= 0L) {
+      int macSlot = hash(mac) & mask;
+      while (macSlots[macSlot] != 0) {
+        if (macs[macSlots[macSlot] - 1] == mac) {
+          return true;
+        }
+        macSlot = (macSlot + 1) & mask;
+      }
+      macSlots[macSlot] = slot + 1;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of indexed leases.
+   *
+   * @return the number of indexed leases
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the indexed leases (in no particular order).
+   *
+   * @return the indexed leases
+   */
+  List<DhcpLease> leases() {
+    final List<DhcpLease> values = new ArrayList<>(size);
+    for (final DhcpLease lease : leases) {
+      if (lease != null) {
+        values.add(lease);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Gets the lease of the packed ip.
+   *
+   * @param ip the packed ip (see {@link #packIp4(String)})
+   * @return the lease or {@code null}
+   */
+  DhcpLease get(final int ip) {
+    final int mask = leases.length - 1;
+    int slot = hash(ip) & mask;
+    while (leases[slot] != null) {
+      if (ips[slot] == ip) {
+        return leases[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Gets the lease of the ip.
+   *
+   * @param ip the ip
+   * @return the lease or {@code null}
+   */
+  DhcpLease get(final String ip) {
+    final long packed = packIp4(ip);
+    return packed >= 0L ? get((int) packed) : null;
+  }
+
+  /**
+   * Gets the lease of the mac.
+   *
+   * @param mac the mac (upper or lower case, with colons or hyphens)
+   * @return the lease or {@code null}
+   */
+  DhcpLease getByMac(final String mac) {
+    final long packed = packMac(mac);
+    if (packed < 0L || macSlots.length == 0) {
+      return null;
+    }
+    final int mask = macSlots.length - 1;
+    int macSlot = hash(packed) & mask;
+    while (macSlots[macSlot] != 0) {
+      final int slot = macSlots[macSlot] - 1;
+      if (macs[slot] == packed) {
+        return leases[slot];
+      }
+      macSlot = (macSlot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Packs an ip4 address in dotted decimal notation (like {@code 192.168.1.109}) into the lower
+   * 32 bits of a long.
+   *
+   * @param ip the ip
+   * @return the packed ip or {@code -1}, if the value isn't an ip4 address
+   */
+  static long packIp4(final String ip) {
+    if (ip == null) {
+      return -1L;
+    }
+    final int length = ip.length();
+    long packed = 0L;
+    int octet = 0;
+    int digits = 0;
+    int dots = 0;
+    for (int i = 0; i < length; i++) {
+      final char c = ip.charAt(i);
+      if (c >= '0' && c <= '9') {
+        octet = octet * 10 + (c - '0');
+        if (++digits > 3 || octet > 255) {
+          return -1L;
+        }
+      } else if (c == '.' && digits > 0 && ++dots < 4) {
+        packed = (packed << 8) | octet;
+        octet = 0;
+        digits = 0;
+      } else {
+        return -1L;
+      }
+    }
+    if (dots != 3 || digits == 0) {
+      return -1L;
+    }
+    return (packed << 8) | octet;
+  }
+
+  /**
+   * Packs a mac address (like {@code b8:27:eb:00:00:01} or {@code B8-27-EB-00-00-01}) into the
+   * lower 48 bits of a long.
+   *
+   * @param mac the mac
+   * @return the packed mac or {@code -1}, if the value isn't a mac address
+   */
+  static long packMac(final String mac) {
+    if (mac == null) {
+      return -1L;
+    }
+    final String value = mac.trim();
+    if (value.length() != 17) {
+      return -1L;
+    }
+    long packed = 0L;
+    for (int i = 0; i < 17; i++) {
+      final char c = value.charAt(i);
+      if (i % 3 == 2) {
+        if (c != ':' && c != '-') {
+          return -1L;
+        }
+        continue;
+      }
+      final int digit = Character.digit(c, 16);
+      if (digit < 0) {
+        return -1L;
+      }
+      packed = (packed << 4) | digit;
+    }
+    return packed;
+  }
+
+}
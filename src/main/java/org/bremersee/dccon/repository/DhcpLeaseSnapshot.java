@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.dccon.model.DhcpLease;
+
+/**
+ * The immutable snapshot of the active dhcp leases. It is built from one listing of the leases
+ * and contains an index by ip, by host name (upper case) and by mac. Ip4 addresses and the macs
+ * of their leases are looked up in a {@link DhcpLeaseIp4Index}; leases with another ip (like an
+ * ip6 address) are kept in small maps beside it. If there are several leases for the same key, the
+ * one with the latest begin wins.
+ *
+ * @author Christian Bremer
+ */
+public class DhcpLeaseSnapshot {
+
+  private static final DhcpLeaseSnapshot EMPTY = new DhcpLeaseSnapshot(Collections.emptyList(), 0L);
+
+  private final long createdAt;
+
+  private final Map<String, DhcpLease> byHostName;
+
+  private final DhcpLeaseIp4Index ip4Index;
+
+  private final Map<String, DhcpLease> otherByIp;
+
+  private final Map<Long, DhcpLease> otherByMac;
+
+  private DhcpLeaseSnapshot(final Collection<DhcpLease> activeLeases, final long createdAt) {
+    final List<DhcpLease> leases = new ArrayList<>(activeLeases);
+    leases.sort(ComparatorBuilder.builder()
+        .fromWellKnownText("begin,desc")
+        .build());
+    final Map<String, DhcpLease> hostNameMap = new HashMap<>();
+    final Map<String, DhcpLease> otherIpMap = new HashMap<>();
+    final Map<Long, DhcpLease> otherMacMap = new HashMap<>();
+    final Set<Long> macs = new HashSet<>();
+    for (final DhcpLease lease : leases) {
+      if (lease.getHostname() != null) {
+        hostNameMap.putIfAbsent(lease.getHostname().toUpperCase(), lease);
+      }
+      final boolean ip4 = DhcpLeaseIp4Index.packIp4(lease.getIp()) >= 0L;
+      if (!ip4 && lease.getIp() != null) {
+        otherIpMap.putIfAbsent(lease.getIp(), lease);
+      }
+      // a mac is only kept here, if its newest lease has no ip4 address
+      final long mac = DhcpLeaseIp4Index.packMac(lease.getMac());
+      if (mac >= 0L && macs.add(mac) && !ip4) {
+        otherMacMap.put(mac, lease);
+      }
+    }
+    this.createdAt = createdAt;
+    this.byHostName = Collections.unmodifiableMap(hostNameMap);
+    this.ip4Index = new DhcpLeaseIp4Index(leases);
+    this.otherByIp = otherIpMap.isEmpty() ? Collections.emptyMap() : otherIpMap;
+    this.otherByMac = otherMacMap.isEmpty() ? Collections.emptyMap() : otherMacMap;
+  }
+
+  /**
+   * Creates a snapshot.
+   *
+   * @param activeLeases the active leases
+   * @return the snapshot
+   */
+  public static DhcpLeaseSnapshot of(final Collection<DhcpLease> activeLeases) {
+    return new DhcpLeaseSnapshot(activeLeases, System.currentTimeMillis());
+  }
+
+  /**
+   * Gets an empty snapshot, that is older than every time to live.
+   *
+   * @return the empty snapshot
+   */
+  public static DhcpLeaseSnapshot empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Determines whether this snapshot is older than the given time to live.
+   *
+   * @param timeToLive the time to live
+   * @return {@code true} if the snapshot is expired, otherwise {@code false}
+   */
+  public boolean isOlderThan(final Duration timeToLive) {
+    return System.currentTimeMillis() - createdAt >= timeToLive.toMillis();
+  }
+
+  /**
+   * Gets the active leases with ip as key. The map is built from the index on every call.
+   *
+   * @return the unmodifiable lease map
+   */
+  public Map<String, DhcpLease> getByIp() {
+    final List<DhcpLease> ip4Leases = ip4Index.leases();
+    final Map<String, DhcpLease> map = new HashMap<>(
+        (ip4Leases.size() + otherByIp.size()) * 4 / 3 + 1);
+    for (final DhcpLease lease : ip4Leases) {
+      map.put(lease.getIp(), lease);
+    }
+    map.putAll(otherByIp);
+    return Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Gets the active leases with host name in upper case as key.
+   *
+   * @return the unmodifiable lease map
+   */
+  public Map<String, DhcpLease> getByHostName() {
+    return byHostName;
+  }
+
+  /**
+   * Find active lease by ip.
+   *
+   * @param ip the ip
+   * @return the lease
+   */
+  public Optional<DhcpLease> findByIp(final String ip) {
+    if (ip == null) {
+      return Optional.empty();
+    }
+    final long ip4 = DhcpLeaseIp4Index.packIp4(ip);
+    return Optional.ofNullable(ip4 >= 0L ? ip4Index.get((int) ip4) : otherByIp.get(ip));
+  }
+
+  /**
+   * Find active lease by host name (case insensitive).
+   *
+   * @param hostName the host name
+   * @return the lease
+   */
+  public Optional<DhcpLease> findByHostName(final String hostName) {
+    return Optional.ofNullable(hostName).map(name -> byHostName.get(name.toUpperCase()));
+  }
+
+  /**
+   * Find active lease by mac.
+   *
+   * @param mac the mac (upper or lower case, with colons or hyphens)
+   * @return the lease
+   */
+  public Optional<DhcpLease> findByMac(final String mac) {
+    if (!otherByMac.isEmpty()) {
+      final DhcpLease lease = otherByMac.get(DhcpLeaseIp4Index.packMac(mac));
+      if (lease != null) {
+        return Optional.of(lease);
+      }
+    }
+    return Optional.ofNullable(ip4Index.getByMac(mac));
+  }
+
+}
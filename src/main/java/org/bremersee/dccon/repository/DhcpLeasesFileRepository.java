@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.model.DhcpLease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * The dhcp repository, that reads the leases file of the ISC dhcp server directly instead of
+ * calling {@code dhcp-lease-list}. Only the appended lease blocks are read, so that the leases are
+ * nearly always up to date without forking a process. Changes of the file are noticed with a
+ * watch service; additionally the size of the file is checked on every read.
+ *
+ * @author Christian Bremer
+ */
+@Profile("cli")
+@ConditionalOnProperty(
+    prefix = "bremersee.domain-controller",
+    name = "dhcp-leases-file-enabled",
+    havingValue = "true")
+@Component("dhcpRepository")
+@Slf4j
+public class DhcpLeasesFileRepository implements DhcpRepository {
+
+  private final Path file;
+
+  private final DhcpLeasesJournal journal;
+
+  private final Duration timeToLive;
+
+  private final Object snapshotLock = new Object();
+
+  private volatile DhcpLeaseSnapshot snapshot = DhcpLeaseSnapshot.empty();
+
+  private volatile long snapshotVersion = -1L;
+
+  private WatchService watchService;
+
+  private Thread watcher;
+
+  /**
+   * Instantiates a new dhcp leases file repository.
+   *
+   * @param properties the properties
+   */
+  public DhcpLeasesFileRepository(final DomainControllerProperties properties) {
+    this.file = Paths.get(properties.getDhcpLeasesFile());
+    this.journal = new DhcpLeasesJournal(file);
+    this.timeToLive = properties.getDhcpLeasesTimeToLive();
+  }
+
+  /**
+   * Reads the leases file and starts watching it.
+   */
+  @PostConstruct
+  public void start() {
+    journal.update();
+    final Path dir = file.toAbsolutePath().getParent();
+    try {
+      watchService = dir.getFileSystem().newWatchService();
+      dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+      watcher = new Thread(this::watch, "dhcp-leases-watcher");
+      watcher.setDaemon(true);
+      watcher.start();
+      log.info("msg=[Watching dhcp leases file.] file=[{}]", file);
+
+    } catch (IOException e) {
+      log.warn("msg=[Watching dhcp leases file failed, it will be read on demand.] file=[{}]",
+          file, e);
+    }
+  }
+
+  /**
+   * Stops watching the leases file.
+   */
+  @PreDestroy
+  public void stop() {
+    if (watcher != null) {
+      watcher.interrupt();
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.debug("msg=[Closing watch service failed.]", e);
+      }
+    }
+  }
+
+  private void watch() {
+    final Path fileName = file.getFileName();
+    while (!Thread.currentThread().isInterrupted()) {
+      final WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      boolean changed = false;
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        changed = changed || event.kind() == OVERFLOW || fileName.equals(event.context());
+      }
+      key.reset();
+      if (changed && journal.update()) {
+        log.trace("msg=[Dhcp leases have changed.] version=[{}]", journal.getVersion());
+      }
+    }
+  }
+
+  @Override
+  public List<DhcpLease> findAll() {
+    journal.update();
+    return journal.getLeases(true);
+  }
+
+  @Override
+  public DhcpLeaseSnapshot findActiveSnapshot() {
+    journal.update();
+    final long version = journal.getVersion();
+    final DhcpLeaseSnapshot current = snapshot;
+    if (snapshotVersion == version && !current.isOlderThan(timeToLive)) {
+      return current;
+    }
+    synchronized (snapshotLock) {
+      if (snapshotVersion != version || snapshot.isOlderThan(timeToLive)) {
+        snapshot = DhcpLeaseSnapshot.of(journal.getLeases(false));
+        snapshotVersion = version;
+      }
+      return snapshot;
+    }
+  }
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.model.DhcpLease;
+
+/**
+ * The dhcp leases journal keeps the leases of the ISC dhcp server file {@code dhcpd.leases} in
+ * memory. The file is a journal: the dhcp server appends a new block for every change of a lease,
+ * so the last block of an IP wins. The journal remembers the byte offset of the last complete
+ * block and only reads the appended bytes on {@link #update()}. If the dhcp server has rewritten
+ * the file (it does so periodically by renaming a new file), the file is read again from the
+ * beginning.
+ *
+ * <p>A lease block looks like this:
+ * <pre>
+ * lease 192.168.1.109 {
+ *   starts 0 2019/08/18 11:20:33;
+ *   ends 0 2019/08/18 11:50:33;
+ *   binding state active;
+ *   hardware ethernet b8:xx:xx:xx:xx:xx;
+ *   client-hostname "ukelei";
+ * }
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class DhcpLeasesJournal {
+
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter
+      .ofPattern("yyyy/MM/dd HH:mm:ss");
+
+  private final Path file;
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+  private Object fileKey;
+
+  private long offset;
+
+  private long version;
+
+  /**
+   * Instantiates a new dhcp leases journal.
+   *
+   * @param file the dhcp leases file
+   */
+  DhcpLeasesJournal(final Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Gets the version, it is incremented whenever the leases have changed.
+   *
+   * @return the version
+   */
+  synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Reads the appended lease blocks of the file.
+   *
+   * @return {@code true} if the leases have changed, otherwise {@code false}
+   */
+  synchronized boolean update() {
+    try {
+      if (!Files.exists(file)) {
+        return false;
+      }
+      final BasicFileAttributes attributes = Files
+          .readAttributes(file, BasicFileAttributes.class);
+      final Object key = attributes.fileKey();
+      if (!Objects.equals(fileKey, key) || attributes.size() < offset) {
+        log.debug("msg=[Dhcp leases file was rotated.] file=[{}]", file);
+        entries.clear();
+        fileKey = key;
+        offset = 0L;
+        version++;
+      }
+      if (attributes.size() == offset) {
+        return false;
+      }
+      final int size = readAppendedBlocks();
+      if (size > 0) {
+        version++;
+        return true;
+      }
+      return false;
+
+    } catch (IOException e) {
+      log.error("msg=[Reading dhcp leases file failed.] file=[{}]", file, e);
+      return false;
+    }
+  }
+
+  private int readAppendedBlocks() throws IOException {
+    final byte[] bytes;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long length = channel.size() - offset;
+      if (length <= 0L || length > Integer.MAX_VALUE) {
+        return 0;
+      }
+      final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+      int read = 0;
+      while (buffer.hasRemaining() && read >= 0) {
+        read = channel.read(buffer, offset + buffer.position());
+      }
+      bytes = buffer.array();
+    }
+
+    // Only complete lines of complete top level blocks are consumed, the rest is read again
+    // with the next update, because the dhcp server may still write it.
+    int consumed = 0;
+    int depth = 0;
+    int lineStart = 0;
+    final List<String> block = new ArrayList<>();
+    int blocks = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] != '\n') {
+        continue;
+      }
+      final String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8)
+          .trim();
+      lineStart = i + 1;
+      if (line.isEmpty() || line.startsWith("#")) {
+        if (depth == 0) {
+          consumed = lineStart;
+        }
+        continue;
+      }
+      block.add(line);
+      if (line.endsWith("{")) {
+        depth++;
+      } else if (line.startsWith("}")) {
+        depth = Math.max(0, depth - 1);
+      } else if (depth == 0) {
+        // a top level statement, like 'server-duid "...";'
+        block.clear();
+        consumed = lineStart;
+      }
+      if (depth == 0 && !block.isEmpty()) {
+        if (parseBlock(block)) {
+          blocks++;
+        }
+        block.clear();
+        consumed = lineStart;
+      }
+    }
+    offset += consumed;
+    return blocks;
+  }
+
+  private boolean parseBlock(final List<String> block) {
+    final String head = block.get(0);
+    if (!head.startsWith("lease ")) {
+      return false;
+    }
+    final String ip = head.substring("lease ".length(), head.length() - 1).trim();
+    final Entry entry = new Entry();
+    for (final String line : block.subList(1, block.size())) {
+      // e. g. 'starts epoch 1566127233; # Sun Aug 18 11:20:33 2019'
+      final int end = line.indexOf(';');
+      final String statement = end >= 0 ? line.substring(0, end).trim() : line;
+      if (statement.startsWith("starts ")) {
+        entry.begin = parseTime(statement.substring("starts ".length()));
+      } else if (statement.startsWith("ends ")) {
+        entry.end = parseTime(statement.substring("ends ".length()));
+      } else if (statement.startsWith("binding state ")) {
+        entry.active = "active".equals(statement.substring("binding state ".length()).trim());
+      } else if (statement.startsWith("hardware ethernet ")) {
+        entry.mac = statement.substring("hardware ethernet ".length()).trim().toLowerCase();
+      } else if (statement.startsWith("client-hostname ")) {
+        entry.hostname = unquote(statement.substring("client-hostname ".length()).trim());
+      }
+    }
+    // The last block of an ip wins, so it is moved to the end.
+    entries.remove(ip);
+    if (entry.mac != null && entry.begin != null) {
+      entries.put(ip, entry.withIp(ip));
+    }
+    return true;
+  }
+
+  /**
+   * Parses a time of the dhcp leases file. As of https://linux.die.net/man/5/dhcpd.leases the
+   * time is either {@code weekday yyyy/mm/dd hh:mm:ss} in UTC, {@code epoch seconds} or {@code
+   * never}.
+   *
+   * @param value the value
+   * @return the time or {@code null}
+   */
+  static OffsetDateTime parseTime(final String value) {
+    final String[] parts = value.trim().split("\\s+");
+    try {
+      if (parts.length >= 2 && "epoch".equals(parts[0])) {
+        return OffsetDateTime.ofInstant(
+            Instant.ofEpochSecond(Long.parseLong(parts[1])), ZoneOffset.UTC);
+      }
+      if (parts.length >= 3) {
+        return OffsetDateTime.of(
+            LocalDateTime.parse(parts[1] + " " + parts[2], TIME_FORMATTER),
+            ZoneOffset.UTC);
+      }
+    } catch (NumberFormatException | DateTimeParseException e) {
+      log.warn("msg=[Parsing time of dhcp lease failed.] value=[{}]", value);
+    }
+    return null;
+  }
+
+  private static String unquote(final String value) {
+    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      return value.substring(1, value.length() - 1);
+    }
+    return value;
+  }
+
+  /**
+   * Gets the leases.
+   *
+   * @param all specifies whether to return all leases or only active ones
+   * @return the leases
+   */
+  synchronized List<DhcpLease> getLeases(final boolean all) {
+    final OffsetDateTime now = OffsetDateTime.now();
+    final List<DhcpLease> leases = new ArrayList<>(entries.size());
+    for (final Entry entry : entries.values()) {
+      if (all || (entry.active && (entry.end == null || entry.end.isAfter(now)))) {
+        leases.add(entry.lease);
+      }
+    }
+    return leases;
+  }
+
+  /**
+   * The last state of a lease.
+   */
+  private static class Entry {
+
+    private String mac;
+
+    private String hostname;
+
+    private OffsetDateTime begin;
+
+    private OffsetDateTime end;
+
+    private boolean active;
+
+    private DhcpLease lease;
+
+    private Entry withIp(final String ip) {
+      lease = new DhcpLease(
+          mac,
+          ip,
+          hostname != null ? hostname : "dhcp-" + ip.replace(".", "-"),
+          begin,
+          end,
+          null);
+      return this;
+    }
+  }
+
+}
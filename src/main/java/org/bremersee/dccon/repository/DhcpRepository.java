@@ -36,18 +36,30 @@ public interface DhcpRepository {
    */
   List<DhcpLease> findAll();
 
+  /**
+   * Find the snapshot of the active dhcp leases. The snapshot is built from one listing of the
+   * leases and replaced as a whole, when it is expired.
+   *
+   * @return the snapshot of the active dhcp leases
+   */
+  DhcpLeaseSnapshot findActiveSnapshot();
+
   /**
    * Find active by ip.
    *
    * @return the dhcp lease map with ip as key
    */
-  Map<String, DhcpLease> findActiveByIp();
+  default Map<String, DhcpLease> findActiveByIp() {
+    return findActiveSnapshot().getByIp();
+  }
 
   /**
    * Find active by host name.
    *
-   * @return the dhcp lease map with host name as key
+   * @return the dhcp lease map with host name (upper case) as key
    */
-  Map<String, DhcpLease> findActiveByHostName();
+  default Map<String, DhcpLease> findActiveByHostName() {
+    return findActiveSnapshot().getByHostName();
+  }
 
 }
@@ -17,18 +17,20 @@
 package org.bremersee.dccon.repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.bremersee.comparator.ComparatorBuilder;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DhcpLease;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.CommandExecutor;
 import org.bremersee.dccon.repository.cli.DhcpLeaseParser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
@@ -37,10 +39,19 @@ import org.springframework.stereotype.Component;
  * @author Christian Bremer
  */
 @Profile("cli")
+@ConditionalOnProperty(
+    prefix = "bremersee.domain-controller",
+    name = "dhcp-leases-file-enabled",
+    havingValue = "false",
+    matchIfMissing = true)
 @Component("dhcpRepository")
 @Slf4j
 public class DhcpRepositoryImpl extends AbstractRepository implements DhcpRepository {
 
+  private final ExecutorService refreshExecutor;
+
+  private final DhcpLeaseCache cache;
+
   private DhcpLeaseParser parser;
 
   /**
@@ -51,6 +62,26 @@ public class DhcpRepositoryImpl extends AbstractRepository implements DhcpReposi
   public DhcpRepositoryImpl(final DomainControllerProperties properties) {
     super(properties, null);
     parser = DhcpLeaseParser.defaultParser();
+    refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "dhcp-leases-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    cache = new DhcpLeaseCache(
+        () -> find(false),
+        refreshExecutor,
+        properties.getDhcpLeasesTimeToLive(),
+        properties.getDhcpLeasesMaxStaleness(),
+        properties.getDhcpLeasesRefreshBackoff(),
+        properties.getDhcpLeasesRefreshMaxBackoff());
+  }
+
+  /**
+   * Shuts the executor of the lease refresh down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
   }
 
   /**
@@ -70,37 +101,20 @@ public class DhcpRepositoryImpl extends AbstractRepository implements DhcpReposi
     return find(true);
   }
 
-  @Cacheable(cacheNames = "dhcp-leases-by-ip")
   @Override
-  public Map<String, DhcpLease> findActiveByIp() {
-    return findActiveMap(true);
-  }
-
-  @Cacheable(cacheNames = "dhcp-leases-by-name")
-  @Override
-  public Map<String, DhcpLease> findActiveByHostName() {
-    return findActiveMap(false);
+  public DhcpLeaseSnapshot findActiveSnapshot() {
+    return cache.get();
   }
 
   /**
-   * Find active dhcp leases and put them into a map.
-   *
-   * @param ip specifies whether the key of the map is the ip or the host name (upper case)
-   * @return the map with the dhcp leases
+   * Keeps the snapshot of the active dhcp leases up to date, so that it doesn't exceed the max
+   * staleness, when there are no requests.
    */
-  Map<String, DhcpLease> findActiveMap(final boolean ip) {
-    final List<DhcpLease> leases = find(false);
-    leases.sort(ComparatorBuilder.builder()
-        .fromWellKnownText("begin,desc")
-        .build());
-    final Map<String, DhcpLease> leaseMap = new HashMap<>();
-    for (final DhcpLease lease : leases) {
-      final String key = ip
-          ? lease.getIp()
-          : lease.getHostname().toUpperCase();
-      leaseMap.putIfAbsent(key, lease);
-    }
-    return leaseMap;
+  @Scheduled(fixedDelayString = "${bremersee.domain-controller.dhcp-leases-refresh-interval"
+      + ":30000}", initialDelay = 2000L)
+  public void keepActiveSnapshotUpToDate() {
+    log.trace("msg=[Keeping dhcp leases up to date.]");
+    cache.refreshInBackground();
   }
 
   /**
@@ -117,11 +131,12 @@ public class DhcpRepositoryImpl extends AbstractRepository implements DhcpReposi
     if (all) {
       commands.add("--all");
     }
-    return CommandExecutor.exec(
+    return schedule(CommandType.READ, () -> CommandExecutor.execStreaming(
         commands,
         null,
         getProperties().getDhcpLeaseListExecDir(),
-        parser);
+        CommandExecutor.DEFAULT_TIMEOUT,
+        parser));
   }
 
 }
@@ -18,19 +18,16 @@ package org.bremersee.dccon.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.bremersee.comparator.ComparatorBuilder;
 import org.bremersee.dccon.model.DhcpLease;
 import org.bremersee.exception.ServiceException;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -50,10 +47,16 @@ public class DhcpRepositoryMock implements DhcpRepository {
 
   private static final String DHCP_LOCATION = "classpath:demo/dhcp.json";
 
+  private static final Duration TIME_TO_LIVE = Duration.ofSeconds(30L);
+
   private final ResourceLoader resourceLoader = new DefaultResourceLoader();
 
   private final ObjectMapper objectMapper;
 
+  private final Object snapshotLock = new Object();
+
+  private volatile DhcpLeaseSnapshot snapshot = DhcpLeaseSnapshot.empty();
+
   /**
    * Instantiates a new dhcp repository mock.
    *
@@ -76,16 +79,18 @@ public class DhcpRepositoryMock implements DhcpRepository {
     findAll();
   }
 
-  @Cacheable(cacheNames = "dhcp-leases-by-ip")
-  @Override
-  public Map<String, DhcpLease> findActiveByIp() {
-    return findActiveMap(true);
-  }
-
-  @Cacheable(cacheNames = "dhcp-leases-by-name")
   @Override
-  public Map<String, DhcpLease> findActiveByHostName() {
-    return findActiveMap(false);
+  public DhcpLeaseSnapshot findActiveSnapshot() {
+    final DhcpLeaseSnapshot current = snapshot;
+    if (!current.isOlderThan(TIME_TO_LIVE)) {
+      return current;
+    }
+    synchronized (snapshotLock) {
+      if (snapshot.isOlderThan(TIME_TO_LIVE)) {
+        snapshot = DhcpLeaseSnapshot.of(findAll());
+      }
+      return snapshot;
+    }
   }
 
   @Override
@@ -112,19 +117,4 @@ public class DhcpRepositoryMock implements DhcpRepository {
     return time.plus(millisToAdd, ChronoUnit.MILLIS);
   }
 
-  private Map<String, DhcpLease> findActiveMap(final boolean ip) {
-    final List<DhcpLease> leases = findAll();
-    leases.sort(ComparatorBuilder.builder()
-        .fromWellKnownText("begin,desc")
-        .build());
-    final Map<String, DhcpLease> leaseMap = new HashMap<>();
-    for (final DhcpLease lease : leases) {
-      final String key = ip
-          ? lease.getIp()
-          : lease.getHostname().toUpperCase();
-      leaseMap.putIfAbsent(key, lease);
-    }
-    return leaseMap;
-  }
-
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.dccon.model.DnsNode;
+import org.bremersee.dccon.model.DnsRecord;
+
+/**
+ * The inverted index of the IPv4 addresses of the A records to the dns nodes.
+ *
+ * @author Christian Bremer
+ */
+class DnsNodeIpIndex {
+
+  private final Map<String, Set<Entry>> entriesByIp = new ConcurrentHashMap<>();
+
+  private final Map<Entry, Set<String>> ipsByEntry = new HashMap<>();
+
+  private volatile boolean initialized;
+
+  /**
+   * Determines whether the index was built or not.
+   *
+   * @return {@code true} if the index was built, otherwise {@code false}
+   */
+  boolean isInitialized() {
+    return initialized;
+  }
+
+  /**
+   * Find the dns nodes (zone name and node name) with an A record of the given IPv4.
+   *
+   * @param ip the IPv4
+   * @return the entries
+   */
+  Set<Entry> find(final String ip) {
+    final Set<Entry> entries = ip != null ? entriesByIp.get(ip) : null;
+    return entries != null ? Collections.unmodifiableSet(entries) : Collections.emptySet();
+  }
+
+  /**
+   * Replace the whole index.
+   *
+   * @param dnsNodesByZone the dns nodes by zone name
+   */
+  synchronized void replaceAll(final Map<String, ? extends Collection<DnsNode>> dnsNodesByZone) {
+    entriesByIp.clear();
+    ipsByEntry.clear();
+    for (final Map.Entry<String, ? extends Collection<DnsNode>> zone : dnsNodesByZone.entrySet()) {
+      for (final DnsNode dnsNode : zone.getValue()) {
+        add(zone.getKey(), dnsNode);
+      }
+    }
+    initialized = true;
+  }
+
+  /**
+   * Put the A records of the given dns node into the index. Existing entries of the dns node will
+   * be replaced.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param dnsNode the dns node (can be {@code null}, then the dns node will only be removed)
+   */
+  synchronized void put(final String zoneName, final String nodeName, final DnsNode dnsNode) {
+    remove(new Entry(zoneName, nodeName));
+    if (dnsNode != null) {
+      add(zoneName, dnsNode);
+    }
+  }
+
+  private void add(final String zoneName, final DnsNode dnsNode) {
+    final Entry entry = new Entry(zoneName, dnsNode.getName());
+    for (final DnsRecord record : dnsNode.getRecords()) {
+      if (DnsRecordType.A.is(record.getRecordType()) && record.getRecordValue() != null) {
+        entriesByIp
+            .computeIfAbsent(record.getRecordValue(), key -> ConcurrentHashMap.newKeySet())
+            .add(entry);
+        ipsByEntry.computeIfAbsent(entry, key -> new LinkedHashSet<>())
+            .add(record.getRecordValue());
+      }
+    }
+  }
+
+  private void remove(final Entry entry) {
+    final Set<String> ips = ipsByEntry.remove(entry);
+    if (ips != null) {
+      for (final String ip : ips) {
+        entriesByIp.computeIfPresent(ip, (key, entries) -> {
+          entries.remove(entry);
+          return entries.isEmpty() ? null : entries;
+        });
+      }
+    }
+  }
+
+  /**
+   * The index entry.
+   */
+  @Getter
+  @EqualsAndHashCode
+  @ToString
+  static class Entry {
+
+    private final String zoneName;
+
+    private final String nodeName;
+
+    /**
+     * Instantiates a new index entry.
+     *
+     * @param zoneName the zone name
+     * @param nodeName the node name
+     */
+    Entry(final String zoneName, final String nodeName) {
+      this.zoneName = zoneName.toLowerCase();
+      this.nodeName = nodeName.toLowerCase();
+    }
+  }
+
+}
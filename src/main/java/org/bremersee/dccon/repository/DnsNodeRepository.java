@@ -21,12 +21,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.LongConsumer;
 import java.util.stream.Stream;
 import javax.validation.constraints.NotNull;
 import org.bremersee.dccon.model.DnsNode;
 import org.bremersee.dccon.model.DnsPair;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.UnknownFilter;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
 import org.springframework.lang.Nullable;
 import org.springframework.validation.annotation.Validated;
 
@@ -67,18 +69,38 @@ public interface DnsNodeRepository {
    */
   Optional<DnsNode> findByHostName(@NotNull String hostName, UnknownFilter unknownFilter);
 
+  /**
+   * Find all with correlation values and dhcp leases.
+   *
+   * @param zoneName the zone name
+   * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
+   * @param query the query
+   * @return the dns nodes
+   */
+  default Stream<DnsNode> findAll(
+      @NotNull String zoneName,
+      @Nullable UnknownFilter unknownFilter,
+      @Nullable String query) {
+    return findAll(zoneName, unknownFilter, query, true, true);
+  }
+
   /**
    * Find all.
    *
    * @param zoneName the zone name
    * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
    * @param query the query
+   * @param withCorrelationValues if {@code true}, the correlated records (A to PTR and PTR to
+   *     A) will be looked up and inserted
+   * @param withDhcpLeases if {@code true}, the dhcp leases will be looked up and inserted
    * @return the dns nodes
    */
   Stream<DnsNode> findAll(
       @NotNull String zoneName,
       @Nullable UnknownFilter unknownFilter,
-      @Nullable String query);
+      @Nullable String query,
+      boolean withCorrelationValues,
+      boolean withDhcpLeases);
 
   /**
    * Check whether dns node exists or not.
@@ -93,18 +115,38 @@ public interface DnsNodeRepository {
       @NotNull String nodeName,
       @Nullable UnknownFilter unknownFilter);
 
+  /**
+   * Find dns node by zone name and node name with correlation values and dhcp leases.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
+   * @return the dns node
+   */
+  default Optional<DnsNode> findOne(
+      @NotNull String zoneName,
+      @NotNull String nodeName,
+      @Nullable UnknownFilter unknownFilter) {
+    return findOne(zoneName, nodeName, unknownFilter, true, true);
+  }
+
   /**
    * Find dns node by zone name and node name.
    *
    * @param zoneName the zone name
    * @param nodeName the node name
    * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
+   * @param withCorrelationValues if {@code true}, the correlated records (A to PTR and PTR to
+   *     A) will be looked up and inserted
+   * @param withDhcpLeases if {@code true}, the dhcp leases will be looked up and inserted
    * @return the dns node
    */
   Optional<DnsNode> findOne(
       @NotNull String zoneName,
       @NotNull String nodeName,
-      @Nullable UnknownFilter unknownFilter);
+      @Nullable UnknownFilter unknownFilter,
+      boolean withCorrelationValues,
+      boolean withDhcpLeases);
 
   /**
    * Find correlated dns node optional.
@@ -118,7 +160,8 @@ public interface DnsNodeRepository {
       @NotNull DnsRecord record);
 
   /**
-   * Save dns node.
+   * Save dns node. The modification time of the returned dns node may be stale, because the dns
+   * node isn't necessarily read again after it was saved.
    *
    * @param zoneName the zone name
    * @param dnsNode the dns node
@@ -126,6 +169,16 @@ public interface DnsNodeRepository {
    */
   Optional<DnsNode> save(@NotNull String zoneName, @NotNull DnsNode dnsNode);
 
+  /**
+   * Save several dns nodes of a dns zone. A dns node, that can't be saved, doesn't stop saving the
+   * others, the failure is reported in its result.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @return the result of every dns node in the order of the given dns nodes
+   */
+  List<DnsNodeSaveResult> saveAll(@NotNull String zoneName, @NotNull Collection<DnsNode> dnsNodes);
+
   /**
    * Delete a dns node.
    *
@@ -134,7 +187,7 @@ public interface DnsNodeRepository {
    * @return {@code true} if the dns node was removed; {@code false} if dns node didn't exist
    */
   default boolean delete(@NotNull String zoneName, @NotNull String nodeName) {
-    return findOne(zoneName, nodeName, UnknownFilter.ALL)
+    return findOne(zoneName, nodeName, UnknownFilter.ALL, false, false)
         .map(node -> delete(zoneName, node))
         .orElse(false);
   }
@@ -154,8 +207,23 @@ public interface DnsNodeRepository {
    * @param zoneName the zone name
    */
   default void deleteAll(@NotNull String zoneName) {
-    findAll(zoneName, UnknownFilter.ALL, null)
-        .forEach(dnsNode -> delete(zoneName, dnsNode));
+    deleteAll(zoneName, (LongConsumer) null);
+  }
+
+  /**
+   * Delete all dns nodes of the specified dns zone and report the progress.
+   *
+   * @param zoneName the zone name
+   * @param progress gets the number of deleted dns nodes after every step (can be {@code null})
+   */
+  default void deleteAll(@NotNull String zoneName, @Nullable LongConsumer progress) {
+    findAll(zoneName, UnknownFilter.ALL, null, false, false)
+        .forEach(dnsNode -> {
+          delete(zoneName, dnsNode);
+          if (progress != null) {
+            progress.accept(1L);
+          }
+        });
   }
 
   /**
@@ -165,10 +233,30 @@ public interface DnsNodeRepository {
    * @param nodeNames the node names
    */
   default void deleteAll(@NotNull String zoneName, @Nullable Collection<String> nodeNames) {
+    deleteAll(zoneName, nodeNames, null);
+  }
+
+  /**
+   * Delete all dns nodes with the specified names from the specified dns zone and report the
+   * progress.
+   *
+   * @param zoneName the zone name
+   * @param nodeNames the node names
+   * @param progress gets the number of deleted dns nodes after every step (can be {@code null})
+   */
+  default void deleteAll(
+      @NotNull String zoneName,
+      @Nullable Collection<String> nodeNames,
+      @Nullable LongConsumer progress) {
     if (nodeNames != null && !nodeNames.isEmpty()) {
       for (String nodeName : new LinkedHashSet<>(nodeNames)) {
-        findOne(zoneName, nodeName, UnknownFilter.ALL)
-            .ifPresent(dnsNode -> delete(zoneName, dnsNode));
+        findOne(zoneName, nodeName, UnknownFilter.ALL, false, false)
+            .ifPresent(dnsNode -> {
+              delete(zoneName, dnsNode);
+              if (progress != null) {
+                progress.accept(1L);
+              }
+            });
       }
     }
   }
@@ -19,15 +19,27 @@ package org.bremersee.dccon.repository;
 import static org.bremersee.dccon.model.UnknownFilter.ALL;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.data.ldaptive.LdaptiveEntryMapper;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
@@ -35,8 +47,11 @@ import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DnsNode;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.UnknownFilter;
-import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
+import org.bremersee.dccon.repository.cli.SambaToolBatch;
 import org.bremersee.dccon.repository.ldap.DnsNodeLdapMapper;
+import org.bremersee.dccon.repository.ldap.transcoder.DnsRecordValueTranscoder;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
 import org.bremersee.exception.ServiceException;
 import org.ldaptive.SearchFilter;
 import org.ldaptive.SearchRequest;
@@ -44,7 +59,6 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 /**
  * The dns node repository.
@@ -56,10 +70,15 @@ import org.springframework.util.StringUtils;
 @Slf4j
 public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
 
+  private static final DnsRecordValueTranscoder DNS_RECORD_VALUE_TRANSCODER
+      = new DnsRecordValueTranscoder();
+
   private final Map<String, LdaptiveEntryMapper<DnsNode>> dnsNodeLdapMapperMap;
 
   private DnsNodeLdapMapperProvider dnsNodeLdapMapperProvider;
 
+  private final ExecutorService deleteExecutor;
+
   /**
    * Instantiates a new dns node repository.
    *
@@ -76,17 +95,34 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
     super(properties, ldapTemplateProvider.getIfAvailable(), dhcpRepository, dnsZoneRepository);
     this.dnsNodeLdapMapperMap = new ConcurrentHashMap<>();
     this.dnsNodeLdapMapperProvider = (zoneName, unknownFilter) -> new DnsNodeLdapMapper(
-        getProperties(), zoneName, unknownFilter);
+        getProperties(), zoneName, unknownFilter, () -> findZoneSerial(zoneName));
+    this.deleteExecutor = Executors.newFixedThreadPool(
+        Math.max(1, properties.getDnsNodeDeleteParallelism()),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "dns-node-delete");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Shuts the executor of the bulk deletions down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    deleteExecutor.shutdownNow();
   }
 
   /**
-   * Keep dhcp lease caches up to date.
+   * Reconcile the ip index of the dns nodes with the directory.
    */
-  @Scheduled(fixedDelay = 30000L, initialDelay = 2000)
-  public void keepDhcpLeaseCachesUpToDate() {
-    log.trace("msg=[Keeping dhcp lease cache up to date.]");
-    getDhcpRepository().findActiveByIp();
-    getDhcpRepository().findActiveByHostName();
+  @Scheduled(
+      fixedDelayString = "${bremersee.domain-controller.dns-node-ip-index-reconcile-interval"
+          + ":300000}",
+      initialDelay = 10000L)
+  @Override
+  public void reconcileDnsNodeIpIndex() {
+    super.reconcileDnsNodeIpIndex();
   }
 
   private LdaptiveEntryMapper<DnsNode> getDnsNodeLdapMapper(
@@ -116,25 +152,30 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
   public Stream<DnsNode> findAll(
       final String zoneName,
       final UnknownFilter unknownFilter,
-      final String query) {
+      final String query,
+      final boolean withCorrelationValues,
+      final boolean withDhcpLeases) {
 
     final SearchRequest searchRequest = new SearchRequest(
         getProperties().buildDnsNodeBaseDn(zoneName),
-        new SearchFilter(getProperties().getDnsNodeFindAllFilter()));
+        new SearchFilter(getExcludedNodeNamePatterns()
+            .toSearchFilter("name", getProperties().getDnsNodeFindAllFilter())));
     searchRequest.setSearchScope(getProperties().getDnsNodeFindAllSearchScope());
     searchRequest.setBinaryAttributes("dnsRecord");
+    Stream<DnsNode> dnsNodes = getLdapTemplate()
+        .findAll(searchRequest, getDnsNodeLdapMapper(zoneName, unknownFilter))
+        .filter(this::isNonExcludedDnsNode);
+    if (withCorrelationValues) {
+      dnsNodes = insertCorrelationValues(zoneName, dnsNodes.collect(Collectors.toList())).stream();
+    }
+    if (withDhcpLeases) {
+      final DhcpLeaseSnapshot leases = getDhcpRepository().findActiveSnapshot();
+      dnsNodes = dnsNodes.map(dnsNode -> insertDhcpLeases(zoneName, dnsNode, leases));
+    }
     if (query == null || query.trim().length() == 0) {
-      return getLdapTemplate().findAll(searchRequest, getDnsNodeLdapMapper(zoneName, unknownFilter))
-          .filter(this::isNonExcludedDnsNode)
-          .map(dnsNode -> insertCorrelationValues(zoneName, dnsNode))
-          .map(dnsNode -> insertDhcpLeases(zoneName, dnsNode));
-    } else {
-      return getLdapTemplate().findAll(searchRequest, getDnsNodeLdapMapper(zoneName, unknownFilter))
-          .filter(this::isNonExcludedDnsNode)
-          .map(dnsNode -> insertCorrelationValues(zoneName, dnsNode))
-          .map(dnsNode -> insertDhcpLeases(zoneName, dnsNode))
-          .filter(dnsNode -> this.isQueryResult(dnsNode, query));
+      return dnsNodes;
     }
+    return dnsNodes.filter(dnsNode -> this.isQueryResult(dnsNode, query));
   }
 
   @Override
@@ -149,7 +190,7 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
   }
 
   @Override
-  Optional<DnsNode> findOne(
+  public Optional<DnsNode> findOne(
       final String zoneName,
       final String nodeName,
       final UnknownFilter unknownFilter,
@@ -173,6 +214,29 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
             : dnsNode);
   }
 
+  /**
+   * Find the serial of the dns zone, that samba uses for new records: the serial of the SOA
+   * record of the zone's root node ({@code @}).
+   *
+   * @param zoneName the zone name
+   * @return the serial or {@code null}, if there is no SOA record
+   */
+  Integer findZoneSerial(final String zoneName) {
+    final SearchFilter searchFilter = new SearchFilter(getProperties().getDnsNodeFindOneFilter());
+    searchFilter.setParameter(0, "@");
+    final SearchRequest searchRequest = new SearchRequest(
+        getProperties().buildDnsNodeBaseDn(zoneName),
+        searchFilter);
+    searchRequest.setSearchScope(getProperties().getDnsNodeFindAllSearchScope());
+    searchRequest.setBinaryAttributes("dnsRecord");
+    return getLdapTemplate().findOne(searchRequest, getDnsNodeLdapMapper(zoneName, ALL))
+        .flatMap(rootNode -> rootNode.getRecords().stream()
+            .map(DnsRecordValueTranscoder::decodeSoaSerial)
+            .filter(Objects::nonNull)
+            .findFirst())
+        .orElse(null);
+  }
+
   @Override
   public Optional<DnsNode> save(
       final String zoneName,
@@ -183,47 +247,19 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
           "Node name is not allowed.",
           "org.bremersee:dc-con-app:8dd7165e-89af-4423-900a-5fc0a71fe7bf");
     }
-    // Collect deleted records and save existing dns node
-    final Set<DnsRecord> deletedRecords = new LinkedHashSet<>();
-    DnsNode newDnsNode = findOne(zoneName, dnsNode.getName(), ALL, false, false)
-        .map(existingDnsNode -> {
-          for (final DnsRecord existingDnsRecord : existingDnsNode.getRecords()) {
-            if (!dnsNode.getRecords().contains(existingDnsRecord)) {
-              deletedRecords.add(existingDnsRecord);
-            }
-          }
-          if (deletedRecords.size() == existingDnsNode.getRecords().size()) {
-            getLdapTemplate().delete(
-                existingDnsNode,
-                getDnsNodeLdapMapper(zoneName, ALL));
-            return DnsNode.builder()
-                .name(dnsNode.getName())
-                .build();
-          }
-          return getLdapTemplate().save(dnsNode, getDnsNodeLdapMapper(zoneName, ALL));
-        })
-        .orElseGet(() -> DnsNode.builder()
-            .name(dnsNode.getName())
-            .build());
-
-    // Collect new records
-    final Set<DnsRecord> newRecords = new LinkedHashSet<>();
-    for (final DnsRecord record : dnsNode.getRecords()) {
-      if (!newDnsNode.getRecords().contains(record)) {
-        newRecords.add(record);
-      }
-    }
+    final Optional<DnsNode> existingDnsNode = findOne(
+        zoneName, dnsNode.getName(), ALL, false, false);
+    final RecordChanges changes = writeViaLdap(zoneName, dnsNode, existingDnsNode.orElse(null));
 
-    if (newDnsNode.getRecords().isEmpty() && newRecords.isEmpty()) {
-      // The dns node has no records, it will be deleted
-      if (StringUtils.hasText(newDnsNode.getDistinguishedName())) {
-        getLdapTemplate().delete(dnsNode, getDnsNodeLdapMapper(zoneName, ALL));
-      }
+    DnsNode newDnsNode;
+    if (dnsNode.getRecords().isEmpty()) {
       newDnsNode = null;
+    } else if (changes.cliRecords.isEmpty() && changes.savedDnsNode != null) {
+      newDnsNode = changes.savedDnsNode;
     } else {
-      // Add new record via cli
-      add(zoneName, dnsNode.getName(), newRecords);
-      // Load dns node from ldap
+      // Add new records, that cannot be encoded, via cli
+      add(zoneName, dnsNode.getName(), changes.cliRecords);
+      // Load dns node from ldap, because the cli has changed it
       newDnsNode = findOne(zoneName, dnsNode.getName(), ALL, false, false)
           .orElseThrow(() -> ServiceException.internalServerError(
               "Saving dns node failed.",
@@ -231,13 +267,181 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
     }
 
     // Do A record to PTR record synchronization
-    handlePtrRecords(zoneName, dnsNode.getName(), newRecords, deletedRecords);
+    handlePtrRecords(zoneName, dnsNode.getName(), changes.newRecords, changes.deletedRecords);
+    updateDnsNodeIpIndex(zoneName, dnsNode.getName(), newDnsNode);
 
     return Optional.ofNullable(newDnsNode);
   }
 
   /**
-   * Add a dns node.
+   * Save several dns nodes of a dns zone. The dns zone is read once, the records, that must be
+   * added via cli, are added with one batch and the PTR records are synchronized once for all
+   * dns nodes.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @return the result of every dns node in the order of the given dns nodes
+   */
+  @Override
+  public List<DnsNodeSaveResult> saveAll(
+      final String zoneName,
+      final Collection<DnsNode> dnsNodes) {
+
+    final List<DnsNode> nodes = new ArrayList<>(dnsNodes);
+    final DnsNodeSaveResult[] results = new DnsNodeSaveResult[nodes.size()];
+    final Set<String> names = new HashSet<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      final DnsNode dnsNode = nodes.get(i);
+      final String error = validateSaveAll(dnsNode, names);
+      if (error != null) {
+        results[i] = DnsNodeSaveResult.failed(dnsNode != null ? dnsNode.getName() : null, error);
+      }
+    }
+    final Map<String, DnsNode> existingDnsNodes = findAll(zoneName, ALL, null, false, false)
+        .collect(Collectors.toMap(
+            dnsNode -> dnsNode.getName().toLowerCase(),
+            dnsNode -> dnsNode,
+            (first, second) -> first));
+
+    // Write via ldap and collect the records, that must be added via cli
+    final PtrRecordChanges ptrRecordChanges = new PtrRecordChanges();
+    final SambaToolBatch batch = new SambaToolBatch();
+    final List<Integer> cliNodes = new ArrayList<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      if (results[i] != null) {
+        continue;
+      }
+      final DnsNode dnsNode = nodes.get(i);
+      final DnsNode existingDnsNode = existingDnsNodes.get(dnsNode.getName().toLowerCase());
+      final DnsNodeSaveResult.Status status = DnsNodeSaveResult
+          .getStatus(existingDnsNode, dnsNode);
+      results[i] = DnsNodeSaveResult.builder()
+          .name(dnsNode.getName())
+          .status(status)
+          .node(existingDnsNode)
+          .build();
+      if (status == DnsNodeSaveResult.Status.UNCHANGED) {
+        continue;
+      }
+      try {
+        final RecordChanges changes = writeViaLdap(zoneName, dnsNode, existingDnsNode);
+        if (!changes.cliRecords.isEmpty()) {
+          if (cliNodes.isEmpty()) {
+            kinit();
+          }
+          addToBatch(batch, zoneName, dnsNode.getName(), changes.cliRecords);
+          cliNodes.add(i);
+        } else {
+          results[i].setNode(dnsNode.getRecords().isEmpty() ? null : changes.savedDnsNode);
+          updateDnsNodeIpIndex(zoneName, dnsNode.getName(), results[i].getNode());
+        }
+        collectPtrRecordChanges(zoneName, dnsNode.getName(),
+            changes.newRecords, changes.deletedRecords, ptrRecordChanges);
+
+      } catch (RuntimeException e) {
+        log.warn("msg=[Saving dns node failed.] zone=[{}] node=[{}]",
+            zoneName, dnsNode.getName(), e);
+        results[i] = DnsNodeSaveResult.failed(dnsNode.getName(), e.getMessage());
+      }
+    }
+
+    // Add the records, that cannot be encoded, with one batch and read the zone once again
+    if (!cliNodes.isEmpty()) {
+      try {
+        execSambaToolBatch(batch);
+        final Map<String, DnsNode> savedDnsNodes = findAll(zoneName, ALL, null, false, false)
+            .collect(Collectors.toMap(
+                dnsNode -> dnsNode.getName().toLowerCase(),
+                dnsNode -> dnsNode,
+                (first, second) -> first));
+        for (final int i : cliNodes) {
+          final String nodeName = nodes.get(i).getName();
+          results[i].setNode(savedDnsNodes.get(nodeName.toLowerCase()));
+          updateDnsNodeIpIndex(zoneName, nodeName, results[i].getNode());
+        }
+      } catch (RuntimeException e) {
+        log.error("msg=[Adding dns records via cli failed.] zone=[{}]", zoneName, e);
+        for (final int i : cliNodes) {
+          results[i] = DnsNodeSaveResult.failed(nodes.get(i).getName(), e.getMessage());
+        }
+      }
+    }
+
+    applyPtrRecordChanges(ptrRecordChanges);
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Computes the deleted and the new records of the dns node and writes the records, that can be
+   * encoded, via ldap.
+   *
+   * @param zoneName the zone name
+   * @param dnsNode the dns node
+   * @param existingDnsNode the existing dns node (can be {@code null})
+   * @return the record changes
+   */
+  private RecordChanges writeViaLdap(
+      final String zoneName,
+      final DnsNode dnsNode,
+      final DnsNode existingDnsNode) {
+
+    // Collect deleted and new records
+    final RecordChanges changes = new RecordChanges();
+    final Set<DnsRecord> existingRecords = existingDnsNode != null
+        ? existingDnsNode.getRecords()
+        : Collections.emptySet();
+    for (final DnsRecord existingDnsRecord : existingRecords) {
+      if (!dnsNode.getRecords().contains(existingDnsRecord)) {
+        changes.deletedRecords.add(existingDnsRecord);
+      }
+    }
+    // The ldap mapper gets the new records with their encoded values as raw values, so that they
+    // are encoded only once.
+    final Set<DnsRecord> records = new LinkedHashSet<>();
+    for (final DnsRecord record : dnsNode.getRecords()) {
+      if (!existingRecords.contains(record)) {
+        changes.newRecords.add(record);
+        final byte[] value = DNS_RECORD_VALUE_TRANSCODER.encodeBinaryValue(record, 0);
+        if (value == null) {
+          changes.cliRecords.add(record);
+        }
+        records.add(DnsRecord.builder()
+            .recordType(record.getRecordType())
+            .recordValue(record.getRecordValue())
+            .ttlSeconds(record.getTtlSeconds())
+            .recordRawValue(value)
+            .build());
+      } else {
+        records.add(record);
+      }
+    }
+    final DnsNode source = DnsNode.builder()
+        .name(dnsNode.getName())
+        .records(records)
+        .build();
+
+    // Delete, modify or add the dns node via ldap
+    final boolean noRecordsViaLdap = changes.deletedRecords.size() == existingRecords.size()
+        && changes.cliRecords.size() == changes.newRecords.size();
+    if (existingDnsNode != null && noRecordsViaLdap) {
+      // The dns node has no records any more or the new records can only be added via cli
+      getLdapTemplate().delete(existingDnsNode, getDnsNodeLdapMapper(zoneName, ALL));
+    } else if (!noRecordsViaLdap
+        || (existingDnsNode != null && !changes.deletedRecords.isEmpty())) {
+      // The saved entry is the pre-image plus the modifications. The modification time of the
+      // directory is unknown without reading the entry again, so the saved dns node keeps the
+      // stale modification time of the pre-image (or none, if it is new).
+      changes.savedDnsNode = getLdapTemplate().save(source, getDnsNodeLdapMapper(zoneName, ALL));
+      if (changes.savedDnsNode != null) {
+        changes.savedDnsNode.setModified(
+            existingDnsNode != null ? existingDnsNode.getModified() : null);
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Add records to a dns node with samba-tool. Several records are added with one batch.
    *
    * @param zoneName the zone name
    * @param nodeName the node name
@@ -253,32 +457,182 @@ public class DnsNodeRepositoryImpl extends AbstractDnsNodeRepository {
     }
 
     kinit();
+    final SambaToolBatch batch = new SambaToolBatch();
+    addToBatch(batch, zoneName, nodeName, records);
+    execSambaToolBatch(batch);
+  }
+
+  /**
+   * Adds the samba-tool commands, that add the records to the dns node, to the batch. Commands,
+   * that can't be part of a batch, are executed immediately.
+   *
+   * @param batch the batch
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param records the records
+   */
+  private void addToBatch(
+      final SambaToolBatch batch,
+      final String zoneName,
+      final String nodeName,
+      final Collection<DnsRecord> records) {
+
     for (final DnsRecord record : records) {
-      final List<String> commands = new ArrayList<>();
-      sudo(commands);
-      commands.add(getProperties().getSambaToolBinary());
-      commands.add("dns");
-      commands.add("add");
-      commands.add(getProperties().getNameServerHost());
-      commands.add(zoneName);
-      commands.add(nodeName);
-      commands.add(record.getRecordType());
-      commands.add(record.getRecordValue());
-      auth(commands);
-      CommandExecutor.exec(commands, getProperties().getSambaToolExecDir());
+      final List<String> args = new ArrayList<>();
+      args.add("dns");
+      args.add("add");
+      args.add(getProperties().getNameServerHost());
+      args.add(zoneName);
+      args.add(nodeName);
+      args.add(record.getRecordType());
+      args.add(record.getRecordValue());
+      auth(args);
+      if (SambaToolBatch.isBatchable(args)) {
+        batch.add(args);
+      } else {
+        execSambaTool(CommandType.WRITE, args, response -> response);
+      }
     }
   }
 
   @Override
-  public boolean delete(final String zoneName, final DnsNode node) {
+  boolean doDelete(
+      final String zoneName,
+      final DnsNode node,
+      final PtrRecordChanges ptrRecordChanges) {
+
     if (isExcludedDnsNode(node)) {
       throw ServiceException.badRequest(
           "Node name is not allowed.",
           "org.bremersee:dc-con-app:3e377240-eafd-45ea-9ee6-048ab3ca8cec");
     }
     getLdapTemplate().delete(node, getDnsNodeLdapMapper(zoneName, ALL));
-    handlePtrRecords(zoneName, node.getName(), Collections.emptySet(), node.getRecords());
+    collectPtrRecordChanges(
+        zoneName, node.getName(), Collections.emptySet(), node.getRecords(), ptrRecordChanges);
+    updateDnsNodeIpIndex(zoneName, node.getName(), null);
     return true;
   }
 
+  /**
+   * Finds the dns nodes with one search request per {@code dnsNodeBulkSearchSize} names. The search
+   * filter is an OR of the find one filter of every name.
+   *
+   * @param zoneName the zone name
+   * @param nodeNames the node names
+   * @return the found dns nodes
+   */
+  @Override
+  Stream<DnsNode> findAllByNames(final String zoneName, final Collection<String> nodeNames) {
+    final List<String> names = nodeNames.stream()
+        .filter(this::isNonExcludedDnsNode)
+        .distinct()
+        .collect(Collectors.toList());
+    final int size = Math.max(1, getProperties().getDnsNodeBulkSearchSize());
+    return IntStream.range(0, (names.size() + size - 1) / size)
+        .mapToObj(i -> names.subList(i * size, Math.min(names.size(), (i + 1) * size)))
+        .flatMap(chunk -> {
+          final StringBuilder filter = new StringBuilder("(|");
+          for (final String name : chunk) {
+            final SearchFilter searchFilter = new SearchFilter(
+                getProperties().getDnsNodeFindOneFilter());
+            searchFilter.setParameter(0, name);
+            filter.append(searchFilter.format());
+          }
+          filter.append(')');
+          final SearchRequest searchRequest = new SearchRequest(
+              getProperties().buildDnsNodeBaseDn(zoneName),
+              new SearchFilter(filter.toString()));
+          searchRequest.setSearchScope(getProperties().getDnsNodeFindOneSearchScope());
+          searchRequest.setBinaryAttributes("dnsRecord");
+          return getLdapTemplate()
+              .findAll(searchRequest, getDnsNodeLdapMapper(zoneName, ALL))
+              .filter(this::isNonExcludedDnsNode);
+        });
+  }
+
+  /**
+   * Deletes the dns nodes in chunks of {@code dnsNodeBulkSearchSize} nodes. The nodes of a chunk
+   * are deleted in parallel, at most {@code dnsNodeDeleteParallelism} at the same time, so that
+   * the ldap pool isn't exhausted. If a deletion fails, the other deletions are continued and the
+   * first error is thrown at the end.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @param ptrRecordChanges the ptr record changes
+   * @param progress gets the number of deleted dns nodes after every chunk (can be {@code null})
+   */
+  @Override
+  void doDeleteAll(
+      final String zoneName,
+      final Stream<DnsNode> dnsNodes,
+      final PtrRecordChanges ptrRecordChanges,
+      final LongConsumer progress) {
+
+    final int size = Math.max(1, getProperties().getDnsNodeBulkSearchSize());
+    final List<DnsNode> chunk = new ArrayList<>(size);
+    RuntimeException failure = null;
+    final Iterator<DnsNode> iterator = dnsNodes.iterator();
+    while (iterator.hasNext()) {
+      chunk.add(iterator.next());
+      if (chunk.size() == size || !iterator.hasNext()) {
+        final RuntimeException error = deleteChunk(zoneName, chunk, ptrRecordChanges);
+        failure = failure != null ? failure : error;
+        if (progress != null) {
+          progress.accept(chunk.size());
+        }
+        chunk.clear();
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private RuntimeException deleteChunk(
+      final String zoneName,
+      final List<DnsNode> dnsNodes,
+      final PtrRecordChanges ptrRecordChanges) {
+
+    final LdaptiveEntryMapper<DnsNode> mapper = getDnsNodeLdapMapper(zoneName, ALL);
+    final List<CompletableFuture<DnsNode>> futures = dnsNodes.stream()
+        .filter(this::isNonExcludedDnsNode)
+        .map(dnsNode -> CompletableFuture.supplyAsync(() -> {
+          getLdapTemplate().delete(dnsNode, mapper);
+          return dnsNode;
+        }, deleteExecutor))
+        .collect(Collectors.toList());
+    RuntimeException failure = null;
+    for (final CompletableFuture<DnsNode> future : futures) {
+      try {
+        final DnsNode dnsNode = future.join();
+        collectPtrRecordChanges(zoneName, dnsNode.getName(),
+            Collections.emptySet(), dnsNode.getRecords(), ptrRecordChanges);
+        updateDnsNodeIpIndex(zoneName, dnsNode.getName(), null);
+
+      } catch (CompletionException e) {
+        log.error("msg=[Deleting dns node failed.] zone=[{}]", zoneName, e.getCause());
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException
+              ? (RuntimeException) e.getCause()
+              : e;
+        }
+      }
+    }
+    return failure;
+  }
+
+  /**
+   * The record changes of a dns node.
+   */
+  private static class RecordChanges {
+
+    private final Set<DnsRecord> deletedRecords = new LinkedHashSet<>();
+
+    private final Set<DnsRecord> newRecords = new LinkedHashSet<>();
+
+    private final Set<DnsRecord> cliRecords = new LinkedHashSet<>();
+
+    private DnsNode savedDnsNode;
+  }
+
 }
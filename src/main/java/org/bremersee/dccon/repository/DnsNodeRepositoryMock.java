@@ -126,20 +126,27 @@ public class DnsNodeRepositoryMock extends AbstractDnsNodeRepository implements
   }
 
   @Override
-  public Stream<DnsNode> findAll(String zoneName, UnknownFilter unknownFilter, String query) {
+  public Stream<DnsNode> findAll(
+      final String zoneName,
+      final UnknownFilter unknownFilter,
+      final String query,
+      final boolean withCorrelationValues,
+      final boolean withDhcpLeases) {
+
+    Stream<DnsNode> dnsNodes = getNodeMap(zoneName).values().stream()
+        .filter(this::isNonExcludedDnsNode)
+        .map(dnsNode -> build(dnsNode, zoneName));
+    if (withCorrelationValues) {
+      dnsNodes = insertCorrelationValues(zoneName, dnsNodes.collect(Collectors.toList())).stream();
+    }
+    if (withDhcpLeases) {
+      final DhcpLeaseSnapshot leases = getDhcpRepository().findActiveSnapshot();
+      dnsNodes = dnsNodes.map(dnsNode -> insertDhcpLeases(zoneName, dnsNode, leases));
+    }
     if (query == null || query.trim().length() == 0) {
-      return getNodeMap(zoneName).values().stream()
-          .filter(this::isNonExcludedDnsNode)
-          .map(dnsNode -> insertCorrelationValues(zoneName, dnsNode))
-          .map(dnsNode -> insertDhcpLeases(zoneName, dnsNode));
-    } else {
-      return getNodeMap(zoneName).values().stream()
-          .filter(this::isNonExcludedDnsNode)
-          .map(dnsNode -> build(dnsNode, zoneName))
-          .map(dnsNode -> insertCorrelationValues(zoneName, dnsNode))
-          .map(dnsNode -> insertDhcpLeases(zoneName, dnsNode))
-          .filter(dnsNode -> this.isQueryResult(dnsNode, query));
+      return dnsNodes;
     }
+    return dnsNodes.filter(dnsNode -> this.isQueryResult(dnsNode, query));
   }
 
   @Override
@@ -148,7 +155,7 @@ public class DnsNodeRepositoryMock extends AbstractDnsNodeRepository implements
   }
 
   @Override
-  Optional<DnsNode> findOne(
+  public Optional<DnsNode> findOne(
       final String zoneName,
       final String nodeName,
       final UnknownFilter unknownFilter,
@@ -213,15 +220,18 @@ public class DnsNodeRepositoryMock extends AbstractDnsNodeRepository implements
     }
 
     getNodeMap(zoneName).put(newDnsNode.getName().toLowerCase(), newDnsNode);
+    updateDnsNodeIpIndex(zoneName, newDnsNode.getName(), newDnsNode);
     handlePtrRecords(zoneName, newDnsNode.getName(), newRecords, deletedRecords);
     return findOne(zoneName, newDnsNode.getName(), null, true, true);
   }
 
   @Override
-  public boolean delete(String zoneName, DnsNode node) {
+  boolean doDelete(String zoneName, DnsNode node, PtrRecordChanges ptrRecordChanges) {
     boolean result = getNodeMap(zoneName).remove(node.getName().toLowerCase()) != null;
     if (result) {
-      handlePtrRecords(zoneName, node.getName(), Collections.emptySet(), node.getRecords());
+      updateDnsNodeIpIndex(zoneName, node.getName(), null);
+      collectPtrRecordChanges(
+          zoneName, node.getName(), Collections.emptySet(), node.getRecords(), ptrRecordChanges);
     }
     return result;
   }
@@ -16,15 +16,15 @@
 
 package org.bremersee.dccon.repository;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import lombok.AccessLevel;
 import lombok.Getter;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.repository.ldap.transcoder.DnsRecordDataMapper;
-import org.ldaptive.io.Hex;
 
 /**
  * The enum Dns record type.
@@ -41,12 +41,12 @@ public enum DnsRecordType {
   /**
    * A dns record type.
    */
-  A(1, DnsRecordDataMapper::parseA),
+  A(1, DnsRecordDataMapper::parseA, DnsRecordDataMapper::encodeA),
 
   /**
    * Ns dns record type.
    */
-  NS(2, null),
+  NS(2, DnsRecordDataMapper::parsePtr, DnsRecordDataMapper::encodePtr),
 
   /**
    * Md dns record type.
@@ -61,7 +61,7 @@ public enum DnsRecordType {
   /**
    * Cname dns record type.
    */
-  CNAME(5, DnsRecordDataMapper::parseCname),
+  CNAME(5, DnsRecordDataMapper::parseCname, DnsRecordDataMapper::encodePtr),
 
   /**
    * Soa dns record type.
@@ -96,7 +96,7 @@ public enum DnsRecordType {
   /**
    * Ptr dns record type.
    */
-  PTR(12, DnsRecordDataMapper::parsePtr),
+  PTR(12, DnsRecordDataMapper::parsePtr, DnsRecordDataMapper::encodePtr),
 
   /**
    * Hinfo dns record type.
@@ -111,12 +111,12 @@ public enum DnsRecordType {
   /**
    * Mx dns record type.
    */
-  MX(15, null),
+  MX(15, DnsRecordDataMapper::parseMx, DnsRecordDataMapper::encodeMx),
 
   /**
    * Txt dns record type.
    */
-  TXT(16, null),
+  TXT(16, DnsRecordDataMapper::parseTxt, DnsRecordDataMapper::encodeTxt),
 
   /**
    * Rp dns record type.
@@ -176,7 +176,7 @@ public enum DnsRecordType {
   /**
    * Aaaa dns record type.
    */
-  AAAA(28, null),
+  AAAA(28, DnsRecordDataMapper::parseAaaa, DnsRecordDataMapper::encodeAaaa),
 
   /**
    * Loc dns record type.
@@ -201,7 +201,7 @@ public enum DnsRecordType {
   /**
    * Srv dns record type.
    */
-  SRV(33, null),
+  SRV(33, DnsRecordDataMapper::parseSrv, DnsRecordDataMapper::encodeSrv),
 
   /**
    * Atma dns record type.
@@ -467,16 +467,26 @@ public enum DnsRecordType {
   /**
    * The value of this dns record type.
    */
-  @Getter(AccessLevel.PACKAGE)
+  @Getter
   private final int value;
 
-  private final BiFunction<byte[], Supplier<DnsRecord>, DnsRecord> dataMapper;
+  private final BiFunction<ByteBuffer, Supplier<DnsRecord>, DnsRecord> dataMapper;
+
+  private final Function<String, byte[]> dataEncoder;
+
+  DnsRecordType(
+      final int value,
+      final BiFunction<ByteBuffer, Supplier<DnsRecord>, DnsRecord> dataMapper) {
+    this(value, dataMapper, null);
+  }
 
   DnsRecordType(
       final int value,
-      final BiFunction<byte[], Supplier<DnsRecord>, DnsRecord> dataMapper) {
+      final BiFunction<ByteBuffer, Supplier<DnsRecord>, DnsRecord> dataMapper,
+      final Function<String, byte[]> dataEncoder) {
     this.value = value;
     this.dataMapper = dataMapper;
+    this.dataEncoder = dataEncoder;
   }
 
   /**
@@ -554,6 +564,19 @@ public enum DnsRecordType {
     }
   }
 
+  /**
+   * Encode the record value into the data format of active directory.
+   *
+   * @param recordValue the record value
+   * @return the data or {@code null}, if the record value cannot be encoded
+   */
+  public byte[] encodeData(final String recordValue) {
+    if (dataEncoder == null || recordValue == null) {
+      return null;
+    }
+    return dataEncoder.apply(recordValue);
+  }
+
   /**
    * Map data from active directory to dns record.
    *
@@ -562,16 +585,27 @@ public enum DnsRecordType {
    * @return the dns record
    */
   public DnsRecord mapData(final byte[] data, final Supplier<DnsRecord> dnsRecordSupplier) {
+    return mapData(data != null ? ByteBuffer.wrap(data) : null, dnsRecordSupplier);
+  }
+
+  /**
+   * Map data from active directory to dns record.
+   *
+   * @param data the data (the remaining bytes of the buffer)
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public DnsRecord mapData(final ByteBuffer data, final Supplier<DnsRecord> dnsRecordSupplier) {
     final DnsRecord dnsRecord = dnsRecordSupplier.get();
     if (dataMapper == null) {
-      if (data == null || data.length == 0) {
+      if (data == null || !data.hasRemaining()) {
         dnsRecord.setRecordValue("");
       } else {
-        dnsRecord.setRecordValue(new String(Hex.encode(data)));
+        dnsRecord.setRecordValue(DnsRecordDataMapper.toHex(data));
       }
       return dnsRecord;
     }
-    return dataMapper.apply(data, () -> dnsRecord);
+    return dataMapper.apply(data != null ? data : ByteBuffer.allocate(0), () -> dnsRecord);
   }
 
 }
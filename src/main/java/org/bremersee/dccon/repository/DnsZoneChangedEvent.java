@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * The dns zone changed event is published, when a dns zone was created or deleted.
+ *
+ * @author Christian Bremer
+ */
+public class DnsZoneChangedEvent extends ApplicationEvent {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new dns zone changed event.
+   *
+   * @param zoneName the name of the created or deleted dns zone
+   */
+  public DnsZoneChangedEvent(final String zoneName) {
+    super(zoneName);
+  }
+
+  /**
+   * Gets zone name.
+   *
+   * @return the zone name
+   */
+  public String getZoneName() {
+    return (String) getSource();
+  }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.model.DnsZone;
+
+/**
+ * The immutable dns zone index. The dns reverse zones (e. g. {@code 1.168.192.in-addr.arpa}) are
+ * stored in a prefix trie that is keyed by the octets of the IPv4 (e. g. {@code 192 -> 168 ->
+ * 1}), so that the most specific dns reverse zone of an IPv4 can be found with at most four
+ * lookups. The other dns zones (e. g. {@code eixe.bremersee.org}) are stored in a suffix tree that
+ * is keyed by the reversed labels of the zone name (e. g. {@code org -> bremersee -> eixe}).
+ *
+ * @author Christian Bremer
+ */
+class DnsZoneIndex {
+
+  private static final int MAX_ZONE_OCTETS = 3;
+
+  private final long createdAt = System.currentTimeMillis();
+
+  private final LabelNode reverseZones = new LabelNode();
+
+  private final LabelNode nonReverseZones = new LabelNode();
+
+  private final List<DnsZone> nonReverseZoneList;
+
+  /**
+   * Instantiates a new dns zone index.
+   *
+   * @param properties the properties
+   * @param dnsZones the dns zones
+   */
+  DnsZoneIndex(
+      final DomainControllerProperties properties,
+      final Collection<DnsZone> dnsZones) {
+
+    final List<DnsZone> zoneList = new ArrayList<>();
+    final String suffix = properties.getReverseZoneSuffixIp4().toLowerCase();
+    for (final DnsZone dnsZone : dnsZones) {
+      final String zoneName = dnsZone.getName() != null ? dnsZone.getName().toLowerCase() : "";
+      if (zoneName.length() > suffix.length() && zoneName.endsWith(suffix)) {
+        final String[] octets = zoneName.substring(0, zoneName.length() - suffix.length())
+            .split(Pattern.quote("."));
+        if (octets.length <= MAX_ZONE_OCTETS) {
+          LabelNode node = reverseZones;
+          for (int i = octets.length - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(octets[i], key -> new LabelNode());
+          }
+          node.zone = dnsZone;
+        }
+      } else if (zoneName.length() > 0 && !properties.isReverseZone(zoneName)) {
+        final String[] labels = zoneName.split(Pattern.quote("."));
+        LabelNode node = nonReverseZones;
+        for (int i = labels.length - 1; i >= 0; i--) {
+          node = node.children.computeIfAbsent(labels[i], key -> new LabelNode());
+        }
+        node.zone = dnsZone;
+        zoneList.add(dnsZone);
+      }
+    }
+    this.nonReverseZoneList = Collections.unmodifiableList(zoneList);
+  }
+
+  /**
+   * Gets the dns zones that are no dns reverse zones.
+   *
+   * @return the non dns reverse zones
+   */
+  List<DnsZone> getNonReverseZones() {
+    return nonReverseZoneList;
+  }
+
+  /**
+   * Determines whether this index is older than the given time to live.
+   *
+   * @param timeToLive the time to live
+   * @return {@code true} if the index is expired, otherwise {@code false}
+   */
+  boolean isExpired(final Duration timeToLive) {
+    return timeToLive == null || System.currentTimeMillis() - createdAt > timeToLive.toMillis();
+  }
+
+  /**
+   * Find the most specific dns reverse zone of the given IPv4.
+   *
+   * @param ip the IPv4 (e. g. {@code 192.168.1.123})
+   * @return the dns reverse zone (e. g. {@code 1.168.192.in-addr.arpa}) or {@code empty}
+   */
+  Optional<DnsZone> findDnsZoneByIp4(final String ip) {
+    if (ip == null) {
+      return Optional.empty();
+    }
+    final String[] octets = ip.split(Pattern.quote("."));
+    DnsZone dnsZone = null;
+    LabelNode node = reverseZones;
+    for (int i = 0; i < octets.length - 1 && i < MAX_ZONE_OCTETS; i++) {
+      node = node.children.get(octets[i]);
+      if (node == null) {
+        break;
+      }
+      if (node.zone != null) {
+        dnsZone = node.zone;
+      }
+    }
+    return Optional.ofNullable(dnsZone);
+  }
+
+  /**
+   * Find the most specific dns zone of the given full qualified domain name. The zone name must be
+   * a real suffix of the domain name, so that the node name is not empty.
+   *
+   * @param fqdn the full qualified domain name (e. g. {@code pluto.eixe.bremersee.org})
+   * @return the dns zone (e. g. {@code eixe.bremersee.org}) or {@code empty}
+   */
+  Optional<DnsZone> findDnsZoneByFqdn(final String fqdn) {
+    if (fqdn == null) {
+      return Optional.empty();
+    }
+    final String[] labels = fqdn.toLowerCase().split(Pattern.quote("."));
+    DnsZone dnsZone = null;
+    LabelNode node = nonReverseZones;
+    for (int i = labels.length - 1; i > 0; i--) {
+      node = node.children.get(labels[i]);
+      if (node == null) {
+        break;
+      }
+      if (node.zone != null) {
+        dnsZone = node.zone;
+      }
+    }
+    return Optional.ofNullable(dnsZone);
+  }
+
+  private static class LabelNode {
+
+    private final Map<String, LabelNode> children = new HashMap<>();
+
+    private DnsZone zone;
+  }
+
+}
@@ -18,10 +18,13 @@ package org.bremersee.dccon.repository;
 
 import static org.bremersee.dccon.repository.cli.CommandExecutorResponse.toExceptionMessage;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +32,7 @@ import org.bremersee.data.ldaptive.LdaptiveEntryMapper;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DnsZone;
-import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponse;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponseParser;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponseValidator;
@@ -38,7 +41,10 @@ import org.bremersee.exception.ServiceException;
 import org.ldaptive.SearchFilter;
 import org.ldaptive.SearchRequest;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
@@ -51,10 +57,18 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZoneRepository {
 
-  private final List<Pattern> excludedZoneNamePatterns;
+  private final ExcludedNamePatterns excludedZoneNamePatterns;
 
   private LdaptiveEntryMapper<DnsZone> dnsZoneLdapMapper;
 
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  private final AtomicLong snapshotHits = new AtomicLong();
+
+  private final AtomicLong snapshotMisses = new AtomicLong();
+
+  private volatile Snapshot snapshot;
+
   /**
    * Instantiates a new dns zone repository.
    *
@@ -66,8 +80,8 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
       final ObjectProvider<LdaptiveTemplate> ldapTemplateProvider) {
     super(properties, ldapTemplateProvider.getIfAvailable());
     this.dnsZoneLdapMapper = new DnsZoneLdapMapper(properties);
-    this.excludedZoneNamePatterns = properties.getExcludedZoneRegexList().stream()
-        .map(Pattern::compile).collect(Collectors.toList());
+    this.excludedZoneNamePatterns = new ExcludedNamePatterns(
+        properties.getExcludedZoneRegexList());
   }
 
   /**
@@ -82,6 +96,102 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
     }
   }
 
+  /**
+   * Sets application event publisher.
+   *
+   * @param applicationEventPublisher the application event publisher
+   */
+  @Autowired(required = false)
+  public void setApplicationEventPublisher(
+      final ApplicationEventPublisher applicationEventPublisher) {
+    this.applicationEventPublisher = applicationEventPublisher;
+  }
+
+  /**
+   * Sets meter registry, to expose the hits and misses of the dns zone snapshot.
+   *
+   * @param meterRegistry the meter registry
+   */
+  @Autowired(required = false)
+  public void setMeterRegistry(final MeterRegistry meterRegistry) {
+    if (meterRegistry != null) {
+      FunctionCounter.builder("dns.zone.snapshot.requests", snapshotHits, AtomicLong::doubleValue)
+          .description("The requests that were served by the dns zone snapshot.")
+          .tag("result", "hit")
+          .register(meterRegistry);
+      FunctionCounter.builder("dns.zone.snapshot.requests", snapshotMisses, AtomicLong::doubleValue)
+          .description("The requests that were served by the dns zone snapshot.")
+          .tag("result", "miss")
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Gets the number of requests, that were served by the dns zone snapshot.
+   *
+   * @return the snapshot hits
+   */
+  public long getSnapshotHits() {
+    return snapshotHits.get();
+  }
+
+  /**
+   * Gets the number of requests, that had to be served by the directory.
+   *
+   * @return the snapshot misses
+   */
+  public long getSnapshotMisses() {
+    return snapshotMisses.get();
+  }
+
+  /**
+   * Refresh dns zone snapshot.
+   */
+  @Scheduled(
+      fixedDelayString = "${bremersee.domain-controller.dns-zone-snapshot-refresh-interval"
+          + ":60000}",
+      initialDelay = 5000L)
+  public void refreshSnapshot() {
+    log.trace("msg=[Refreshing dns zone snapshot.]");
+    snapshot = loadSnapshot();
+  }
+
+  /**
+   * Invalidate dns zone snapshot.
+   */
+  public void invalidateSnapshot() {
+    snapshot = null;
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (current == null || current.isExpired()) {
+      snapshotMisses.incrementAndGet();
+      current = loadSnapshot();
+      snapshot = current;
+    } else {
+      snapshotHits.incrementAndGet();
+    }
+    return current;
+  }
+
+  private Snapshot loadSnapshot() {
+    final SearchRequest searchRequest = new SearchRequest(
+        getProperties().getDnsZoneBaseDn(),
+        new SearchFilter(excludedZoneNamePatterns
+            .toSearchFilter("name", getProperties().getDnsZoneFindAllFilter())));
+    searchRequest.setSearchScope(getProperties().getDnsZoneFindAllSearchScope());
+    return new Snapshot(getLdapTemplate().findAll(searchRequest, dnsZoneLdapMapper)
+        .filter(this::isNonExcludedDnsZone)
+        .collect(Collectors.toList()));
+  }
+
+  private void publishDnsZoneChangedEvent(final String zoneName) {
+    if (applicationEventPublisher != null) {
+      applicationEventPublisher.publishEvent(new DnsZoneChangedEvent(zoneName));
+    }
+  }
+
   private boolean isNonExcludedDnsZone(final DnsZone zone) {
     return zone != null && !isExcludedDnsZone(zone);
   }
@@ -95,8 +205,7 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
   }
 
   private boolean isExcludedDnsZone(final String zoneName) {
-    return zoneName != null && excludedZoneNamePatterns.stream()
-        .anyMatch(pattern -> pattern.matcher(zoneName).matches());
+    return excludedZoneNamePatterns.matches(zoneName);
   }
 
   @Override
@@ -106,18 +215,29 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
 
   @Override
   public Stream<DnsZone> findAll() {
-    final SearchRequest searchRequest = new SearchRequest(
-        getProperties().getDnsZoneBaseDn(),
-        new SearchFilter(getProperties().getDnsZoneFindAllFilter()));
-    searchRequest.setSearchScope(getProperties().getDnsZoneFindAllSearchScope());
-    return getLdapTemplate().findAll(searchRequest, dnsZoneLdapMapper)
-        .filter(this::isNonExcludedDnsZone);
+    return getSnapshot().getDnsZones().stream();
   }
 
   @Override
   public boolean exists(final String zoneName) {
-    return isNonExcludedDnsZone(zoneName)
-        && getLdapTemplate().exists(DnsZone.builder().name(zoneName).build(), dnsZoneLdapMapper);
+    if (!isNonExcludedDnsZone(zoneName)) {
+      return false;
+    }
+    if (getSnapshot().contains(zoneName)) {
+      return true;
+    }
+    // The zone may be created by someone else.
+    snapshotMisses.incrementAndGet();
+    final boolean result = existsInDirectory(zoneName);
+    if (result) {
+      invalidateSnapshot();
+      publishDnsZoneChangedEvent(zoneName);
+    }
+    return result;
+  }
+
+  private boolean existsInDirectory(final String zoneName) {
+    return getLdapTemplate().exists(DnsZone.builder().name(zoneName).build(), dnsZoneLdapMapper);
   }
 
   @Override
@@ -141,7 +261,12 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
           "org.bremersee:dc-con-app:bc02abb3-f5d9-4a95-9761-98def37d12a9");
     }
     return findOne(zoneName)
-        .orElseGet(() -> doSave(zoneName));
+        .orElseGet(() -> {
+          final DnsZone dnsZone = doSave(zoneName);
+          invalidateSnapshot();
+          publishDnsZoneChangedEvent(zoneName);
+          return dnsZone;
+        });
   }
 
   /**
@@ -164,6 +289,8 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
   public boolean delete(final String zoneName) {
     if (exists(zoneName)) {
       doDelete(zoneName);
+      invalidateSnapshot();
+      publishDnsZoneChangedEvent(zoneName);
       return true;
     }
     return false;
@@ -179,7 +306,7 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
         "zonedelete",
         zoneName,
         (CommandExecutorResponseValidator) response -> {
-          if (exists(zoneName)) {
+          if (existsInDirectory(zoneName)) {
             throw ServiceException.internalServerError(
                 "msg=[Deleting dns zone failed.] " + toExceptionMessage(response),
                 "org.bremersee:dc-con-app:346a54dd-c882-4c41-8503-7089928aeaa3");
@@ -194,15 +321,40 @@ public class DnsZoneRepositoryImpl extends AbstractRepository implements DnsZone
 
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("dns");
     commands.add(dnsCommand);
     commands.add(getProperties().getNameServerHost());
     commands.add(zoneName);
     auth(commands);
-    return CommandExecutor.exec(
-        commands, null, getProperties().getSambaToolExecDir(), parser);
+    return execSambaTool(CommandType.WRITE, commands, parser);
+  }
+
+  /**
+   * The immutable dns zone snapshot.
+   */
+  private class Snapshot {
+
+    private final long createdAt = System.currentTimeMillis();
+
+    private final List<DnsZone> dnsZones;
+
+    private Snapshot(final List<DnsZone> dnsZones) {
+      this.dnsZones = Collections.unmodifiableList(dnsZones);
+    }
+
+    private List<DnsZone> getDnsZones() {
+      return dnsZones;
+    }
+
+    private boolean contains(final String zoneName) {
+      return dnsZones.stream().anyMatch(dnsZone -> zoneName.equalsIgnoreCase(dnsZone.getName()));
+    }
+
+    private boolean isExpired() {
+      return getProperties().getDnsZoneCacheTimeToLive() == null
+          || System.currentTimeMillis() - createdAt
+          > getProperties().getDnsZoneCacheTimeToLive().toMillis();
+    }
   }
 
 
@@ -27,7 +27,9 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DnsZone;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
@@ -50,6 +52,8 @@ public class DnsZoneRepositoryMock implements DnsZoneRepository {
   @Getter(AccessLevel.PACKAGE)
   private final DomainControllerProperties properties;
 
+  private ApplicationEventPublisher applicationEventPublisher;
+
   /**
    * Instantiates a new dns zone repository mock.
    *
@@ -60,6 +64,23 @@ public class DnsZoneRepositoryMock implements DnsZoneRepository {
     this.properties = properties;
   }
 
+  /**
+   * Sets application event publisher.
+   *
+   * @param applicationEventPublisher the application event publisher
+   */
+  @Autowired(required = false)
+  public void setApplicationEventPublisher(
+      final ApplicationEventPublisher applicationEventPublisher) {
+    this.applicationEventPublisher = applicationEventPublisher;
+  }
+
+  private void publishDnsZoneChangedEvent(final String zoneName) {
+    if (applicationEventPublisher != null) {
+      applicationEventPublisher.publishEvent(new DnsZoneChangedEvent(zoneName));
+    }
+  }
+
   /**
    * Init.
    */
@@ -95,16 +116,26 @@ public class DnsZoneRepositoryMock implements DnsZoneRepository {
 
   @Override
   public DnsZone save(@NotNull String zoneName) {
-    return build(repo.computeIfAbsent(zoneName.toLowerCase(), key -> DnsZone.builder()
+    final DnsZone newDnsZone = DnsZone.builder()
         .created(OffsetDateTime.now())
         .modified(OffsetDateTime.now())
         .name(zoneName)
-        .build()));
+        .build();
+    final DnsZone oldDnsZone = repo.putIfAbsent(zoneName.toLowerCase(), newDnsZone);
+    if (oldDnsZone == null) {
+      publishDnsZoneChangedEvent(zoneName);
+      return build(newDnsZone);
+    }
+    return build(oldDnsZone);
   }
 
   @Override
   public boolean delete(@NotNull String zoneName) {
-    return repo.remove(zoneName.toLowerCase()) != null;
+    final boolean result = repo.remove(zoneName.toLowerCase()) != null;
+    if (result) {
+      publishDnsZoneChangedEvent(zoneName);
+    }
+    return result;
   }
 
   private DnsZone build(DnsZone dnsZone) {
@@ -25,7 +25,7 @@ import org.bremersee.data.ldaptive.LdaptiveEntryMapper;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DomainGroup;
-import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponse;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponseValidator;
 import org.bremersee.dccon.repository.ldap.DomainGroupLdapConstants;
@@ -138,16 +138,13 @@ public class DomainGroupRepositoryImpl extends AbstractRepository implements Dom
   void doAdd(final DomainGroup domainGroup) {
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("group");
     commands.add("add");
     commands.add(domainGroup.getName());
     auth(commands);
-    CommandExecutor.exec(
+    execSambaTool(
+        CommandType.WRITE,
         commands,
-        null,
-        getProperties().getSambaToolExecDir(),
         (CommandExecutorResponseValidator) response -> {
           if (!exists(domainGroup.getName())) {
             throw ServiceException.internalServerError("msg=[Saving group failed.] groupName=["
@@ -176,16 +173,13 @@ public class DomainGroupRepositoryImpl extends AbstractRepository implements Dom
   void doDelete(final String groupName) {
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("group");
     commands.add("delete");
     commands.add(groupName);
     auth(commands);
-    CommandExecutor.exec(
+    execSambaTool(
+        CommandType.WRITE,
         commands,
-        null,
-        getProperties().getSambaToolExecDir(),
         (CommandExecutorResponseValidator) response -> {
           if (exists(groupName)) {
             throw ServiceException.internalServerError(
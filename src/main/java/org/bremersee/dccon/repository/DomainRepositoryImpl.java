@@ -21,7 +21,7 @@ import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.PasswordInformation;
-import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.PasswordInformationParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
@@ -68,16 +68,13 @@ public class DomainRepositoryImpl extends AbstractRepository implements DomainRe
   public PasswordInformation getPasswordInformation() {
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("domain");
     commands.add("passwordsettings");
     commands.add("show");
     auth(commands);
-    return CommandExecutor.exec(
+    return execSambaTool(
+        CommandType.READ,
         commands,
-        null,
-        getProperties().getSambaToolExecDir(),
         passwordInformationParser);
   }
 
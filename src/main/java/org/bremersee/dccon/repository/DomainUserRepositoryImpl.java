@@ -42,7 +42,7 @@ import org.bremersee.dccon.model.AvatarDefault;
 import org.bremersee.dccon.model.DomainUser;
 import org.bremersee.dccon.model.PasswordComplexity;
 import org.bremersee.dccon.model.PasswordInformation;
-import org.bremersee.dccon.repository.cli.CommandExecutor;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponse;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponseValidator;
 import org.bremersee.dccon.repository.img.ImageScaler;
@@ -302,8 +302,6 @@ public class DomainUserRepositoryImpl extends AbstractRepository implements Doma
     // https://asadumar.wordpress.com/2013/02/28/create-user-password-in-active-directory-through-java-code/
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("user");
     commands.add("create");
     commands.add(domainUser.getUserName());
@@ -311,10 +309,9 @@ public class DomainUserRepositoryImpl extends AbstractRepository implements Doma
     commands.add("--use-username-as-cn");
     auth(commands);
 
-    CommandExecutor.exec(
+    execSambaTool(
+        CommandType.WRITE,
         commands,
-        null,
-        getProperties().getSambaToolExecDir(),
         (CommandExecutorResponseValidator) response -> {
           if (!exists(domainUser.getUserName())) {
             throw ServiceException.internalServerError("msg=[Saving user failed.] userName=["
@@ -437,16 +434,13 @@ public class DomainUserRepositoryImpl extends AbstractRepository implements Doma
   void doDelete(final String userName) {
     kinit();
     final List<String> commands = new ArrayList<>();
-    sudo(commands);
-    commands.add(getProperties().getSambaToolBinary());
     commands.add("user");
     commands.add("delete");
     commands.add(userName);
     auth(commands);
-    CommandExecutor.exec(
+    execSambaTool(
+        CommandType.WRITE,
         commands,
-        null,
-        getProperties().getSambaToolExecDir(),
         (CommandExecutorResponseValidator) response -> {
           if (exists(userName)) {
             throw ServiceException.internalServerError(
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The excluded name patterns. Regular expressions, that are only a literal (like {@code _msdcs})
+ * or a literal prefix (like {@code ^_ldap\..*$}), are not evaluated as regular expression, they
+ * can also be added as negated clauses to a ldap search filter, so that excluded entries are not
+ * transferred at all. The remaining regular expressions are combined into one pattern.
+ *
+ * @author Christian Bremer
+ */
+class ExcludedNamePatterns {
+
+  private static final String REGEX_META_CHARS = ".[]{}()*+?^$|\\";
+
+  private final Set<String> literals = new HashSet<>();
+
+  private final List<String> prefixes = new ArrayList<>();
+
+  private final Pattern pattern;
+
+  /**
+   * Instantiates new excluded name patterns.
+   *
+   * @param regexList the regular expressions of the excluded names
+   */
+  ExcludedNamePatterns(final Collection<String> regexList) {
+    final List<String> regexes = new ArrayList<>();
+    if (regexList != null) {
+      for (final String regex : regexList) {
+        if (!addLiteralOrPrefix(regex)) {
+          regexes.add(regex);
+        }
+      }
+    }
+    this.pattern = regexes.isEmpty()
+        ? null
+        : Pattern.compile(regexes.stream()
+            .map(regex -> "(?:" + regex + ")")
+            .collect(Collectors.joining("|")));
+  }
+
+  private boolean addLiteralOrPrefix(final String regex) {
+    String value = regex;
+    if (value.startsWith("^")) {
+      value = value.substring(1);
+    }
+    if (value.endsWith("$") && !value.endsWith("\\$")) {
+      value = value.substring(0, value.length() - 1);
+    }
+    final boolean isPrefix = value.endsWith(".*") && !value.endsWith("\\.*");
+    if (isPrefix) {
+      value = value.substring(0, value.length() - 2);
+    }
+    final String literal = unescape(value);
+    if (literal == null || literal.length() == 0) {
+      return false;
+    }
+    if (isPrefix) {
+      prefixes.add(literal);
+    } else {
+      literals.add(literal);
+    }
+    return true;
+  }
+
+  private static String unescape(final String value) {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '\\') {
+        if (i + 1 >= value.length() || Character.isLetterOrDigit(value.charAt(i + 1))) {
+          // dangling backslash or a character class like \d
+          return null;
+        }
+        sb.append(value.charAt(++i));
+      } else if (REGEX_META_CHARS.indexOf(c) >= 0) {
+        return null;
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Checks whether the given name is excluded.
+   *
+   * @param name the name
+   * @return {@code true} if the name is excluded, otherwise {@code false}
+   */
+  boolean matches(final String name) {
+    if (name == null) {
+      return false;
+    }
+    if (literals.contains(name)) {
+      return true;
+    }
+    for (final String prefix : prefixes) {
+      if (name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return pattern != null && pattern.matcher(name).matches();
+  }
+
+  /**
+   * Adds the literals and the prefixes as negated clauses to the given search filter.
+   *
+   * <p>Please note, that the ldap server compares the names case insensitive, so the search may
+   * exclude more entries than {@link #matches(String)}.
+   *
+   * @param attributeName the attribute name (e. g. {@code name})
+   * @param filter the search filter (e. g. {@code (objectClass=dnsNode)})
+   * @return the search filter with the exclusion clauses
+   */
+  String toSearchFilter(final String attributeName, final String filter) {
+    if (literals.isEmpty() && prefixes.isEmpty()) {
+      return filter;
+    }
+    final StringBuilder sb = new StringBuilder();
+    sb.append("(&").append(filter).append("(!(|");
+    literals.stream().sorted().forEach(literal -> sb
+        .append('(').append(attributeName).append('=').append(escape(literal)).append(')'));
+    prefixes.forEach(prefix -> sb
+        .append('(').append(attributeName).append('=').append(escape(prefix)).append("*)"));
+    sb.append(")))");
+    return sb.toString();
+  }
+
+  private static String escape(final String value) {
+    final StringBuilder sb = new StringBuilder();
+    for (final char c : value.toCharArray()) {
+      switch (c) {
+        case '\\':
+          sb.append("\\5c");
+          break;
+        case '*':
+          sb.append("\\2a");
+          break;
+        case '(':
+          sb.append("\\28");
+          break;
+        case ')':
+          sb.append("\\29");
+          break;
+        case '\0':
+          sb.append("\\00");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import org.bremersee.dccon.model.DnsRecord;
+
+/**
+ * The changes of the correlated records of several dns nodes, grouped by the correlated dns node,
+ * so that every correlated dns node is modified only once, no matter how many records of it are
+ * added or removed.
+ *
+ * @author Christian Bremer
+ */
+class PtrRecordChanges {
+
+  private final Map<String, NodeChanges> changes = new LinkedHashMap<>();
+
+  /**
+   * Adds a record to the correlated dns node.
+   *
+   * @param zoneName the zone name of the correlated dns node
+   * @param nodeName the name of the correlated dns node
+   * @param record the record to add
+   */
+  void add(final String zoneName, final String nodeName, final DnsRecord record) {
+    final NodeChanges nodeChanges = get(zoneName, nodeName);
+    nodeChanges.removals.remove(record);
+    nodeChanges.additions.add(record);
+  }
+
+  /**
+   * Removes a record from the correlated dns node.
+   *
+   * @param zoneName the zone name of the correlated dns node
+   * @param nodeName the name of the correlated dns node
+   * @param record the record to remove
+   */
+  void remove(final String zoneName, final String nodeName, final DnsRecord record) {
+    final NodeChanges nodeChanges = get(zoneName, nodeName);
+    nodeChanges.additions.remove(record);
+    nodeChanges.removals.add(record);
+  }
+
+  private NodeChanges get(final String zoneName, final String nodeName) {
+    return changes.computeIfAbsent(
+        zoneName.toLowerCase() + "/" + nodeName.toLowerCase(),
+        key -> new NodeChanges(zoneName, nodeName));
+  }
+
+  /**
+   * Checks whether there are no changes.
+   *
+   * @return {@code true} if there are no changes, otherwise {@code false}
+   */
+  boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  /**
+   * Gets the changes of every correlated dns node.
+   *
+   * @return the changes of every correlated dns node
+   */
+  Collection<NodeChanges> getNodeChanges() {
+    return Collections.unmodifiableCollection(changes.values());
+  }
+
+  /**
+   * The changes of one correlated dns node.
+   */
+  @Getter
+  static class NodeChanges {
+
+    private final String zoneName;
+
+    private final String nodeName;
+
+    private final Set<DnsRecord> additions = new LinkedHashSet<>();
+
+    private final Set<DnsRecord> removals = new LinkedHashSet<>();
+
+    private NodeChanges(final String zoneName, final String nodeName) {
+      this.zoneName = zoneName;
+      this.nodeName = nodeName;
+    }
+
+    /**
+     * Applies the changes to the given records of the correlated dns node.
+     *
+     * @param records the current records of the correlated dns node
+     * @return the new records or {@code null}, if nothing has changed
+     */
+    Set<DnsRecord> apply(final Set<DnsRecord> records) {
+      final Set<DnsRecord> newRecords = new LinkedHashSet<>(records);
+      final boolean removed = newRecords.removeAll(removals);
+      final boolean added = newRecords.addAll(additions);
+      return removed || added ? newRecords : null;
+    }
+  }
+
+}
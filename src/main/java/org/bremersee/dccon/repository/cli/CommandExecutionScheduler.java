@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * The command execution scheduler limits the number of external programs, that run at the same
+ * time. Read and write commands have separate limits (bulkheads), so that a lot of writes can't
+ * starve the reads and vice versa. Waiting callers are served in arrival order. If too many
+ * callers are waiting or a caller waits too long, the command is rejected with status 503.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class CommandExecutionScheduler {
+
+  /**
+   * The command type.
+   */
+  public enum CommandType {
+
+    /**
+     * Commands, that only read (like the dhcp lease list or the password settings).
+     */
+    READ,
+
+    /**
+     * Commands, that modify users, groups or dns entries.
+     */
+    WRITE
+  }
+
+  private final Map<CommandType, Bulkhead> bulkheads = new EnumMap<>(CommandType.class);
+
+  /**
+   * Instantiates a new command execution scheduler.
+   *
+   * @param properties the properties
+   */
+  public CommandExecutionScheduler(final DomainControllerProperties properties) {
+    bulkheads.put(CommandType.READ, new Bulkhead(
+        properties.getCliReadConcurrency(),
+        properties.getCliQueueCapacity(),
+        properties.getCliMaxWaitTime()));
+    bulkheads.put(CommandType.WRITE, new Bulkhead(
+        properties.getCliWriteConcurrency(),
+        properties.getCliQueueCapacity(),
+        properties.getCliMaxWaitTime()));
+  }
+
+  /**
+   * Sets meter registry.
+   *
+   * @param meterRegistry the meter registry
+   */
+  @Autowired(required = false)
+  public void setMeterRegistry(final MeterRegistry meterRegistry) {
+    if (meterRegistry != null) {
+      bulkheads.forEach((type, bulkhead) -> {
+        final String tag = type.name().toLowerCase();
+        Gauge.builder("cli.commands.queued", bulkhead.waiting, AtomicInteger::get)
+            .description("The number of commands, that are waiting for execution.")
+            .tag("type", tag)
+            .register(meterRegistry);
+        Gauge.builder("cli.commands.active", bulkhead.running, AtomicInteger::get)
+            .description("The number of commands, that are running.")
+            .tag("type", tag)
+            .register(meterRegistry);
+        bulkhead.waitTimer = Timer.builder("cli.commands.wait")
+            .description("The time commands are waiting for execution.")
+            .tag("type", tag)
+            .register(meterRegistry);
+      });
+    }
+  }
+
+  /**
+   * Gets the number of waiting commands.
+   *
+   * @param type the command type
+   * @return the number of waiting commands
+   */
+  public int getQueueDepth(final CommandType type) {
+    return bulkheads.get(type).waiting.get();
+  }
+
+  /**
+   * Executes the command, if the limit of the command type isn't reached, otherwise the caller
+   * waits.
+   *
+   * @param <T> the type of the result
+   * @param type the command type
+   * @param command the command
+   * @return the result of the command
+   * @throws ServiceException with status 503, if the command is rejected
+   */
+  public <T> T execute(final CommandType type, final Supplier<T> command) {
+    final Bulkhead bulkhead = bulkheads.get(type);
+    bulkhead.acquire(type);
+    try {
+      return command.get();
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  private static ServiceException rejected(final CommandType type, final String reason) {
+    final ServiceException se = ServiceException.builder()
+        .httpStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+        .reason("Command execution rejected: " + reason)
+        .errorCode("org.bremersee:dc-con-app:c1e8f0a4-5b7d-4f3e-9a62-1d0b8e7c4a35")
+        .build();
+    log.warn("msg=[Command execution rejected.] type=[{}] reason=[{}]", type, reason);
+    return se;
+  }
+
+  /**
+   * The bulkhead of a command type.
+   */
+  private static class Bulkhead {
+
+    private final Semaphore permits;
+
+    private final int queueCapacity;
+
+    private final long maxWaitMillis;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private volatile Timer waitTimer;
+
+    private Bulkhead(final int concurrency, final int queueCapacity, final Duration maxWait) {
+      this.permits = new Semaphore(Math.max(1, concurrency), true);
+      this.queueCapacity = Math.max(0, queueCapacity);
+      this.maxWaitMillis = maxWait != null ? maxWait.toMillis() : 0L;
+    }
+
+    private void acquire(final CommandType type) {
+      final long start = System.nanoTime();
+      boolean acquired = false;
+      try {
+        // a timeout of zero respects the fairness setting, tryAcquire() doesn't
+        acquired = permits.tryAcquire(0L, TimeUnit.MILLISECONDS);
+        if (!acquired) {
+          if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            throw rejected(type, "too many waiting commands");
+          }
+          try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+          } finally {
+            waiting.decrementAndGet();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (waitTimer != null) {
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      if (!acquired) {
+        throw rejected(type, "waited too long for execution");
+      }
+      running.incrementAndGet();
+    }
+
+    private void release() {
+      running.decrementAndGet();
+      permits.release();
+    }
+  }
+
+}
@@ -18,22 +18,54 @@ package org.bremersee.dccon.repository.cli;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.exception.ServiceException;
 
 /**
- * The command executor.
+ * The command executor. The output and the error output of a process are read concurrently, so
+ * that a process can't block because of a full pipe. A process, that doesn't finish within the
+ * timeout, will be terminated.
  *
  * @author Christian Bremer
  */
 @Slf4j
 public abstract class CommandExecutor {
 
+  /**
+   * The default timeout of a command.
+   */
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5L);
+
+  private static final long DESTROY_GRACE_PERIOD_MILLIS = 5000L;
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(
+        runnable,
+        "command-executor-" + THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private CommandExecutor() {
   }
 
@@ -85,6 +117,51 @@ public abstract class CommandExecutor {
       final String dir,
       final CommandExecutorResponseParser<T> responseParser) {
 
+    return exec(commands, env, dir, null, responseParser);
+  }
+
+  /**
+   * Exec command executor.
+   *
+   * @param <T> the type parameter
+   * @param commands the commands
+   * @param env the env
+   * @param dir the dir
+   * @param input the input that will be written to stdin of the process (can be {@code null})
+   * @param responseParser the response parser
+   * @return the command executor response
+   */
+  public static <T> T exec(
+      final List<String> commands,
+      final Map<String, String> env,
+      final String dir,
+      final String input,
+      final CommandExecutorResponseParser<T> responseParser) {
+
+    return exec(commands, env, dir, input, DEFAULT_TIMEOUT, responseParser);
+  }
+
+  /**
+   * Exec command executor.
+   *
+   * @param <T> the type parameter
+   * @param commands the commands
+   * @param env the env
+   * @param dir the dir
+   * @param input the input that will be written to stdin of the process (can be {@code null})
+   * @param timeout the timeout (default is {@link #DEFAULT_TIMEOUT})
+   * @param responseParser the response parser
+   * @return the command executor response
+   */
+  public static <T> T exec(
+      final List<String> commands,
+      final Map<String, String> env,
+      final String dir,
+      final String input,
+      final Duration timeout,
+      final CommandExecutorResponseParser<T> responseParser) {
+
+    Process p = null;
     try {
       ProcessBuilder pb = new ProcessBuilder(commands);
       if (dir != null && dir.trim().length() > 0) {
@@ -97,21 +174,33 @@ public abstract class CommandExecutor {
       if (log.isTraceEnabled()) {
         log.trace("msg=[Running external program.] commands=[{}]", commands);
       }
-      final Process p = pb.start();
-      final StringWriter out = new StringWriter();
-      final StringWriter err = new StringWriter();
-      IOUtils.copy(p.getInputStream(), out, StandardCharsets.UTF_8);
-      IOUtils.copy(p.getErrorStream(), err, StandardCharsets.UTF_8);
-      p.waitFor();
-      final String output = out.toString();
-      final String error = err.toString();
+      p = pb.start();
+      final Future<String> out = EXECUTOR.submit(read(p.getInputStream()));
+      final Future<String> err = EXECUTOR.submit(read(p.getErrorStream()));
+      if (input != null) {
+        try (OutputStream stdin = p.getOutputStream()) {
+          stdin.write(input.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      final long timeoutMillis = (timeout != null ? timeout : DEFAULT_TIMEOUT).toMillis();
+      if (!p.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw timedOut(commands, timeoutMillis, p);
+      }
+      final String output = out.get();
+      final String error = err.get();
       if (log.isTraceEnabled()) {
         log.trace("msg=[Program output]\n{}", output);
         log.trace("msg=[Program error output]\n{}", error);
       }
-      return responseParser.parse(new CommandExecutorResponse(output, error));
+      return responseParser.parse(new CommandExecutorResponse(output, error, p.exitValue()));
 
-    } catch (IOException | InterruptedException e) {
+    } catch (IOException | InterruptedException | ExecutionException e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      if (p != null && p.isAlive()) {
+        p.destroyForcibly();
+      }
       final ServiceException se = ServiceException.internalServerError(
           "Running commands failed.",
           "org.bremersee:dc-con-app:6fa0f473-6204-4f75-9130-a1049910d8fd",
@@ -121,4 +210,182 @@ public abstract class CommandExecutor {
     }
   }
 
+  /**
+   * Exec command executor and parse the output while the process is running. The output isn't
+   * kept in memory, so this is suitable for commands with large output. The error output is only
+   * logged.
+   *
+   * @param <T> the type parameter
+   * @param commands the commands
+   * @param env the env
+   * @param dir the dir
+   * @param timeout the timeout (default is {@link #DEFAULT_TIMEOUT})
+   * @param streamParser the stream parser
+   * @return the parsed output
+   */
+  public static <T> T execStreaming(
+      final List<String> commands,
+      final Map<String, String> env,
+      final String dir,
+      final Duration timeout,
+      final CommandExecutorStreamParser<T> streamParser) {
+
+    Process p = null;
+    try {
+      ProcessBuilder pb = new ProcessBuilder(commands);
+      if (dir != null && dir.trim().length() > 0) {
+        pb.directory(new File(dir));
+      }
+      if (env != null && !env.isEmpty()) {
+        pb.environment().putAll(env);
+      }
+
+      if (log.isTraceEnabled()) {
+        log.trace("msg=[Running external program.] commands=[{}]", commands);
+      }
+      p = pb.start();
+      p.getOutputStream().close();
+      final InputStream stdout = p.getInputStream();
+      final Future<T> out = EXECUTOR.submit(() -> streamParser.parse(stdout));
+      final Future<String> err = EXECUTOR.submit(read(p.getErrorStream()));
+      final long timeoutMillis = (timeout != null ? timeout : DEFAULT_TIMEOUT).toMillis();
+      final long deadline = System.currentTimeMillis() + timeoutMillis;
+      // Wait for the parser first: if it fails, nobody drains stdout any more and the process
+      // would block on a full pipe until the timeout.
+      final T output;
+      try {
+        output = out.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (ExecutionException e) {
+        p.destroyForcibly();
+        if (e.getCause() instanceof RuntimeException) {
+          log.error("Parsing output of commands [{}] failed.", commands, e.getCause());
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      } catch (TimeoutException e) {
+        out.cancel(true);
+        throw timedOut(commands, timeoutMillis, p);
+      }
+      final long remainingMillis = Math.max(0L, deadline - System.currentTimeMillis());
+      if (!p.waitFor(remainingMillis, TimeUnit.MILLISECONDS)) {
+        throw timedOut(commands, timeoutMillis, p);
+      }
+      final String error = err.get();
+      if (error != null && error.trim().length() > 0) {
+        log.warn("msg=[Program error output]\n{}", error);
+      }
+      return output;
+
+    } catch (IOException | InterruptedException | ExecutionException e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      if (p != null && p.isAlive()) {
+        p.destroyForcibly();
+      }
+      final ServiceException se = ServiceException.internalServerError(
+          "Running commands failed.",
+          "org.bremersee:dc-con-app:3b9e5d27-8f41-4c6a-b0d2-7e1a4f8c6b53",
+          e);
+      log.error("Executing commands [{}] failed.", commands, se);
+      throw se;
+    }
+  }
+
+  /**
+   * Exec command executor asynchronously, so that independent commands can run in parallel. The
+   * command is executed within the limits of the given scheduler.
+   *
+   * @param scheduler the command execution scheduler
+   * @param type the command type
+   * @param commands the commands
+   * @param dir the dir
+   * @return the future of the command executor response
+   */
+  public static CompletableFuture<CommandExecutorResponse> execAsync(
+      final CommandExecutionScheduler scheduler,
+      final CommandType type,
+      final List<String> commands,
+      final String dir) {
+
+    return execAsync(
+        scheduler, type, commands, null, dir, null, DEFAULT_TIMEOUT, response -> response);
+  }
+
+  /**
+   * Exec command executor asynchronously, so that independent commands can run in parallel. The
+   * command is executed within the limits of the given scheduler, so the number of waiting tasks
+   * is bounded by its queue capacity; a rejected command completes the future exceptionally.
+   *
+   * @param <T> the type parameter
+   * @param scheduler the command execution scheduler
+   * @param type the command type
+   * @param commands the commands
+   * @param env the env
+   * @param dir the dir
+   * @param input the input that will be written to stdin of the process (can be {@code null})
+   * @param timeout the timeout (default is {@link #DEFAULT_TIMEOUT})
+   * @param responseParser the response parser
+   * @return the future of the parsed response
+   */
+  public static <T> CompletableFuture<T> execAsync(
+      final CommandExecutionScheduler scheduler,
+      final CommandType type,
+      final List<String> commands,
+      final Map<String, String> env,
+      final String dir,
+      final String input,
+      final Duration timeout,
+      final CommandExecutorResponseParser<T> responseParser) {
+
+    return CompletableFuture.supplyAsync(
+        () -> scheduler.execute(
+            type,
+            () -> exec(commands, env, dir, input, timeout, responseParser)),
+        EXECUTOR);
+  }
+
+  private static Callable<String> read(final InputStream inputStream) {
+    return () -> {
+      final StringWriter writer = new StringWriter();
+      IOUtils.copy(inputStream, writer, StandardCharsets.UTF_8);
+      return writer.toString();
+    };
+  }
+
+  /**
+   * Terminates the process, that has timed out, and creates the exception to throw.
+   *
+   * @param commands the commands
+   * @param timeoutMillis the timeout in milliseconds
+   * @param process the process
+   * @return the exception to throw
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  private static ServiceException timedOut(
+      final List<String> commands,
+      final long timeoutMillis,
+      final Process process) throws InterruptedException {
+    destroy(process);
+    final ServiceException se = ServiceException.internalServerError(
+        "Running commands timed out.",
+        "org.bremersee:dc-con-app:8a0c7e0d-46a3-4b6e-a3a5-3b4c2f0e9d17");
+    log.error("Executing commands [{}] timed out after {} ms.", commands, timeoutMillis, se);
+    return se;
+  }
+
+  /**
+   * Terminates the process. The process gets {@code SIGTERM} first, which sudo passes on to the
+   * command. If it is still alive after a grace period, it will be killed.
+   *
+   * @param process the process
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  private static void destroy(final Process process) throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(DESTROY_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) {
+      process.destroyForcibly();
+    }
+  }
+
 }
@@ -50,6 +50,18 @@ public class CommandExecutorResponse implements Serializable {
 
   private String stderr;
 
+  private Integer exitCode;
+
+  /**
+   * Instantiates a new command executor response without exit code.
+   *
+   * @param stdout the stdout
+   * @param stderr the stderr
+   */
+  public CommandExecutorResponse(final String stdout, final String stderr) {
+    this(stdout, stderr, null);
+  }
+
   /**
    * Check whether stdout has text or not.
    *
@@ -70,6 +82,16 @@ public class CommandExecutorResponse implements Serializable {
     return hasText(stderr);
   }
 
+  /**
+   * Checks whether the program exited with code zero. If the exit code is unknown, the program is
+   * successful, if there is no error output.
+   *
+   * @return {@code true} if the program was successful, otherwise {@code false}
+   */
+  public boolean isSuccessful() {
+    return exitCode != null ? exitCode == 0 : !stderrHasText();
+  }
+
   private boolean hasText(String value) {
     return value != null && value.trim().length() > 0;
   }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The command executor stream parser parses the output of a process while the process is
+ * running, so that the output doesn't have to be kept in memory.
+ *
+ * @param <T> the type of the parsed output
+ * @author Christian Bremer
+ */
+public interface CommandExecutorStreamParser<T> {
+
+  /**
+   * Parses the output of the process.
+   *
+   * @param inputStream the output of the process
+   * @return the parsed output
+   * @throws IOException if reading the output fails
+   */
+  T parse(InputStream inputStream) throws IOException;
+
+}
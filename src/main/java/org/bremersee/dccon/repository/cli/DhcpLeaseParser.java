@@ -18,22 +18,26 @@ package org.bremersee.dccon.repository.cli;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.StringReader;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.dccon.model.DhcpLease;
-import org.springframework.util.StringUtils;
 
 /**
  * The dhcp lease list parser parses the response of the linux command line tool {@code
- * dhcp-lease-list}.
+ * dhcp-lease-list}. It can parse the output of the process as stream, so that large lease lists
+ * don't have to be kept in memory.
  *
  * <p>A response of {@code dhcp-lease-list} looks like this:
  * <pre>
@@ -43,7 +47,8 @@ import org.springframework.util.StringUtils;
  *
  * @author Christian Bremer
  */
-public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<DhcpLease>> {
+public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<DhcpLease>>,
+    CommandExecutorStreamParser<List<DhcpLease>> {
 
   /**
    * The constant MAC.
@@ -80,6 +85,16 @@ public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<Dhcp
    */
   String MANUFACTURER = " MANUFACTURER ";
 
+  /**
+   * Parses the lines of the reader and passes every dhcp lease to the consumer as soon as it is
+   * parsed.
+   *
+   * @param reader the reader
+   * @param consumer the consumer of the dhcp leases
+   * @throws IOException if reading fails
+   */
+  void parse(BufferedReader reader, Consumer<DhcpLease> consumer) throws IOException;
+
   /**
    * Default parser dhcp leases parser.
    *
@@ -106,6 +121,11 @@ public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<Dhcp
   @Slf4j
   class Default implements DhcpLeaseParser {
 
+    private static final String[] FIELDS = {
+        "MAC", "IP", "HOSTNAME", "BEGIN", "END", "MANUFACTURER"};
+
+    private static final int MANUFACTURER_FIELD = FIELDS.length - 1;
+
     private BiFunction<String, String, String> unknownHostConverter;
 
     /**
@@ -142,7 +162,9 @@ public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<Dhcp
       }
       final String output = response.getStdout();
       try (final BufferedReader reader = new BufferedReader(new StringReader(output))) {
-        return parseDhcpLeaseList(reader);
+        final List<DhcpLease> leases = new ArrayList<>();
+        parse(reader, leases::add);
+        return leases;
 
       } catch (IOException e) {
         log.error("Parsing dhcp lease list failed:\n" + output + "\n", e);
@@ -150,61 +172,135 @@ public interface DhcpLeaseParser extends CommandExecutorResponseParser<List<Dhcp
       }
     }
 
-    private List<DhcpLease> parseDhcpLeaseList(final BufferedReader reader) throws IOException {
+    @Override
+    public List<DhcpLease> parse(final InputStream inputStream) throws IOException {
       final List<DhcpLease> leases = new ArrayList<>();
+      parse(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+          leases::add);
+      return leases;
+    }
+
+    @Override
+    public void parse(
+        final BufferedReader reader,
+        final Consumer<DhcpLease> consumer) throws IOException {
+      final String[] values = new String[FIELDS.length];
       String line;
       while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        final String mac = findDhcpLeasePart(line, MAC, IP);
-        final String ip = findDhcpLeasePart(line, IP, HOSTNAME);
-        String hostname = findDhcpLeasePart(line, HOSTNAME, BEGIN);
-        if (HOSTNAME_UNKNOWN.equalsIgnoreCase(hostname) && ip != null) {
-          hostname = unknownHostConverter.apply(mac, ip);
-        }
-        final String begin = findDhcpLeasePart(line, BEGIN, END);
-        final String end = findDhcpLeasePart(line, END, MANUFACTURER);
-        final String manufacturer = findDhcpLeasePart(line, MANUFACTURER, null);
-        if (mac != null && ip != null && hostname != null && begin != null && end != null) {
-          final DhcpLease lease = new DhcpLease(
-              mac.replace("-", ":").trim().toLowerCase(),
-              ip,
-              hostname,
-              parseDhcpLeaseTime(begin),
-              parseDhcpLeaseTime(end),
-              manufacturer);
-          leases.add(lease);
+        final DhcpLease lease = parseLine(line, values);
+        if (lease != null) {
+          consumer.accept(lease);
         }
       }
-      return leases;
     }
 
-    private String findDhcpLeasePart(String line, String field, String nextField) {
-      if (!StringUtils.hasText(line) || !StringUtils.hasText(field)) {
-        return null;
+    /**
+     * Parses a line in one pass. The line is split into words; a word, that is the next expected
+     * field name, ends the value of the current field. The manufacturer is the rest of the line.
+     *
+     * @param line the line
+     * @param values the array for the values of the fields (will be overwritten)
+     * @return the dhcp lease or {@code null}, if the line is not valid
+     */
+    private DhcpLease parseLine(final String line, final String[] values) {
+      Arrays.fill(values, null);
+      final int length = line.length();
+      int field = -1;
+      int valueStart = -1;
+      int valueEnd = -1;
+      int pos = 0;
+      while (pos < length) {
+        while (pos < length && line.charAt(pos) == ' ') {
+          pos++;
+        }
+        final int wordStart = pos;
+        while (pos < length && line.charAt(pos) != ' ') {
+          pos++;
+        }
+        if (wordStart == pos) {
+          break;
+        }
+        final int next = field + 1;
+        if (next < FIELDS.length
+            && line.regionMatches(wordStart, FIELDS[next], 0, FIELDS[next].length())
+            && pos - wordStart == FIELDS[next].length()) {
+          if (field >= 0 && valueStart >= 0) {
+            values[field] = line.substring(valueStart, valueEnd);
+          }
+          field = next;
+          valueStart = -1;
+        } else if (field >= 0) {
+          if (valueStart < 0) {
+            valueStart = wordStart;
+          }
+          valueEnd = pos;
+        }
       }
-      int start = line.indexOf(field);
-      if (start < 0) {
+      if (field >= 0 && valueStart >= 0) {
+        values[field] = line.substring(valueStart, valueEnd);
+      }
+
+      final String mac = values[0];
+      final String ip = values[1];
+      String hostname = values[2];
+      if (HOSTNAME_UNKNOWN.equalsIgnoreCase(hostname) && ip != null) {
+        hostname = unknownHostConverter.apply(mac, ip);
+      }
+      if (mac == null || ip == null || hostname == null) {
         return null;
       }
-      start = start + field.length();
-      int end = StringUtils.hasText(nextField)
-          ? line.indexOf(nextField, start)
-          : line.length();
-      if (end < 0 || end <= start) {
+      final OffsetDateTime begin = parseDhcpLeaseTime(values[3]);
+      final OffsetDateTime end = parseDhcpLeaseTime(values[4]);
+      if (begin == null || end == null) {
         return null;
       }
-      return line.substring(start, end).trim();
+      return new DhcpLease(
+          mac.replace('-', ':').toLowerCase(),
+          ip,
+          hostname,
+          begin,
+          end,
+          values[MANUFACTURER_FIELD]);
     }
 
-    private OffsetDateTime parseDhcpLeaseTime(String time) {
-      if (!StringUtils.hasText(time)) {
+    /**
+     * Parses the time {@code yyyy-MM-dd HH:mm:ss} without a formatter. As of
+     * https://linux.die.net/man/5/dhcpd.leases the time zone is always UTC.
+     *
+     * @param time the time
+     * @return the time or {@code null}, if the format is invalid
+     */
+    static OffsetDateTime parseDhcpLeaseTime(final String time) {
+      if (time == null || time.length() != 19
+          || time.charAt(4) != '-' || time.charAt(7) != '-' || time.charAt(10) != ' '
+          || time.charAt(13) != ':' || time.charAt(16) != ':') {
+        return null;
+      }
+      try {
+        return OffsetDateTime.of(
+            digits(time, 0, 4),
+            digits(time, 5, 7),
+            digits(time, 8, 10),
+            digits(time, 11, 13),
+            digits(time, 14, 16),
+            digits(time, 17, 19),
+            0,
+            ZoneOffset.UTC);
+      } catch (NumberFormatException | DateTimeException e) {
         return null;
       }
-      final LocalDateTime localDateTime = LocalDateTime.parse(
-          time,
-          DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-      // As of https://linux.die.net/man/5/dhcpd.leases the time zone is always UTC
-      return OffsetDateTime.of(localDateTime, ZoneOffset.UTC);
+    }
+
+    private static int digits(final String value, final int start, final int end) {
+      int result = 0;
+      for (int i = start; i < end; i++) {
+        final int digit = value.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          throw new NumberFormatException(value);
+        }
+        result = result * 10 + digit;
+      }
+      return result;
     }
 
   }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * The kerberos ticket manager keeps a valid ticket of the administrator in a dedicated credential
+ * cache. The ticket is renewed in the background before it expires, so that callers of {@link
+ * #ensureValidTicket()} only have to wait for {@code kinit}, if there is no valid ticket at all.
+ *
+ * @author Christian Bremer
+ */
+@Profile("cli")
+@Component
+@Slf4j
+public class KerberosTicketManager {
+
+  private static final String KINIT_PASSWORD_FILE = "--password-file={}";
+
+  private static final String KINIT_CACHE = "-c";
+
+  private static final String SAMBA_TOOL_CACHE = "--krb5-ccache={}";
+
+  /**
+   * Matches only errors of an expired or missing ticket. A wrong password or a missing permission
+   * must not be retried with a new ticket.
+   */
+  private static final Pattern AUTHENTICATION_ERROR = Pattern.compile(
+      "Ticket expired|KRB5KRB_AP_ERR_TKT_EXPIRED|No Kerberos credentials available|"
+          + "No credentials cache found|KRB5_FCC_NOFILE");
+
+  private final Object lock = new Object();
+
+  private final DomainControllerProperties properties;
+
+  private volatile long expiresAt = 0L;
+
+  /**
+   * Instantiates a new kerberos ticket manager.
+   *
+   * @param properties the properties
+   */
+  public KerberosTicketManager(final DomainControllerProperties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Gets the credential cache.
+   *
+   * @return the credential cache or {@code null}, if the default cache is used
+   */
+  public String getCredentialCache() {
+    return StringUtils.hasText(properties.getKerberosCredentialCache())
+        ? properties.getKerberosCredentialCache()
+        : null;
+  }
+
+  /**
+   * Adds the credential cache option of {@code samba-tool} to the given commands, if a credential
+   * cache is configured. The option {@code --krb5-ccache} requires Samba 4.15 or newer.
+   *
+   * @param commands the commands
+   */
+  public void addCredentialCache(final List<String> commands) {
+    final String cache = getCredentialCache();
+    if (cache != null) {
+      commands.add(SAMBA_TOOL_CACHE.replace("{}", cache));
+    }
+  }
+
+  /**
+   * Checks whether a valid ticket exists.
+   *
+   * @return {@code true} if a valid ticket exists, otherwise {@code false}
+   */
+  public boolean hasValidTicket() {
+    return System.currentTimeMillis() < expiresAt;
+  }
+
+  /**
+   * Ensures that a valid ticket exists. The caller is only blocked, if there is no valid ticket.
+   */
+  public void ensureValidTicket() {
+    if (hasValidTicket()) {
+      return;
+    }
+    synchronized (lock) {
+      if (!hasValidTicket() && !kinit()) {
+        throw ServiceException.internalServerError(
+            "Getting kerberos ticket failed.",
+            "org.bremersee:dc-con-app:f2d3d8c1-3c6e-4b7a-a0d5-5e7b1c9a4f02");
+      }
+    }
+  }
+
+  /**
+   * Checks whether a samba-tool command failed, because the ticket isn't valid (any more). This
+   * happens, if the kdc issued a ticket with a shorter lifetime than the configured one or if the
+   * credential cache was destroyed.
+   *
+   * @param stderr the error output of the failed samba-tool command
+   * @return {@code true} if the command failed because of the ticket, otherwise {@code false}
+   */
+  public boolean isAuthenticationError(final String stderr) {
+    return stderr != null && AUTHENTICATION_ERROR.matcher(stderr).find();
+  }
+
+  /**
+   * Invalidates the ticket, so that the next call of {@link #ensureValidTicket()} gets a new one.
+   */
+  public void invalidate() {
+    expiresAt = 0L;
+  }
+
+  /**
+   * Renews the ticket, if it is going to expire. Nothing is done, if no ticket was requested
+   * before.
+   */
+  @Scheduled(fixedDelayString = "${bremersee.domain-controller.kerberos-ticket-renew-interval"
+      + ":60000}", initialDelay = 60000L)
+  public void renewTicket() {
+    final long renewAt = expiresAt - properties.getKerberosTicketRenewBefore().toMillis();
+    if (expiresAt > 0L && System.currentTimeMillis() >= renewAt) {
+      synchronized (lock) {
+        log.debug("msg=[Renewing kerberos ticket.] cache=[{}]", getCredentialCache());
+        kinit();
+      }
+    }
+  }
+
+  /**
+   * Gets a new ticket. The expiry of the ticket is computed with the configured ticket lifetime.
+   * If getting the ticket fails, the expiry of an existing ticket is kept, so that a failed renewal
+   * is retried later.
+   *
+   * @return {@code true} if getting the ticket was successful, otherwise {@code false}
+   */
+  boolean kinit() {
+    final long now = System.currentTimeMillis();
+    if (execKinit()) {
+      expiresAt = now + properties.getKerberosTicketLifetime().toMillis();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Calls linux command {@code kinit}. The success is determined by the exit code, because kinit
+   * may print informational messages (like a password expiry warning) to stderr.
+   *
+   * @return {@code true} if kinit was successful, otherwise {@code false}
+   */
+  boolean execKinit() {
+    final CommandExecutorResponse response = runKinit();
+    if (!response.isSuccessful()) {
+      log.error("msg=[Getting kerberos ticket failed.] exitCode=[{}] {}",
+          response.getExitCode(), response.toOneLine());
+      return false;
+    }
+    if (response.stderrHasText()) {
+      log.warn("msg=[Kinit printed a message.] {}", response.toOneLine());
+    }
+    return true;
+  }
+
+  /**
+   * Runs linux command {@code kinit}.
+   *
+   * @return the response of kinit
+   */
+  CommandExecutorResponse runKinit() {
+    final List<String> commands = new ArrayList<>();
+    if (properties.isUsingSudo()) {
+      commands.add(properties.getSudoBinary());
+    }
+    commands.add(properties.getKinitBinary());
+    commands.add(KINIT_PASSWORD_FILE.replace("{}", properties.getKinitPasswordFile()));
+    final String cache = getCredentialCache();
+    if (cache != null) {
+      commands.add(KINIT_CACHE);
+      commands.add(cache);
+    }
+    commands.add(properties.getKinitAdministratorName());
+    return CommandExecutor.exec(commands, properties.getSambaToolExecDir());
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A batch of samba-tool commands, that are executed by one python interpreter with the help of
+ * the script {@code cli/samba-tool-batch.py}. Every command is a list of arguments without the
+ * leading {@code samba-tool}, e. g. {@code dns add ns.example.org example.org pluto A
+ * 192.168.1.123 -k yes}.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class SambaToolBatch implements CommandExecutorResponseParser<List<Integer>> {
+
+  private static final String RESULT_PREFIX = "samba-tool-batch:";
+
+  private final List<List<String>> commands = new ArrayList<>();
+
+  /**
+   * Gets the location of the batch script. The script ({@code cli/samba-tool-batch.py}) must be
+   * installed by an administrator into a directory, that is owned by root, because it is executed
+   * with {@code sudo}.
+   *
+   * @param configuredScript the configured script
+   * @return the location of the batch script
+   * @throws org.bremersee.exception.ServiceException if the script isn't configured or isn't
+   *     owned by root
+   */
+  public static String getScript(final String configuredScript) {
+    return TrustedScript.verify("samba-tool-batch-script", configuredScript);
+  }
+
+  /**
+   * Checks whether the given arguments can be part of a batch. Arguments must not contain tabs or
+   * line breaks.
+   *
+   * @param args the arguments
+   * @return {@code true} if the arguments can be added, otherwise {@code false}
+   */
+  public static boolean isBatchable(final List<String> args) {
+    return args != null && !args.isEmpty() && args.stream()
+        .allMatch(arg -> arg != null
+            && arg.indexOf('\t') < 0 && arg.indexOf('\n') < 0 && arg.indexOf('\r') < 0);
+  }
+
+  /**
+   * Adds a samba-tool command.
+   *
+   * @param args the arguments of the command without the leading {@code samba-tool}
+   * @return the samba tool batch
+   */
+  public SambaToolBatch add(final String... args) {
+    return add(Arrays.asList(args));
+  }
+
+  /**
+   * Adds a samba-tool command.
+   *
+   * @param args the arguments of the command without the leading {@code samba-tool}
+   * @return the samba tool batch
+   */
+  public SambaToolBatch add(final List<String> args) {
+    if (!isBatchable(args)) {
+      throw new IllegalArgumentException("Arguments must not contain tabs or line breaks.");
+    }
+    commands.add(Collections.unmodifiableList(new ArrayList<>(args)));
+    return this;
+  }
+
+  /**
+   * Gets the commands.
+   *
+   * @return the commands
+   */
+  public List<List<String>> getCommands() {
+    return Collections.unmodifiableList(commands);
+  }
+
+  /**
+   * Checks whether the batch is empty.
+   *
+   * @return {@code true} if the batch has no commands, otherwise {@code false}
+   */
+  public boolean isEmpty() {
+    return commands.isEmpty();
+  }
+
+  /**
+   * Returns the input of the batch script: one command per line with tab separated arguments.
+   *
+   * @return the input
+   */
+  public String toInput() {
+    final StringBuilder sb = new StringBuilder();
+    for (final List<String> args : commands) {
+      sb.append(String.join("\t", args)).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Parses the return codes of the commands. The list has the same size as the commands, a
+   * command that wasn't executed has the return code {@code null}.
+   *
+   * @param response the response of the command executor
+   * @return the return codes
+   */
+  @Override
+  public List<Integer> parse(final CommandExecutorResponse response) {
+    final List<Integer> returnCodes = new ArrayList<>(Collections.nCopies(commands.size(), null));
+    if (response == null || !response.stdoutHasText()) {
+      return returnCodes;
+    }
+    for (final String line : response.getStdout().split("\\r?\\n")) {
+      if (!line.startsWith(RESULT_PREFIX)) {
+        continue;
+      }
+      final String[] parts = line.substring(RESULT_PREFIX.length()).split(":", 2);
+      final Integer index = parseInt(parts[0]);
+      if (index == null || index < 0 || index >= returnCodes.size() || parts.length < 2) {
+        log.warn("msg=[Unexpected result line of samba tool batch.] line=[{}]", line);
+        continue;
+      }
+      // python may exit with a message instead of a number
+      final Integer returnCode = parseInt(parts[1]);
+      returnCodes.set(index, returnCode != null ? returnCode : 1);
+    }
+    return returnCodes;
+  }
+
+  private static Integer parseInt(final String value) {
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.exception.ServiceException;
+
+/**
+ * A long-lived samba-tool process (see {@code cli/samba-tool-worker.py}), that has loaded samba's
+ * python modules once. Commands are sent as one line of json to stdin, the response is read as
+ * one line of json from stdout. A worker executes one command at a time.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class SambaToolWorker {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final long DESTROY_GRACE_PERIOD_MILLIS = 5000L;
+
+  @Getter
+  private final String name;
+
+  private final Process process;
+
+  private final Writer writer;
+
+  private final Map<Long, CompletableFuture<CommandExecutorResponse>> pending
+      = new ConcurrentHashMap<>();
+
+  private final AtomicLong ids = new AtomicLong();
+
+  private volatile boolean broken;
+
+  /**
+   * Instantiates a new samba tool worker and starts reading the responses of the process.
+   *
+   * @param name the name of the worker
+   * @param process the process
+   */
+  SambaToolWorker(final String name, final Process process) {
+    this.name = name;
+    this.process = process;
+    this.writer = new BufferedWriter(
+        new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+    startDaemon(name + "-stdout", this::readResponses);
+    startDaemon(name + "-stderr", this::readErrors);
+  }
+
+  /**
+   * Starts a new worker process. The worker is returned, if it answers a ping within the given
+   * timeout.
+   *
+   * @param name the name of the worker
+   * @param commands the commands to start the worker process
+   * @param dir the working directory (can be {@code null})
+   * @param startTimeout the time the worker has to load samba's python modules
+   * @return the worker
+   * @throws IOException if the process can't be started or doesn't answer
+   */
+  public static SambaToolWorker start(
+      final String name,
+      final List<String> commands,
+      final String dir,
+      final Duration startTimeout) throws IOException {
+
+    final ProcessBuilder pb = new ProcessBuilder(commands);
+    if (dir != null && dir.trim().length() > 0) {
+      pb.directory(new File(dir));
+    }
+    final SambaToolWorker worker = new SambaToolWorker(name, pb.start());
+    if (!worker.ping(startTimeout)) {
+      worker.destroy();
+      throw new IOException("Samba tool worker [" + name + "] didn't answer after start.");
+    }
+    log.info("msg=[Samba tool worker started.] name=[{}] commands=[{}]", name, commands);
+    return worker;
+  }
+
+  /**
+   * Checks whether the worker can accept commands.
+   *
+   * @return {@code true} if the worker is alive, otherwise {@code false}
+   */
+  public boolean isAlive() {
+    return !broken && process.isAlive();
+  }
+
+  /**
+   * Sends a ping to the worker.
+   *
+   * @param timeout the timeout
+   * @return {@code true} if the worker answered in time, otherwise {@code false}
+   */
+  public boolean ping(final Duration timeout) {
+    try {
+      final CommandExecutorResponse response = send(null, timeout);
+      return "pong".equals(response.getStdout());
+    } catch (ServiceException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Executes a samba-tool command.
+   *
+   * @param args the arguments of the command without the leading {@code samba-tool}
+   * @param timeout the timeout
+   * @return the output and the error output of the command
+   * @throws ServiceException if the worker fails or doesn't answer in time; the worker is not
+   *     alive afterwards
+   */
+  public CommandExecutorResponse exec(final List<String> args, final Duration timeout) {
+    return send(args, timeout);
+  }
+
+  /**
+   * Terminates the worker process.
+   */
+  public void destroy() {
+    broken = true;
+    failPending(new IOException("Samba tool worker [" + name + "] was destroyed."));
+    try {
+      writer.close();
+    } catch (IOException ignored) {
+      // the process is terminated anyway
+    }
+    process.destroy();
+    try {
+      if (!process.waitFor(DESTROY_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) {
+        process.destroyForcibly();
+      }
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private CommandExecutorResponse send(final List<String> args, final Duration timeout) {
+    if (!isAlive()) {
+      throw failed("Samba tool worker is not alive.", null);
+    }
+    final long id = ids.incrementAndGet();
+    final ObjectNode request = OBJECT_MAPPER.createObjectNode().put("id", id);
+    if (args == null) {
+      request.put("op", "ping");
+    } else {
+      args.forEach(request.putArray("args")::add);
+    }
+    final CompletableFuture<CommandExecutorResponse> future = new CompletableFuture<>();
+    pending.put(id, future);
+    try {
+      synchronized (writer) {
+        writer.write(OBJECT_MAPPER.writeValueAsString(request));
+        writer.write('\n');
+        writer.flush();
+      }
+      return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+    } catch (IOException | ExecutionException e) {
+      broken = true;
+      throw failed("Samba tool worker failed.", e);
+
+    } catch (TimeoutException e) {
+      // the worker may still be busy with the command, so it can't be used anymore
+      broken = true;
+      throw failed("Samba tool worker timed out.", e);
+
+    } catch (InterruptedException e) {
+      broken = true;
+      Thread.currentThread().interrupt();
+      throw failed("Samba tool worker was interrupted.", e);
+
+    } finally {
+      pending.remove(id);
+    }
+  }
+
+  private ServiceException failed(final String message, final Throwable cause) {
+    final ServiceException se = ServiceException.internalServerError(
+        message + " name=[" + name + "]",
+        "org.bremersee:dc-con-app:5b8e2c61-0d4f-4a7e-b3c9-7f1a2e6d9c40",
+        cause);
+    log.warn("msg=[{}] name=[{}]", message, name, cause);
+    return se;
+  }
+
+  private void readResponses() {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final JsonNode response = OBJECT_MAPPER.readTree(line);
+        final CompletableFuture<CommandExecutorResponse> future = pending
+            .get(response.path("id").asLong(-1L));
+        if (future == null) {
+          log.warn("msg=[Unexpected response of samba tool worker.] name=[{}] response=[{}]",
+              name, line);
+        } else {
+          if (response.path("rc").asInt(0) != 0 && log.isDebugEnabled()) {
+            log.debug("msg=[Samba tool command failed.] name=[{}] returnCode=[{}]",
+                name, response.path("rc").asInt());
+          }
+          future.complete(new CommandExecutorResponse(
+              response.path("stdout").asText(""),
+              response.path("stderr").asText(""),
+              response.path("rc").asInt(0)));
+        }
+      }
+      failPending(new IOException("Samba tool worker [" + name + "] closed its output."));
+
+    } catch (IOException e) {
+      failPending(e);
+    }
+  }
+
+  private void readErrors() {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        log.warn("msg=[Samba tool worker error output.] name=[{}] line=[{}]", name, line);
+      }
+    } catch (IOException e) {
+      log.debug("msg=[Reading error output of samba tool worker failed.] name=[{}]", name, e);
+    }
+  }
+
+  private void failPending(final Throwable cause) {
+    broken = true;
+    pending.values().forEach(future -> future.completeExceptionally(cause));
+  }
+
+  private static void startDaemon(final String name, final Runnable runnable) {
+    final Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The pool of samba tool workers. If the worker mode is enabled, the pool keeps the configured
+ * number of long-lived samba-tool processes (see {@link SambaToolWorker}), so that a command
+ * doesn't have to pay the start of the python interpreter and the import of samba's modules.
+ * Workers, that fail or don't answer a health check, are replaced.
+ *
+ * @author Christian Bremer
+ */
+@Profile("cli")
+@Component
+@Slf4j
+public class SambaToolWorkerPool {
+
+  private static final long START_BACKOFF_MILLIS = 60000L;
+
+  private final DomainControllerProperties properties;
+
+  private final WorkerFactory workerFactory;
+
+  private final BlockingQueue<SambaToolWorker> idleWorkers = new LinkedBlockingQueue<>();
+
+  private final AtomicInteger workerCount = new AtomicInteger();
+
+  private final AtomicInteger workerNumber = new AtomicInteger();
+
+  @Setter(AccessLevel.PACKAGE)
+  private Duration pingTimeout = Duration.ofSeconds(10L);
+
+  private volatile long nextStartAttempt = 0L;
+
+  private volatile boolean shutdown;
+
+  /**
+   * Instantiates a new samba tool worker pool.
+   *
+   * @param properties the properties
+   */
+  public SambaToolWorkerPool(final DomainControllerProperties properties) {
+    this(properties, name -> SambaToolWorker.start(
+        name,
+        getWorkerCommands(properties),
+        properties.getSambaToolExecDir(),
+        properties.getSambaToolWorkerStartTimeout()));
+  }
+
+  /**
+   * Instantiates a new samba tool worker pool.
+   *
+   * @param properties the properties
+   * @param workerFactory the worker factory
+   */
+  SambaToolWorkerPool(
+      final DomainControllerProperties properties,
+      final WorkerFactory workerFactory) {
+    this.properties = properties;
+    this.workerFactory = workerFactory;
+  }
+
+  private static List<String> getWorkerCommands(final DomainControllerProperties properties) {
+    final List<String> commands = new ArrayList<>();
+    if (properties.isUsingSudo()) {
+      commands.add(properties.getSudoBinary());
+    }
+    commands.add(properties.getPythonBinary());
+    // the worker runs with sudo, so only an installed script, that is owned by root, is accepted
+    commands.add(TrustedScript.verify(
+        "samba-tool-worker-script",
+        properties.getSambaToolWorkerScript()));
+    return commands;
+  }
+
+  /**
+   * Checks whether the worker mode is enabled.
+   *
+   * @return {@code true} if the worker mode is enabled, otherwise {@code false}
+   */
+  public boolean isEnabled() {
+    return !shutdown
+        && properties.isSambaToolWorkerEnabled()
+        && properties.getSambaToolWorkerCount() > 0;
+  }
+
+  /**
+   * Gets the number of workers.
+   *
+   * @return the number of workers
+   */
+  public int getWorkerCount() {
+    return workerCount.get();
+  }
+
+  /**
+   * Executes a samba-tool command with a worker. If the worker mode is disabled or no worker is
+   * available within the maximum wait time of the command line interface, {@code null} is
+   * returned and the caller should execute the command with {@link CommandExecutor}.
+   *
+   * @param args the arguments of the command without the leading {@code samba-tool}
+   * @return the response or {@code null}, if the command wasn't executed
+   * @throws org.bremersee.exception.ServiceException if the worker fails during the command
+   */
+  public CommandExecutorResponse exec(final List<String> args) {
+    if (!isEnabled()) {
+      return null;
+    }
+    fill();
+    final SambaToolWorker worker;
+    try {
+      worker = idleWorkers.poll(properties.getCliMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    if (worker == null) {
+      log.warn("msg=[No samba tool worker available.] workers=[{}]", workerCount.get());
+      return null;
+    }
+    try {
+      return worker.exec(args, CommandExecutor.DEFAULT_TIMEOUT);
+    } finally {
+      release(worker);
+    }
+  }
+
+  /**
+   * Pings the idle workers, replaces the workers, that don't answer, and starts missing workers.
+   */
+  @Scheduled(fixedDelayString = "${bremersee.domain-controller.samba-tool-worker-health-check"
+      + "-interval:30000}", initialDelay = 10000L)
+  public void checkHealth() {
+    if (!isEnabled()) {
+      return;
+    }
+    final int size = idleWorkers.size();
+    for (int i = 0; i < size; i++) {
+      final SambaToolWorker worker = idleWorkers.poll();
+      if (worker == null) {
+        break;
+      }
+      if (!worker.ping(pingTimeout)) {
+        log.warn("msg=[Samba tool worker didn't answer the health check.] name=[{}]",
+            worker.getName());
+      }
+      release(worker);
+    }
+    fill();
+  }
+
+  /**
+   * Terminates all workers.
+   */
+  @PreDestroy
+  public void shutdown() {
+    shutdown = true;
+    SambaToolWorker worker;
+    while ((worker = idleWorkers.poll()) != null) {
+      discard(worker);
+    }
+  }
+
+  private void release(final SambaToolWorker worker) {
+    if (!shutdown && worker.isAlive()) {
+      idleWorkers.offer(worker);
+    } else {
+      discard(worker);
+      // the replacement is started by the next command or the next health check
+      nextStartAttempt = 0L;
+    }
+  }
+
+  private void discard(final SambaToolWorker worker) {
+    workerCount.decrementAndGet();
+    worker.destroy();
+    log.info("msg=[Samba tool worker removed.] name=[{}]", worker.getName());
+  }
+
+  private void fill() {
+    while (isEnabled() && System.currentTimeMillis() >= nextStartAttempt) {
+      final int count = workerCount.get();
+      if (count >= properties.getSambaToolWorkerCount()) {
+        return;
+      }
+      if (!workerCount.compareAndSet(count, count + 1)) {
+        continue;
+      }
+      final String name = "samba-tool-worker-" + workerNumber.incrementAndGet();
+      try {
+        idleWorkers.offer(workerFactory.create(name));
+      } catch (IOException | RuntimeException e) {
+        workerCount.decrementAndGet();
+        nextStartAttempt = System.currentTimeMillis() + START_BACKOFF_MILLIS;
+        log.error("msg=[Starting samba tool worker failed.] name=[{}]", name, e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * The worker factory.
+   */
+  interface WorkerFactory {
+
+    /**
+     * Creates a new worker.
+     *
+     * @param name the name of the worker
+     * @return the worker
+     * @throws IOException if the worker can't be started
+     */
+    SambaToolWorker create(String name) throws IOException;
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.exception.ServiceException;
+import org.springframework.util.StringUtils;
+
+/**
+ * Checks the location of a script, that is executed with {@code sudo}. The script must be
+ * configured with an absolute path and the script and its directory must be owned by root and
+ * must not be writable by group or others, so that the user of this application can't replace
+ * it. The scripts of the class path ({@code cli/*.py}) are never executed directly, they must be
+ * installed by an administrator.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+abstract class TrustedScript {
+
+  private static final String ROOT = "root";
+
+  private TrustedScript() {
+  }
+
+  /**
+   * Gets the location of a script, that is owned by root.
+   *
+   * @param property the name of the property, that configures the script
+   * @param configuredScript the configured script
+   * @return the location of the script
+   * @throws ServiceException if the script isn't trusted
+   */
+  static String verify(final String property, final String configuredScript) {
+    return verify(property, configuredScript, ROOT);
+  }
+
+  /**
+   * Gets the location of a script, that is owned by the given owner.
+   *
+   * @param property the name of the property, that configures the script
+   * @param configuredScript the configured script
+   * @param owner the expected owner of the script and its directory
+   * @return the location of the script
+   * @throws ServiceException if the script isn't trusted
+   */
+  static String verify(final String property, final String configuredScript, final String owner) {
+    if (!StringUtils.hasText(configuredScript)) {
+      throw untrusted(property, configuredScript, "no script is configured");
+    }
+    final Path script = Paths.get(configuredScript);
+    if (!script.isAbsolute()) {
+      throw untrusted(property, configuredScript, "the path is not absolute");
+    }
+    if (!Files.isRegularFile(script)) {
+      throw untrusted(property, configuredScript, "the script does not exist");
+    }
+    check(property, configuredScript, script, owner);
+    check(property, configuredScript, script.getParent(), owner);
+    return configuredScript;
+  }
+
+  private static void check(
+      final String property,
+      final String configuredScript,
+      final Path path,
+      final String owner) {
+    final PosixFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, PosixFileAttributes.class);
+    } catch (IOException | UnsupportedOperationException e) {
+      throw untrusted(property, configuredScript, "reading the owner of " + path + " failed");
+    }
+    if (!owner.equals(attributes.owner().getName())) {
+      throw untrusted(property, configuredScript, path + " is not owned by " + owner);
+    }
+    final Set<PosixFilePermission> permissions = attributes.permissions();
+    if (permissions.contains(PosixFilePermission.GROUP_WRITE)
+        || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+      throw untrusted(property, configuredScript, path + " is writable by group or others");
+    }
+  }
+
+  private static ServiceException untrusted(
+      final String property,
+      final String configuredScript,
+      final String reason) {
+    final ServiceException se = ServiceException.internalServerError(
+        "Script is not trusted: " + reason,
+        "org.bremersee:dc-con-app:8a4c2d71-6e3f-4b95-a0d8-7f1e5c9b3a62");
+    log.error("msg=[Script is not trusted.] property=[{}] script=[{}] reason=[{}]",
+        property, configuredScript, reason);
+    return se;
+  }
+
+}
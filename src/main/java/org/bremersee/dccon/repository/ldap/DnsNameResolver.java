@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.ldap;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The dns name resolver resolves host names asynchronously and caches the results, so that the
+ * mapping of ldap entries is never blocked by the resolver.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class DnsNameResolver {
+
+  private static final long TIME_TO_LIVE_MILLIS = 10L * 60L * 1000L;
+
+  private static final int MAX_SIZE = 10000;
+
+  private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+  private final ExecutorService executor;
+
+  /**
+   * Instantiates a new dns name resolver.
+   */
+  public DnsNameResolver() {
+    this(Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "dns-name-resolver");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /**
+   * Instantiates a new dns name resolver.
+   *
+   * @param executor the executor that does the resolving
+   */
+  public DnsNameResolver(final ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the cached address of the given host name. If there is no cached address, the host name
+   * will be resolved in the background and {@code empty} is returned.
+   *
+   * @param hostName the host name
+   * @return the address (e. g. {@code 192.168.1.123}) or {@code empty}
+   */
+  public Optional<String> resolve(final String hostName) {
+    if (hostName == null || hostName.length() == 0) {
+      return Optional.empty();
+    }
+    final String key = hostName.toLowerCase();
+    final Entry entry = cache.get(key);
+    if (entry != null && !entry.isExpired()) {
+      return Optional.ofNullable(entry.address);
+    }
+    if (cache.size() >= MAX_SIZE) {
+      cache.clear();
+    }
+    // the pending entry prevents concurrent lookups of the same name
+    if (entry == null ? cache.putIfAbsent(key, new Entry(null)) == null
+        : cache.replace(key, entry, new Entry(entry.address))) {
+      try {
+        executor.execute(() -> cache.put(key, new Entry(lookup(hostName))));
+      } catch (RejectedExecutionException e) {
+        log.warn("msg=[Resolving host name was rejected.] hostName=[{}]", hostName);
+        cache.remove(key);
+      }
+    }
+    return Optional.ofNullable(entry != null ? entry.address : null);
+  }
+
+  private static String lookup(final String hostName) {
+    try {
+      return InetAddress.getByName(hostName).getHostAddress();
+    } catch (UnknownHostException e) {
+      log.debug("msg=[Host name is unknown.] hostName=[{}]", hostName);
+      return null;
+    }
+  }
+
+  private static class Entry {
+
+    private final long createdAt = System.currentTimeMillis();
+
+    private final String address;
+
+    private Entry(final String address) {
+      this.address = address;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() - createdAt > TIME_TO_LIVE_MILLIS;
+    }
+  }
+
+}
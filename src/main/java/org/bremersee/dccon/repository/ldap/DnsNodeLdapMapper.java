@@ -17,18 +17,26 @@
 package org.bremersee.dccon.repository.ldap;
 
 import static org.bremersee.data.ldaptive.LdaptiveEntryMapper.getAttributeValue;
+import static org.bremersee.data.ldaptive.LdaptiveEntryMapper.setAttribute;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.bremersee.data.ldaptive.LdaptiveEntryMapper;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DnsNode;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.UnknownFilter;
+import org.bremersee.dccon.repository.DnsRecordType;
 import org.bremersee.dccon.repository.ldap.transcoder.DnsRecordValueTranscoder;
 import org.ldaptive.AttributeModification;
+import org.ldaptive.AttributeModificationType;
+import org.ldaptive.LdapAttribute;
 import org.ldaptive.LdapEntry;
 import org.ldaptive.io.StringValueTranscoder;
 
@@ -44,10 +52,14 @@ public class DnsNodeLdapMapper extends AbstractLdapMapper implements LdaptiveEnt
   private static final DnsRecordValueTranscoder DNS_RECORD_VALUE_TRANSCODER
       = new DnsRecordValueTranscoder();
 
+  private static final DnsNameResolver DNS_NAME_RESOLVER = new DnsNameResolver();
+
   private final String zoneName;
 
   private final UnknownFilter unknownFilter;
 
+  private final Supplier<Integer> zoneSerialSupplier;
+
   /**
    * Instantiates a new dns node ldap mapper.
    *
@@ -59,14 +71,32 @@ public class DnsNodeLdapMapper extends AbstractLdapMapper implements LdaptiveEnt
       DomainControllerProperties properties,
       String zoneName,
       UnknownFilter unknownFilter) {
+    this(properties, zoneName, unknownFilter, null);
+  }
+
+  /**
+   * Instantiates a new dns node ldap mapper.
+   *
+   * @param properties the properties
+   * @param zoneName the zone name
+   * @param unknownFilter the unknown filter
+   * @param zoneSerialSupplier the supplier of the serial of the SOA record of the zone, that is
+   *     used for new records (can be {@code null} or supply {@code null})
+   */
+  public DnsNodeLdapMapper(
+      DomainControllerProperties properties,
+      String zoneName,
+      UnknownFilter unknownFilter,
+      Supplier<Integer> zoneSerialSupplier) {
     super(properties);
     this.zoneName = zoneName;
     this.unknownFilter = unknownFilter != null ? unknownFilter : UnknownFilter.NO_UNKNOWN;
+    this.zoneSerialSupplier = zoneSerialSupplier;
   }
 
   @Override
   public String[] getObjectClasses() {
-    return new String[0];
+    return new String[]{"top", "dnsNode"};
   }
 
   @Override
@@ -103,32 +133,112 @@ public class DnsNodeLdapMapper extends AbstractLdapMapper implements LdaptiveEnt
         .getAttributeValuesAsSet(ldapEntry, "dnsRecord", DNS_RECORD_VALUE_TRANSCODER)
         .stream()
         .filter(unknownFilter::matches)
+        .map(this::insertResolvedAddress)
         .collect(Collectors.toSet()));
     dnsNode.setRecords(new TreeSet<>(dnsNode.getRecords()));
   }
 
+  private DnsRecord insertResolvedAddress(final DnsRecord dnsRecord) {
+    if (getProperties().isDnsNameResolutionEnabled()
+        && dnsRecord.getCorrelatedRecordValue() == null
+        && (DnsRecordType.PTR.is(dnsRecord.getRecordType())
+        || DnsRecordType.CNAME.is(dnsRecord.getRecordType()))) {
+      DNS_NAME_RESOLVER.resolve(dnsRecord.getRecordValue())
+          .ifPresent(dnsRecord::setCorrelatedRecordValue);
+    }
+    return dnsRecord;
+  }
+
   @Override
   public AttributeModification[] mapAndComputeModifications(
       final DnsNode source,
       final LdapEntry destination) {
 
-    // Because I cannot transcode the record value into the raw record value,
-    // this call keeps existing records and deletes non existing records.
-    // Adding new records has to be done via the command line interface
-    // (see save method in DnsNodeRepositoryImpl).
+    // This call keeps existing records, deletes non existing records and adds new records, if
+    // their record values can be encoded. Adding the other new records has to be done via the
+    // command line interface (see save method in DnsNodeRepositoryImpl).
     final List<AttributeModification> modifications = new ArrayList<>();
-    final List<DnsRecord> delete = new ArrayList<>();
     final DnsNode destinationNode = map(destination);
-    if (destinationNode != null) {
-      for (final DnsRecord record : destinationNode.getRecords()) {
-        if (!source.getRecords().contains(record)) {
-          delete.add(record);
+    final Set<DnsRecord> existingRecords = destinationNode != null
+        ? destinationNode.getRecords()
+        : Collections.emptySet();
+
+    // The raw value of a new record is its encoded value without serial, if it is set (see
+    // DnsNodeRepositoryImpl), so that the record value is encoded only once.
+    final List<byte[]> add = new ArrayList<>();
+    for (final DnsRecord record : source.getRecords()) {
+      if (!existingRecords.contains(record)) {
+        final byte[] value = record.getRecordRawValue() != null
+            ? record.getRecordRawValue()
+            : DNS_RECORD_VALUE_TRANSCODER.encodeBinaryValue(record, 0);
+        if (value != null) {
+          add.add(value);
         }
       }
     }
+    if (!add.isEmpty()) {
+      final int serial = getSerial(existingRecords);
+      add.replaceAll(value -> DnsRecordValueTranscoder.withSerial(value, serial));
+    }
+
+    // A tombstoned node is deleted for the dns server, even if it has records. So the tombstone
+    // record is removed and the flag is cleared, when records are added (like samba-tool does).
+    final boolean revive = !add.isEmpty() && isTombstoned(destination);
+    final List<DnsRecord> delete = new ArrayList<>();
+    for (final DnsRecord record : existingRecords) {
+      if (!source.getRecords().contains(record)
+          || (revive && DnsRecordValueTranscoder.isTombstone(record))) {
+        delete.add(record);
+      }
+    }
     LdaptiveEntryMapper.removeAttributes(
         destination, "dnsRecord", delete, DNS_RECORD_VALUE_TRANSCODER, modifications);
+
+    if (!add.isEmpty()) {
+      LdapAttribute attribute = destination.getAttribute("dnsRecord");
+      if (attribute == null) {
+        attribute = new LdapAttribute(true);
+        attribute.setName("dnsRecord");
+        destination.addAttribute(attribute);
+      }
+      attribute.addBinaryValues(add);
+      final LdapAttribute addAttribute = new LdapAttribute(true);
+      addAttribute.setName("dnsRecord");
+      addAttribute.addBinaryValues(add);
+      final AttributeModification modification = new AttributeModification();
+      modification.setAttributeModificationType(AttributeModificationType.ADD);
+      modification.setAttribute(addAttribute);
+      modifications.add(modification);
+    }
+    if (revive) {
+      setAttribute(destination,
+          "dNSTombstoned", "FALSE", false, STRING_VALUE_TRANSCODER, modifications);
+    }
     return modifications.toArray(new AttributeModification[0]);
   }
 
+  private static boolean isTombstoned(final LdapEntry ldapEntry) {
+    return "TRUE".equalsIgnoreCase(
+        getAttributeValue(ldapEntry, "dNSTombstoned", STRING_VALUE_TRANSCODER, null));
+  }
+
+  /**
+   * Gets the serial of new records. Like samba, the serial of the SOA record of the zone is used.
+   * If it is unknown, the serial of the existing records of the node or {@code 1} is used.
+   *
+   * @param existingRecords the existing records of the node
+   * @return the serial
+   */
+  private int getSerial(final Set<DnsRecord> existingRecords) {
+    final Integer zoneSerial = zoneSerialSupplier != null ? zoneSerialSupplier.get() : null;
+    if (zoneSerial != null) {
+      return zoneSerial;
+    }
+    return existingRecords.stream()
+        .map(DnsRecord::getSerial)
+        .filter(Objects::nonNull)
+        .max(Integer::compareTo)
+        .orElse(1);
+  }
+
 }
@@ -16,30 +16,36 @@
 
 package org.bremersee.dccon.repository.ldap.transcoder;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.bremersee.dccon.model.DnsRecord;
-import org.bremersee.exception.ServiceException;
-import org.ldaptive.io.Hex;
-import org.springframework.util.StringUtils;
 
 /**
- * The dns record data mapper.
+ * The dns record data mapper. The data is always read with absolute positions, so the given
+ * buffers are never modified and never copied. The data of the records is stored in network byte
+ * order (big endian), names are stored as dns count names.
  *
  * @author Christian Bremer
  */
 @Slf4j
 public abstract class DnsRecordDataMapper {
 
+  private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private static final int MAX_LABEL_LENGTH = 63;
+
+  private static final int MAX_NAME_LENGTH = 255;
+
+  private static final int MAX_CHARACTER_STRING_LENGTH = 255;
+
   private DnsRecordDataMapper() {
   }
 
@@ -51,30 +57,32 @@ public abstract class DnsRecordDataMapper {
    * @return the dns record
    */
   public static DnsRecord parseA(final byte[] data, final Supplier<DnsRecord> dnsRecordSupplier) {
+    return parseA(ByteBuffer.wrap(data), dnsRecordSupplier);
+  }
+
+  /**
+   * Parse a dns record.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseA(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
     final DnsRecord dnsRecord = dnsRecordSupplier.get();
-    if (data.length >= 4) {
-      try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
-        String ip = String.valueOf(dis.readUnsignedByte())
-            + '.'
-            + dis.readUnsignedByte()
-            + '.'
-            + dis.readUnsignedByte()
-            + '.'
-            + dis.readUnsignedByte();
-        dnsRecord.setRecordValue(ip);
-      } catch (IOException ioe) {
-        final ServiceException se = ServiceException.internalServerError(
-            "Parsing data of A record failed.",
-            "org.bremersee:dc-con-app:7279a7e9-69a8-4d30-b1c2-14c10a3a705f",
-            ioe);
-        log.error("msg=[Parsing data of A record failed.]", se);
-        throw se;
-      }
+    if (data.remaining() >= 4) {
+      final int pos = data.position();
+      dnsRecord.setRecordValue(String.valueOf(data.get(pos) & 0xff)
+          + '.'
+          + (data.get(pos + 1) & 0xff)
+          + '.'
+          + (data.get(pos + 2) & 0xff)
+          + '.'
+          + (data.get(pos + 3) & 0xff));
     } else {
-      dnsRecord.setRecordValue(new String(Hex.encode(data)));
+      dnsRecord.setRecordValue(toHex(data));
     }
-    log.debug("msg=[A record parsed.] recordValue=[{}] correlatedRecordValue=[{}]",
-        dnsRecord.getRecordValue(), dnsRecord.getCorrelatedRecordValue());
     return dnsRecord;
   }
 
@@ -91,6 +99,19 @@ public abstract class DnsRecordDataMapper {
     return parsePtr(data, dnsRecordSupplier);
   }
 
+  /**
+   * Parse cname dns record.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseCname(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
+    return parsePtr(data, dnsRecordSupplier);
+  }
+
   /**
    * Parse ptr dns record.
    *
@@ -99,42 +120,397 @@ public abstract class DnsRecordDataMapper {
    * @return the dns record
    */
   public static DnsRecord parsePtr(final byte[] data, final Supplier<DnsRecord> dnsRecordSupplier) {
+    return parsePtr(data != null ? ByteBuffer.wrap(data) : null, dnsRecordSupplier);
+  }
+
+  /**
+   * Parse ptr dns record. The data is a dns count name: the first byte is the length of the raw
+   * name, the second byte is the number of labels, followed by the length prefixed labels and a
+   * terminating zero byte. The name is decoded without any dns lookup.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parsePtr(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
     final DnsRecord dnsRecord = dnsRecordSupplier.get();
-    if (data != null && data.length > 1) {
-      try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
-        int expectedLength = dis.readUnsignedByte();
-        int actualLength = 0;
-        final List<String> values = new ArrayList<>();
-        StringBuilder valueBuilder = new StringBuilder();
-        for (char c : IOUtils.toString(dis, StandardCharsets.UTF_8).toCharArray()) {
-          actualLength++;
-          if (c > 32) {
-            valueBuilder.append(c);
-          } else if (valueBuilder.length() > 0) {
-            values.add(valueBuilder.toString());
-            valueBuilder = new StringBuilder();
-          }
-        }
-        if (valueBuilder.length() > 0) {
-          values.add(valueBuilder.toString());
-        }
-        final String value = StringUtils.collectionToDelimitedString(values, ".");
-        log.debug("msg=[PTR record parsed.] ptrValue=[{}] expectedLength=[{}] actualLength=[{}]",
-            value, expectedLength, actualLength);
+    if (data != null && data.remaining() > 1) {
+      final String value = parseCountName(data, data.position());
+      if (value != null) {
+        dnsRecord.setRecordValue(value);
+      } else {
+        dnsRecord.setRecordValue(toHex(data));
+        log.warn("msg=[Parsing data of PTR record failed.] data=[{}]",
+            dnsRecord.getRecordValue());
+      }
+    }
+    return dnsRecord;
+  }
 
-        try {
-          final InetAddress inetAddress = InetAddress.getByName(value);
-          dnsRecord.setRecordValue(inetAddress.getHostName());
-          dnsRecord.setCorrelatedRecordValue(inetAddress.getHostAddress());
+  /**
+   * Parse aaaa dns record.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseAaaa(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
+    final DnsRecord dnsRecord = dnsRecordSupplier.get();
+    if (data.remaining() >= 16) {
+      final int pos = data.position();
+      final int[] groups = new int[8];
+      for (int i = 0; i < 8; i++) {
+        groups[i] = data.getShort(pos + 2 * i) & 0xffff;
+      }
+      dnsRecord.setRecordValue(toIp6String(groups));
+    } else {
+      dnsRecord.setRecordValue(toHex(data));
+    }
+    return dnsRecord;
+  }
+
+  /**
+   * Parse txt dns record. The character strings are concatenated.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseTxt(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
+    final DnsRecord dnsRecord = dnsRecordSupplier.get();
+    final StringBuilder value = new StringBuilder();
+    int pos = data.position();
+    while (pos < data.limit()) {
+      final int length = data.get(pos++) & 0xff;
+      if (pos + length > data.limit()) {
+        dnsRecord.setRecordValue(toHex(data));
+        return dnsRecord;
+      }
+      value.append(toString(data, pos, length));
+      pos += length;
+    }
+    dnsRecord.setRecordValue(value.toString());
+    return dnsRecord;
+  }
 
-        } catch (UnknownHostException e) {
-          dnsRecord.setRecordValue(value);
+  /**
+   * Parse mx dns record. The record value has the format of samba-tool: {@code target
+   * preference}.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseMx(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
+    final DnsRecord dnsRecord = dnsRecordSupplier.get();
+    final int pos = data.position();
+    final String target = data.remaining() > 2 ? parseCountName(data, pos + 2) : null;
+    if (target != null) {
+      dnsRecord.setRecordValue(target + ' ' + (data.getShort(pos) & 0xffff));
+    } else {
+      dnsRecord.setRecordValue(toHex(data));
+    }
+    return dnsRecord;
+  }
+
+  /**
+   * Parse srv dns record. The record value has the format of samba-tool: {@code target port
+   * priority weight}.
+   *
+   * @param data the data
+   * @param dnsRecordSupplier the dns record supplier
+   * @return the dns record
+   */
+  public static DnsRecord parseSrv(
+      final ByteBuffer data,
+      final Supplier<DnsRecord> dnsRecordSupplier) {
+    final DnsRecord dnsRecord = dnsRecordSupplier.get();
+    final int pos = data.position();
+    final String target = data.remaining() > 6 ? parseCountName(data, pos + 6) : null;
+    if (target != null) {
+      dnsRecord.setRecordValue(target
+          + ' ' + (data.getShort(pos + 4) & 0xffff)
+          + ' ' + (data.getShort(pos) & 0xffff)
+          + ' ' + (data.getShort(pos + 2) & 0xffff));
+    } else {
+      dnsRecord.setRecordValue(toHex(data));
+    }
+    return dnsRecord;
+  }
+
+  /**
+   * Encode the value of an a record (e. g. {@code 192.168.1.123}).
+   *
+   * @param value the record value
+   * @return the data or {@code null}, if the value is not a valid IPv4
+   */
+  public static byte[] encodeA(final String value) {
+    final String[] parts = value.trim().split(Pattern.quote("."), -1);
+    if (parts.length != 4) {
+      return null;
+    }
+    final byte[] data = new byte[4];
+    for (int i = 0; i < 4; i++) {
+      final Integer octet = parseUnsigned(parts[i], 255);
+      if (octet == null) {
+        return null;
+      }
+      data[i] = octet.byteValue();
+    }
+    return data;
+  }
+
+  /**
+   * Encode the value of an aaaa record (e. g. {@code fe80::1}).
+   *
+   * @param value the record value
+   * @return the data or {@code null}, if the value is not a valid IPv6
+   */
+  public static byte[] encodeAaaa(final String value) {
+    // only literals are parsed, so that no name lookup can happen
+    if (value.indexOf(':') < 0 || value.indexOf('%') >= 0) {
+      return null;
+    }
+    try {
+      final byte[] data = InetAddress.getByName(value.trim()).getAddress();
+      return data.length == 16 ? data : null;
+    } catch (UnknownHostException | SecurityException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Encode the value of a ptr or cname record (e. g. {@code pluto.eixe.bremersee.org}).
+   *
+   * @param value the record value
+   * @return the data or {@code null}, if the value is not a valid name
+   */
+  public static byte[] encodePtr(final String value) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    return writeCountName(value.trim(), out) ? out.toByteArray() : null;
+  }
+
+  /**
+   * Encode the value of a txt record. Values that are longer than 255 bytes are split into
+   * several character strings.
+   *
+   * @param value the record value
+   * @return the data
+   */
+  public static byte[] encodeTxt(final String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int pos = 0;
+    do {
+      final int length = Math.min(MAX_CHARACTER_STRING_LENGTH, bytes.length - pos);
+      out.write(length);
+      out.write(bytes, pos, length);
+      pos += length;
+    } while (pos < bytes.length);
+    return out.toByteArray();
+  }
+
+  /**
+   * Encode the value of a mx record with the format of samba-tool: {@code target preference}.
+   *
+   * @param value the record value
+   * @return the data or {@code null}, if the value is not valid
+   */
+  public static byte[] encodeMx(final String value) {
+    final String[] parts = WHITESPACE.split(value.trim());
+    final Integer preference = parts.length == 2 ? parseUnsigned(parts[1], 0xffff) : null;
+    if (preference == null) {
+      return null;
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeUnsignedShort(preference, out);
+    return writeCountName(parts[0], out) ? out.toByteArray() : null;
+  }
+
+  /**
+   * Encode the value of a srv record with the format of samba-tool: {@code target port priority
+   * weight}.
+   *
+   * @param value the record value
+   * @return the data or {@code null}, if the value is not valid
+   */
+  public static byte[] encodeSrv(final String value) {
+    final String[] parts = WHITESPACE.split(value.trim());
+    if (parts.length != 4) {
+      return null;
+    }
+    final Integer port = parseUnsigned(parts[1], 0xffff);
+    final Integer priority = parseUnsigned(parts[2], 0xffff);
+    final Integer weight = parseUnsigned(parts[3], 0xffff);
+    if (port == null || priority == null || weight == null) {
+      return null;
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeUnsignedShort(priority, out);
+    writeUnsignedShort(weight, out);
+    writeUnsignedShort(port, out);
+    return writeCountName(parts[0], out) ? out.toByteArray() : null;
+  }
+
+  private static boolean writeCountName(final String name, final ByteArrayOutputStream out) {
+    final String fqdn = name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+    final String[] labels = fqdn.length() > 0
+        ? fqdn.split(Pattern.quote("."), -1)
+        : new String[0];
+    final ByteArrayOutputStream rawName = new ByteArrayOutputStream();
+    for (final String label : labels) {
+      final byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length == 0 || bytes.length > MAX_LABEL_LENGTH) {
+        return false;
+      }
+      rawName.write(bytes.length);
+      rawName.write(bytes, 0, bytes.length);
+    }
+    rawName.write(0);
+    if (rawName.size() > MAX_NAME_LENGTH) {
+      return false;
+    }
+    out.write(rawName.size());
+    out.write(labels.length);
+    out.write(rawName.toByteArray(), 0, rawName.size());
+    return true;
+  }
+
+  private static void writeUnsignedShort(final int value, final ByteArrayOutputStream out) {
+    out.write((value >>> 8) & 0xff);
+    out.write(value & 0xff);
+  }
+
+  private static Integer parseUnsigned(final String value, final int max) {
+    if (value.length() == 0 || value.length() > 5) {
+      return null;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (!Character.isDigit(value.charAt(i))) {
+        return null;
+      }
+    }
+    final int result = Integer.parseInt(value);
+    return result <= max ? result : null;
+  }
+
+  private static String toIp6String(final int[] groups) {
+    // find the longest run of zero groups (at least two) that will be compressed
+    int bestStart = -1;
+    int bestLength = 1;
+    for (int i = 0; i < groups.length; i++) {
+      int j = i;
+      while (j < groups.length && groups[j] == 0) {
+        j++;
+      }
+      if (j - i > bestLength) {
+        bestStart = i;
+        bestLength = j - i;
+      }
+      i = j;
+    }
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < groups.length; i++) {
+      if (i == bestStart) {
+        sb.append("::");
+        i += bestLength - 1;
+      } else {
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+          sb.append(':');
         }
+        sb.append(Integer.toHexString(groups[i]));
+      }
+    }
+    return sb.toString();
+  }
 
-      } catch (IOException e) {
-        log.error("Parsing PTR record value failed.", e);
+  /**
+   * Parse a dns count name.
+   *
+   * @param data the data
+   * @param offset the offset of the count name in the data
+   * @return the name (e. g. {@code pluto.eixe.bremersee.org}) or {@code null}, if the data is not
+   *     a valid count name
+   */
+  static String parseCountName(final byte[] data, final int offset) {
+    return data != null ? parseCountName(ByteBuffer.wrap(data), offset) : null;
+  }
+
+  /**
+   * Parse a dns count name.
+   *
+   * @param data the data
+   * @param offset the absolute offset of the count name in the data
+   * @return the name (e. g. {@code pluto.eixe.bremersee.org}) or {@code null}, if the data is not
+   *     a valid count name
+   */
+  static String parseCountName(final ByteBuffer data, final int offset) {
+    final int limit = data.limit();
+    if (offset + 1 >= limit) {
+      return null;
+    }
+    final int labelCount = data.get(offset + 1) & 0xff;
+    final StringBuilder name = new StringBuilder();
+    int pos = offset + 2;
+    for (int i = 0; i < labelCount; i++) {
+      if (pos >= limit) {
+        return null;
+      }
+      final int labelLength = data.get(pos++) & 0xff;
+      if (labelLength == 0) {
+        break;
+      }
+      if (pos + labelLength > limit) {
+        return null;
+      }
+      if (name.length() > 0) {
+        name.append('.');
       }
+      name.append(toString(data, pos, labelLength));
+      pos += labelLength;
     }
-    return dnsRecord;
+    return name.toString();
+  }
+
+  /**
+   * Decodes the utf-8 string at the given absolute position.
+   *
+   * @param data the data
+   * @param pos the absolute position
+   * @param length the length
+   * @return the string
+   */
+  static String toString(final ByteBuffer data, final int pos, final int length) {
+    if (data.hasArray()) {
+      return new String(data.array(), data.arrayOffset() + pos, length, StandardCharsets.UTF_8);
+    }
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = data.get(pos + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Encodes the remaining bytes of the data as upper case hex string.
+   *
+   * @param data the data
+   * @return the hex string
+   */
+  public static String toHex(final ByteBuffer data) {
+    final StringBuilder sb = new StringBuilder(data.remaining() * 2);
+    for (int i = data.position(); i < data.limit(); i++) {
+      final int b = data.get(i) & 0xff;
+      sb.append(HEX_CHARS[b >>> 4]).append(HEX_CHARS[b & 0x0f]);
+    }
+    return sb.toString();
   }
 }
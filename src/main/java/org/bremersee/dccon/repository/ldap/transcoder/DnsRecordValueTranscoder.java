@@ -16,94 +16,160 @@
 
 package org.bremersee.dccon.repository.ldap.transcoder;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
-import java.time.Duration;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.TimeZone;
-import lombok.extern.slf4j.Slf4j;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.repository.DnsRecordType;
-import org.bremersee.exception.ServiceException;
 import org.ldaptive.io.AbstractBinaryValueTranscoder;
 
 /**
  * The dns record value transcoder.
  *
+ * <p>The header of the dns record value has 24 bytes (all values are little endian except the
+ * ttl):
+ * <pre>
+ * data length (2), type (2), version (1), rank (1), flags (2), serial (4), ttl (4, big endian),
+ * reserved (4), time stamp (4, hours since 1601-01-01)
+ * </pre>
+ *
  * @author Christian Bremer
  */
-@Slf4j
 public class DnsRecordValueTranscoder extends AbstractBinaryValueTranscoder<DnsRecord> {
 
-  private static final long ACTIVE_DIRECTORY_START_TIME;
+  private static final int HEADER_LENGTH = 24;
 
-  static {
-    final GregorianCalendar cal = new GregorianCalendar();
-    cal.setTimeZone(TimeZone.getTimeZone("GMT"));
-    cal.set(1601, Calendar.JANUARY, 1, 0, 0, 0);
-    cal.set(Calendar.MILLISECOND, 0);
-    ACTIVE_DIRECTORY_START_TIME = cal.getTimeInMillis();
-  }
+  /**
+   * The start time of active directory (1601-01-01T00:00:00Z) in milliseconds since the epoch.
+   */
+  private static final long ACTIVE_DIRECTORY_START_TIME = -11644473600000L;
+
+  private static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+
+  private static final int DEFAULT_VERSION = 5;
+
+  /**
+   * The rank of records that are authoritative for the zone (DNS_RANK_ZONE).
+   */
+  private static final int DEFAULT_RANK = 0xF0;
+
+  private static final int DEFAULT_TTL_SECONDS = 900;
 
   @Override
   public DnsRecord decodeBinaryValue(final byte[] value) {
-    if (value == null || value.length < 24) {
+    if (value == null || value.length < HEADER_LENGTH) {
       return null;
     }
-    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(value))) {
-      int dataLength = Short.reverseBytes((short) dis.readUnsignedShort()); // 2 bytes
-      int type = Short.reverseBytes((short) dis.readUnsignedShort());       // 2 bytes
-      int version = dis.readUnsignedByte();                                 // 1 byte
-      int rank = dis.readUnsignedByte();                                    // 1 byte
-      int flags = Short.reverseBytes((short) dis.readUnsignedShort());      // 2 bytes
-      int serial = Integer.reverseBytes(dis.readInt());                     // 4 bytes
-      int ttlSeconds = dis.readInt();                                       // 4 bytes
-      int reserved = Integer.reverseBytes(dis.readInt());                   // 4 bytes
-      int timeStamp = Integer.reverseBytes(dis.readInt());                  // 4 bytes
-      byte[] data = value.length > 24
-          ? Arrays.copyOfRange(value, 24, value.length)
-          : new byte[0];
-
-      long timeStampMillis = ACTIVE_DIRECTORY_START_TIME + Duration.ofHours(timeStamp).toMillis();
-      OffsetDateTime dateTime = OffsetDateTime.ofInstant(
-          new Date(timeStampMillis).toInstant(),
-          ZoneOffset.UTC);
-      DnsRecordType typeMapping = DnsRecordType.fromValue(type);
-
-      log.debug("msg=[DNS record value decoded.] dataLength=[{}] type=[{}] version=[{}] "
-              + "rank=[{}] flags=[{}] serial=[{}] ttlSeconds=[{}] reserved=[{}] timeStamp=[{}] "
-              + "data(size)=[{}]", dataLength, typeMapping.name(), version, rank, flags, serial,
-          ttlSeconds, reserved, dateTime, data.length);
-
-      final DnsRecord dnsRecord = new DnsRecord();
-      dnsRecord.setRecordRawValue(value);
-      dnsRecord.setRecordType(typeMapping.name());
-      dnsRecord.setSerial(serial);
-      dnsRecord.setTimeStamp(dateTime);
-      dnsRecord.setTtlSeconds(ttlSeconds);
-      dnsRecord.setVersion(version);
-
-      return typeMapping.mapData(data, () -> dnsRecord);
-
-    } catch (final IOException e) {
-
-      final ServiceException se = ServiceException.internalServerError(
-          "Decoding dns record value failed.",
-          "org.bremersee:dc-con-app:d62e15c8-5410-4608-b663-20a716908102", e);
-      log.error("msg=[Decoding dns record value failed.]", se);
-      throw se;
-    }
+    final ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+    final int type = buffer.getShort(2) & 0xffff;
+    final int version = buffer.get(4) & 0xff;
+    final int serial = buffer.getInt(8);
+    final int ttlSeconds = Integer.reverseBytes(buffer.getInt(12));
+    final long timeStamp = buffer.getInt(20) & 0xffffffffL;
+
+    final DnsRecord dnsRecord = new DnsRecord();
+    dnsRecord.setRecordRawValue(value);
+    dnsRecord.setRecordType(DnsRecordType.fromValue(type).name());
+    dnsRecord.setSerial(serial);
+    dnsRecord.setTimeStamp(OffsetDateTime.ofInstant(
+        Instant.ofEpochMilli(ACTIVE_DIRECTORY_START_TIME + timeStamp * MILLIS_PER_HOUR),
+        ZoneOffset.UTC));
+    dnsRecord.setTtlSeconds(ttlSeconds);
+    dnsRecord.setVersion(version);
+
+    buffer.position(HEADER_LENGTH);
+    return DnsRecordType.fromValue(type).mapData(buffer.slice(), () -> dnsRecord);
   }
 
+  /**
+   * Encode dns record. If the dns record has a raw value, the raw value will be returned. Otherwise
+   * the record value will be encoded, if the record type supports it (see {@link
+   * DnsRecordType#encodeData(String)}).
+   *
+   * @param value the dns record
+   * @return the binary value or {@code null}, if the dns record cannot be encoded
+   */
   @Override
   public byte[] encodeBinaryValue(final DnsRecord value) {
-    return value.getRecordRawValue();
+    if (value.getRecordRawValue() != null) {
+      return value.getRecordRawValue();
+    }
+    return encodeBinaryValue(value, value.getSerial() != null ? value.getSerial() : 1);
+  }
+
+  /**
+   * Encode the record value of the dns record (a raw value of the dns record is ignored).
+   *
+   * @param value the dns record
+   * @param serial the serial of the dns zone
+   * @return the binary value or {@code null}, if the dns record cannot be encoded
+   */
+  public byte[] encodeBinaryValue(final DnsRecord value, final int serial) {
+    final DnsRecordType type = DnsRecordType.fromValue(value.getRecordType());
+    final byte[] data = type.encodeData(value.getRecordValue());
+    if (data == null || data.length > 0xffff) {
+      return null;
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + data.length)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putShort((short) data.length);
+    buffer.putShort((short) type.getValue());
+    buffer.put((byte) DEFAULT_VERSION);
+    buffer.put((byte) DEFAULT_RANK);
+    buffer.putShort((short) 0); // flags
+    buffer.putInt(serial);
+    buffer.putInt(Integer.reverseBytes(
+        value.getTtlSeconds() != null ? value.getTtlSeconds() : DEFAULT_TTL_SECONDS));
+    buffer.putInt(0); // reserved
+    buffer.putInt(0); // time stamp of a static record
+    buffer.put(data);
+    return buffer.array();
+  }
+
+  /**
+   * Returns a copy of the binary value with the given serial.
+   *
+   * @param value the binary value of a dns record
+   * @param serial the serial of the dns zone
+   * @return the copy with the serial
+   */
+  public static byte[] withSerial(final byte[] value, final int serial) {
+    final byte[] copy = value.clone();
+    ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(8, serial);
+    return copy;
+  }
+
+  /**
+   * Determines whether the dns record is the tombstone record (type 0), that samba writes, when
+   * the last record of a dns node is deleted by a dynamic update or by scavenging.
+   *
+   * @param value the dns record
+   * @return {@code true} if the dns record is a tombstone record, otherwise {@code false}
+   */
+  public static boolean isTombstone(final DnsRecord value) {
+    final byte[] raw = value != null ? value.getRecordRawValue() : null;
+    return raw != null && raw.length >= HEADER_LENGTH && raw[2] == 0 && raw[3] == 0;
+  }
+
+  /**
+   * Decodes the serial of the dns zone from the SOA record of the zone's root node ({@code @}).
+   * The serial is the first field of the SOA data (4 bytes, big endian).
+   *
+   * @param soaRecord the SOA record
+   * @return the serial or {@code null}, if the record isn't a SOA record with raw value
+   */
+  public static Integer decodeSoaSerial(final DnsRecord soaRecord) {
+    if (soaRecord == null
+        || !DnsRecordType.SOA.is(soaRecord.getRecordType())
+        || soaRecord.getRecordRawValue() == null
+        || soaRecord.getRecordRawValue().length < HEADER_LENGTH + 4) {
+      return null;
+    }
+    return ByteBuffer.wrap(soaRecord.getRecordRawValue())
+        .order(ByteOrder.BIG_ENDIAN)
+        .getInt(HEADER_LENGTH);
   }
 
   @Override
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bremersee.dccon.model.DnsNode;
+
+/**
+ * The result of saving one dns node of several dns nodes.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DnsNodeSaveResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The status of a saved dns node.
+   */
+  public enum Status {
+
+    /**
+     * The dns node was created.
+     */
+    CREATED,
+
+    /**
+     * The records of the dns node were changed.
+     */
+    UPDATED,
+
+    /**
+     * The dns node was deleted, because it has no records any more.
+     */
+    DELETED,
+
+    /**
+     * Nothing has changed.
+     */
+    UNCHANGED,
+
+    /**
+     * Saving the dns node failed, see the message.
+     */
+    FAILED
+  }
+
+  private String name;
+
+  private Status status;
+
+  private DnsNode node;
+
+  private String message;
+
+  /**
+   * Gets the status of a saved dns node.
+   *
+   * @param existingDnsNode the dns node before it was saved (can be {@code null})
+   * @param dnsNode the dns node, that was saved
+   * @return the status
+   */
+  public static Status getStatus(final DnsNode existingDnsNode, final DnsNode dnsNode) {
+    if (existingDnsNode == null) {
+      return dnsNode.getRecords().isEmpty() ? Status.UNCHANGED : Status.CREATED;
+    }
+    if (dnsNode.getRecords().isEmpty()) {
+      return Status.DELETED;
+    }
+    return existingDnsNode.getRecords().equals(dnsNode.getRecords())
+        ? Status.UNCHANGED
+        : Status.UPDATED;
+  }
+
+  /**
+   * Creates a failed result.
+   *
+   * @param name the name of the dns node
+   * @param message the message
+   * @return the result
+   */
+  public static DnsNodeSaveResult failed(final String name, final String message) {
+    return DnsNodeSaveResult.builder()
+        .name(name)
+        .status(Status.FAILED)
+        .message(message)
+        .build();
+  }
+
+}
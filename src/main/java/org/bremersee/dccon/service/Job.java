@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The state of a long running job, like deleting a dns zone.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Job implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The status of a job.
+   */
+  public enum Status {
+
+    /**
+     * The job is waiting for execution.
+     */
+    QUEUED,
+
+    /**
+     * The job is running.
+     */
+    RUNNING,
+
+    /**
+     * The job was successful, see the result.
+     */
+    SUCCEEDED,
+
+    /**
+     * The job failed, see the message.
+     */
+    FAILED
+  }
+
+  private String id;
+
+  private String type;
+
+  private Status status;
+
+  private long total;
+
+  private long done;
+
+  private Object result;
+
+  private String message;
+
+  private OffsetDateTime created;
+
+  private OffsetDateTime started;
+
+  private OffsetDateTime finished;
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+/**
+ * The progress counters of a running job.
+ *
+ * @author Christian Bremer
+ */
+public interface JobProgress {
+
+  /**
+   * Sets the total number of steps.
+   *
+   * @param total the total number of steps
+   */
+  void setTotal(long total);
+
+  /**
+   * Adds done steps.
+   *
+   * @param steps the done steps
+   */
+  void addDone(long steps);
+
+}
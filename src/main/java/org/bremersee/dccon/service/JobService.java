@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+import java.util.Optional;
+import java.util.function.Function;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * The job service runs long running operations in the background. The caller gets the id of the
+ * job and polls its state. Finished jobs are kept for {@code jobTimeToLive}.
+ *
+ * @author Christian Bremer
+ */
+@Validated
+public interface JobService {
+
+  /**
+   * Submits a job.
+   *
+   * @param type the type of the job (e. g. {@code DELETE_DNS_ZONE})
+   * @param work the work, it gets the progress counters and returns the result
+   * @return the queued job
+   */
+  Job submit(@NotNull String type, @NotNull Function<JobProgress, Object> work);
+
+  /**
+   * Gets a job.
+   *
+   * @param id the id of the job
+   * @return the job
+   */
+  Optional<Job> getJob(@NotNull String id);
+
+}
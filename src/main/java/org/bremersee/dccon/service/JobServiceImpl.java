@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The job service runs the jobs on a bounded executor and keeps them in memory.
+ *
+ * @author Christian Bremer
+ */
+@Component("jobService")
+@Slf4j
+public class JobServiceImpl implements JobService {
+
+  private final Map<String, Entry> jobs = new ConcurrentHashMap<>();
+
+  private final AtomicInteger threadNumber = new AtomicInteger();
+
+  private final ThreadPoolExecutor executor;
+
+  private final Duration timeToLive;
+
+  /**
+   * Instantiates a new job service.
+   *
+   * @param properties the properties
+   */
+  public JobServiceImpl(final DomainControllerProperties properties) {
+    final int concurrency = Math.max(1, properties.getJobConcurrency());
+    this.executor = new ThreadPoolExecutor(
+        concurrency,
+        concurrency,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(Math.max(1, properties.getJobQueueCapacity())),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "job-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.timeToLive = properties.getJobTimeToLive();
+  }
+
+  /**
+   * Shuts the executor down, running jobs are interrupted.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public Job submit(final String type, final Function<JobProgress, Object> work) {
+    final Entry entry = new Entry(UUID.randomUUID().toString(), type);
+    jobs.put(entry.id, entry);
+    try {
+      executor.execute(() -> run(entry, work));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(entry.id);
+      log.warn("msg=[Job rejected.] type=[{}]", type);
+      throw ServiceException.builder()
+          .httpStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+          .reason("Too many jobs are waiting for execution.")
+          .errorCode("org.bremersee:dc-con-app:9d4f6a1e-2c83-4b57-8e0a-6f3b7c1d2e94")
+          .build();
+    }
+    log.info("msg=[Job submitted.] id=[{}] type=[{}]", entry.id, type);
+    return entry.toJob();
+  }
+
+  private void run(final Entry entry, final Function<JobProgress, Object> work) {
+    entry.started = OffsetDateTime.now();
+    entry.status = Job.Status.RUNNING;
+    try {
+      entry.result = work.apply(entry);
+      entry.finished = OffsetDateTime.now();
+      entry.status = Job.Status.SUCCEEDED;
+      log.info("msg=[Job succeeded.] id=[{}] type=[{}]", entry.id, entry.type);
+
+    } catch (Throwable t) {
+      // Errors (like a stack overflow of a deep recursion) must fail the job, too. Otherwise it
+      // would stay running until it's evicted, what never happens without finish time.
+      log.error("msg=[Job failed.] id=[{}] type=[{}]", entry.id, entry.type, t);
+      entry.message = t.getMessage() != null ? t.getMessage() : t.getClass().getName();
+      entry.finished = OffsetDateTime.now();
+      entry.status = Job.Status.FAILED;
+      if (t instanceof Error) {
+        throw (Error) t;
+      }
+    }
+  }
+
+  @Override
+  public Optional<Job> getJob(final String id) {
+    return Optional.ofNullable(jobs.get(id)).map(Entry::toJob);
+  }
+
+  /**
+   * Removes the finished jobs, that are older than the time to live.
+   */
+  @Scheduled(fixedDelayString = "${bremersee.domain-controller.job-eviction-interval"
+      + ":60000}", initialDelay = 60000L)
+  public void evictJobs() {
+    final OffsetDateTime expired = OffsetDateTime.now().minus(timeToLive);
+    jobs.values().removeIf(entry -> entry.finished != null && entry.finished.isBefore(expired));
+  }
+
+  /**
+   * The job entry is updated by the thread, that runs the job.
+   */
+  private static class Entry implements JobProgress {
+
+    private final String id;
+
+    private final String type;
+
+    private final OffsetDateTime created = OffsetDateTime.now();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong done = new AtomicLong();
+
+    private volatile Job.Status status = Job.Status.QUEUED;
+
+    private volatile Object result;
+
+    private volatile String message;
+
+    private volatile OffsetDateTime started;
+
+    private volatile OffsetDateTime finished;
+
+    private Entry(final String id, final String type) {
+      this.id = id;
+      this.type = type;
+    }
+
+    @Override
+    public void setTotal(final long total) {
+      this.total.set(total);
+    }
+
+    @Override
+    public void addDone(final long steps) {
+      this.done.addAndGet(steps);
+    }
+
+    private Job toJob() {
+      return Job.builder()
+          .id(id)
+          .type(type)
+          .status(status)
+          .total(total.get())
+          .done(done.get())
+          .result(result)
+          .message(message)
+          .created(created)
+          .started(started)
+          .finished(finished)
+          .build();
+    }
+  }
+
+}
@@ -77,6 +77,39 @@ public interface NameServerService {
    */
   Boolean deleteDnsZone(@NotNull String zoneName);
 
+  /**
+   * Add dns zone in the background.
+   *
+   * @param dnsZone the dns zone
+   * @return the job, its result is the added dns zone
+   */
+  Job addDnsZoneAsync(@NotNull @Valid DnsZone dnsZone);
+
+  /**
+   * Delete dns zone in the background.
+   *
+   * @param zoneName the zone name
+   * @return the job, its result is {@code true} if the dns zone was removed
+   */
+  Job deleteDnsZoneAsync(@NotNull String zoneName);
+
+  /**
+   * Delete dns nodes in the background.
+   *
+   * @param zoneName the zone name
+   * @param nodeNames the node names, if it is empty, all dns nodes will be deleted
+   * @return the job, its result is the number of the processed dns nodes
+   */
+  Job deleteAllDnsNodesAsync(@NotNull String zoneName, @Nullable List<String> nodeNames);
+
+  /**
+   * Gets a job.
+   *
+   * @param jobId the job id
+   * @return the job
+   */
+  Optional<Job> getJob(@NotNull String jobId);
+
 
   /**
    * Gets dns nodes.
@@ -86,10 +119,32 @@ public interface NameServerService {
    * @param query the query
    * @return the dns nodes
    */
+  default List<DnsNode> getDnsNodes(
+      @NotNull String zoneName,
+      @Nullable UnknownFilter unknownFilter,
+      @Nullable String query) {
+    return getDnsNodes(zoneName, unknownFilter, query, null, null);
+  }
+
+  /**
+   * Gets dns nodes. Listings, that only need the names and the records, should switch off the
+   * correlation values and the dhcp leases, because looking them up is expensive.
+   *
+   * @param zoneName the zone name
+   * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
+   * @param query the query
+   * @param withCorrelation specifies whether the correlated records (A to PTR and PTR to A)
+   *     should be inserted or not (default is {@code true})
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not (default is
+   *     {@code true})
+   * @return the dns nodes
+   */
   List<DnsNode> getDnsNodes(
       @NotNull String zoneName,
       @Nullable UnknownFilter unknownFilter,
-      @Nullable String query);
+      @Nullable String query,
+      @Nullable Boolean withCorrelation,
+      @Nullable Boolean withDhcp);
 
   /**
    * Save dns node.
@@ -102,6 +157,18 @@ public interface NameServerService {
       @NotNull String zoneName,
       @NotNull @Valid DnsNode dnsNode);
 
+  /**
+   * Save several dns nodes of a dns zone. A failure of one dns node doesn't stop the others.
+   * The dns nodes are validated one by one, so an invalid dns node gets a failed result.
+   *
+   * @param zoneName the zone name
+   * @param dnsNodes the dns nodes
+   * @return the result of every dns node
+   */
+  List<DnsNodeSaveResult> saveAll(
+      @NotNull String zoneName,
+      @NotNull List<DnsNode> dnsNodes);
+
   /**
    * Get dns node.
    *
@@ -110,10 +177,31 @@ public interface NameServerService {
    * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
    * @return the dns node
    */
+  default Optional<DnsNode> getDnsNode(
+      @NotNull String zoneName,
+      @NotNull String nodeName,
+      @Nullable UnknownFilter unknownFilter) {
+    return getDnsNode(zoneName, nodeName, unknownFilter, null, null);
+  }
+
+  /**
+   * Get dns node.
+   *
+   * @param zoneName the zone name
+   * @param nodeName the node name
+   * @param unknownFilter the unknown filter (default is {@link UnknownFilter#NO_UNKNOWN}
+   * @param withCorrelation specifies whether the correlated records (A to PTR and PTR to A)
+   *     should be inserted or not (default is {@code true})
+   * @param withDhcp specifies whether the dhcp leases should be inserted or not (default is
+   *     {@code true})
+   * @return the dns node
+   */
   Optional<DnsNode> getDnsNode(
       @NotNull String zoneName,
       @NotNull String nodeName,
-      @Nullable UnknownFilter unknownFilter);
+      @Nullable UnknownFilter unknownFilter,
+      @Nullable Boolean withCorrelation,
+      @Nullable Boolean withDhcp);
 
   /**
    * Delete dns node.
@@ -19,9 +19,12 @@ package org.bremersee.dccon.service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
@@ -49,6 +52,8 @@ import org.springframework.util.StringUtils;
 @Slf4j
 public class NameServerServiceImpl implements NameServerService {
 
+  private final DomainControllerProperties properties;
+
   private final DhcpRepository dhcpRepository;
 
   private final DnsZoneRepository dnsZoneRepository;
@@ -63,6 +68,8 @@ public class NameServerServiceImpl implements NameServerService {
 
   private final Pattern patternIp4;
 
+  private final JobService jobService;
+
   /**
    * Instantiates a new name server service.
    *
@@ -70,12 +77,15 @@ public class NameServerServiceImpl implements NameServerService {
    * @param dhcpRepository the dhcp repository
    * @param dnsZoneRepository the dns zone repository
    * @param dnsNodeRepository the dns node repository
+   * @param jobService the job service
    */
   public NameServerServiceImpl(
       final DomainControllerProperties properties,
       final DhcpRepository dhcpRepository,
       final DnsZoneRepository dnsZoneRepository,
-      final DnsNodeRepository dnsNodeRepository) {
+      final DnsNodeRepository dnsNodeRepository,
+      final JobService jobService) {
+    this.properties = properties;
     this.dhcpRepository = dhcpRepository;
     this.dnsZoneRepository = dnsZoneRepository;
     this.dnsNodeRepository = dnsNodeRepository;
@@ -85,6 +95,7 @@ public class NameServerServiceImpl implements NameServerService {
 
     this.patternMac = Pattern.compile(properties.getMacRegex());
     this.patternIp4 = Pattern.compile(properties.getIp4Regex());
+    this.jobService = jobService;
   }
 
   @Override
@@ -108,11 +119,8 @@ public class NameServerServiceImpl implements NameServerService {
   }
 
   private Optional<String> findIpByMac(String mac) {
-    final String normalizedMac = mac.replace("-", ":").trim();
-    return dhcpRepository.findActiveByIp().values().stream()
-        .filter(dhcpLease -> normalizedMac.equalsIgnoreCase(dhcpLease.getMac()))
-        .map(DhcpLease::getIp)
-        .findFirst();
+    return dhcpRepository.findActiveSnapshot().findByMac(mac)
+        .map(DhcpLease::getIp);
   }
 
   @Override
@@ -151,16 +159,80 @@ public class NameServerServiceImpl implements NameServerService {
     return success;
   }
 
+  @Override
+  public Job addDnsZoneAsync(final DnsZone dnsZone) {
+    return jobService.submit("ADD_DNS_ZONE", progress -> {
+      progress.setTotal(1L);
+      final DnsZone result = addDnsZone(dnsZone);
+      progress.addDone(1L);
+      return result;
+    });
+  }
+
+  @Override
+  public Job deleteDnsZoneAsync(final String zoneName) {
+    return jobService.submit("DELETE_DNS_ZONE", progress -> {
+      progress.setTotal(1L);
+      final Boolean result = deleteDnsZone(zoneName);
+      progress.addDone(1L);
+      return result;
+    });
+  }
+
+  @Override
+  public Job deleteAllDnsNodesAsync(final String zoneName, final List<String> nodeNames) {
+    if (!dnsZoneRepository.exists(zoneName)) {
+      throw ServiceException.notFoundWithErrorCode(
+          DnsZone.class.getSimpleName(),
+          zoneName,
+          "org.bremersee:dc-con-app:5c2e9b7a-61d4-4f08-a3e5-0b8d7f4c1a26");
+    }
+    return jobService.submit("DELETE_DNS_NODES", progress -> {
+      final AtomicLong done = new AtomicLong();
+      final LongConsumer onDeleted = steps -> {
+        done.addAndGet(steps);
+        progress.addDone(steps);
+      };
+      if (nodeNames == null || nodeNames.isEmpty()) {
+        // The number of nodes is unknown until the zone has been searched, so the total
+        // is set when the repository is done.
+        dnsNodeRepository.deleteAll(zoneName, onDeleted);
+      } else {
+        final Set<String> names = new LinkedHashSet<>(nodeNames);
+        progress.setTotal(names.size());
+        dnsNodeRepository.deleteAll(zoneName, names, onDeleted);
+      }
+      progress.setTotal(done.get());
+      return done.get();
+    });
+  }
+
+  @Override
+  public Optional<Job> getJob(final String jobId) {
+    return jobService.getJob(jobId);
+  }
+
 
   @Override
-  public List<DnsNode> getDnsNodes(String zoneName, UnknownFilter unknownFilter, String query) {
+  public List<DnsNode> getDnsNodes(
+      String zoneName,
+      UnknownFilter unknownFilter,
+      String query,
+      Boolean withCorrelation,
+      Boolean withDhcp) {
     if (!dnsZoneRepository.exists(zoneName)) {
       throw ServiceException.notFoundWithErrorCode(
           DnsZone.class.getSimpleName(),
           zoneName,
           "org.bremersee:dc-con-app:e7466445-059f-4089-b69a-89bf08a9af1c");
     }
-    return dnsNodeRepository.findAll(zoneName, unknownFilter, query)
+    return dnsNodeRepository
+        .findAll(
+            zoneName,
+            unknownFilter,
+            query,
+            !Boolean.FALSE.equals(withCorrelation),
+            !Boolean.FALSE.equals(withDhcp))
         .sorted(dnsNodeComparator)
         .collect(Collectors.toList());
   }
@@ -173,18 +245,33 @@ public class NameServerServiceImpl implements NameServerService {
     return dnsNodeRepository.save(zoneName, dnsNode);
   }
 
+  @Override
+  public List<DnsNodeSaveResult> saveAll(String zoneName, List<DnsNode> dnsNodes) {
+    if (!dnsZoneRepository.exists(zoneName)) {
+      throw ServiceException.notFound(DnsZone.class.getSimpleName(), zoneName);
+    }
+    return dnsNodeRepository.saveAll(zoneName, dnsNodes);
+  }
+
   @Override
   public Optional<DnsNode> getDnsNode(
       String zoneName,
       String nodeName,
-      UnknownFilter unknownFilter) {
+      UnknownFilter unknownFilter,
+      Boolean withCorrelation,
+      Boolean withDhcp) {
     if (!dnsZoneRepository.exists(zoneName)) {
       throw ServiceException.notFoundWithErrorCode(
           DnsZone.class.getSimpleName(),
           zoneName,
           "org.bremersee:dc-con-app:97333c5a-b7e7-46a4-9034-055675d4a604");
     }
-    return dnsNodeRepository.findOne(zoneName, nodeName, unknownFilter);
+    return dnsNodeRepository.findOne(
+        zoneName,
+        nodeName,
+        unknownFilter,
+        !Boolean.FALSE.equals(withCorrelation),
+        !Boolean.FALSE.equals(withDhcp));
   }
 
   @Override
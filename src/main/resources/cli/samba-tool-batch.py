@@ -0,0 +1,68 @@
+#!/usr/bin/env python3
+#
+# Copyright 2019 the original author or authors.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+"""Runs several samba-tool commands in one python interpreter.
+
+Every line of stdin is one samba-tool command without the leading 'samba-tool',
+the arguments are separated by tabs, e. g.
+
+    dns<TAB>add<TAB>ns.example.org<TAB>example.org<TAB>pluto<TAB>A<TAB>192.168.1.123<TAB>-k<TAB>yes
+
+For every command the line 'samba-tool-batch:<index>:<return code>' is written
+to stdout.
+"""
+
+import sys
+
+try:
+    # samba >= 4.19
+    from samba.netcmd.main import samba_tool
+except ImportError:
+    samba_tool = None
+from samba.netcmd.main import cmd_sambatool
+
+RESULT_PREFIX = "samba-tool-batch"
+
+
+def run(args):
+    try:
+        if samba_tool is not None:
+            retval = samba_tool(*args)
+        else:
+            retval = cmd_sambatool()._run("samba-tool", *args)
+    except SystemExit as e:
+        retval = e.code
+    except Exception as e:
+        sys.stderr.write("%s\n" % e)
+        retval = 1
+    return 0 if retval is None else retval
+
+
+def main():
+    index = 0
+    for line in sys.stdin:
+        line = line.rstrip("\r\n")
+        if not line:
+            continue
+        retval = run(line.split("\t"))
+        sys.stdout.write("%s:%d:%s\n" % (RESULT_PREFIX, index, retval))
+        sys.stdout.flush()
+        index += 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,93 @@
+#!/usr/bin/env python3
+#
+# Copyright 2019 the original author or authors.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+"""A long-lived samba-tool worker.
+
+Samba's python modules are loaded once, then the worker reads requests from
+stdin and writes responses to stdout. Every request and every response is one
+line of json:
+
+    {"id": 1, "args": ["dns", "add", "ns.example.org", "example.org", ...]}
+    {"id": 1, "rc": 0, "stdout": "Record added successfully\\n", "stderr": ""}
+
+    {"id": 2, "op": "ping"}
+    {"id": 2, "rc": 0, "stdout": "pong", "stderr": ""}
+
+The worker exits, when stdin is closed.
+"""
+
+import io
+import json
+import sys
+
+from samba.netcmd.main import cmd_sambatool
+
+
+def run(args, outf, errf):
+    try:
+        tool = cmd_sambatool(outf=outf, errf=errf)
+        if hasattr(tool, "_resolve"):
+            # samba >= 4.19
+            cmd, argv = tool._resolve("samba-tool", *args, outf=outf, errf=errf)
+            retval = cmd._run(*argv)
+        else:
+            retval = tool._run("samba-tool", *args)
+    except SystemExit as e:
+        retval = e.code
+    except Exception as e:
+        errf.write("%s\n" % e)
+        retval = 1
+    if retval is None:
+        return 0
+    return retval if isinstance(retval, int) else 1
+
+
+def handle(request):
+    if request.get("op") == "ping":
+        return {"rc": 0, "stdout": "pong", "stderr": ""}
+    outf = io.StringIO()
+    errf = io.StringIO()
+    # samba may write to sys.stdout directly, which is the channel of the responses
+    real_stdout, real_stderr = sys.stdout, sys.stderr
+    sys.stdout, sys.stderr = outf, errf
+    try:
+        retval = run(request.get("args") or [], outf, errf)
+    finally:
+        sys.stdout, sys.stderr = real_stdout, real_stderr
+    return {"rc": retval, "stdout": outf.getvalue(), "stderr": errf.getvalue()}
+
+
+def main():
+    out = sys.stdout
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            request = json.loads(line)
+        except ValueError as e:
+            out.write(json.dumps({"id": None, "rc": 2, "stdout": "", "stderr": str(e)}) + "\n")
+            out.flush()
+            continue
+        response = handle(request)
+        response["id"] = request.get("id")
+        out.write(json.dumps(response) + "\n")
+        out.flush()
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
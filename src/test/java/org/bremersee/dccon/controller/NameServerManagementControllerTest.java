@@ -5,13 +5,17 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DhcpLease;
 import org.bremersee.dccon.model.DnsNode;
 import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.DnsZone;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
+import org.bremersee.dccon.service.Job;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -147,6 +151,29 @@ class NameServerManagementControllerTest {
     assertTrue(actual.length > 0);
   }
 
+  @Test
+  void getDnsNodesWithoutCorrelationAndDhcp() {
+    ResponseEntity<DnsNode[]> response = restTemplate
+        .withBasicAuth(user, pass)
+        .getForEntity("/api/dns/zones/{zoneName}?withCorrelation=false&withDhcp=false",
+            DnsNode[].class,
+            properties.getDefaultZone());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    DnsNode[] actual = response.getBody();
+    assertNotNull(actual);
+    assertTrue(actual.length > 0);
+
+    response = restTemplate
+        .withBasicAuth(user, pass)
+        .getForEntity("/api/dns/zones/{zoneName}?withDhcp=false",
+            DnsNode[].class,
+            properties.getDefaultZone());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    actual = response.getBody();
+    assertNotNull(actual);
+    assertTrue(actual.length > 0);
+  }
+
   @Test
   void saveDnsNodeAndDelete() {
     DnsNode expected = DnsNode.builder()
@@ -222,6 +249,59 @@ class NameServerManagementControllerTest {
     actual = response.getBody();
     assertNotNull(actual);
     assertEquals(expected.getName(), actual.getName());
+
+    response = restTemplate
+        .withBasicAuth(user, pass)
+        .getForEntity("/api/dns/zones/{zoneName}/{nodeName}?withCorrelation=false",
+            DnsNode.class,
+            properties.getDefaultZone(),
+            expected.getName());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    actual = response.getBody();
+    assertNotNull(actual);
+    assertEquals(expected.getName(), actual.getName());
+
+    response = restTemplate
+        .withBasicAuth(user, pass)
+        .getForEntity("/api/dns/zones/{zoneName}/{nodeName}?withDhcp=false",
+            DnsNode.class,
+            properties.getDefaultZone(),
+            expected.getName());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    actual = response.getBody();
+    assertNotNull(actual);
+    assertEquals(expected.getName(), actual.getName());
+  }
+
+  @Test
+  void saveDnsNodes() {
+    List<DnsNode> dnsNodes = Arrays.asList(
+        DnsNode.builder()
+            .name("newtestnode1")
+            .records(Collections.singleton(DnsRecord.builder()
+                .recordType("A")
+                .recordValue("192.168.1.253").build()))
+            .build(),
+        DnsNode.builder()
+            .name("newtestnode2")
+            .records(Collections.singleton(DnsRecord.builder()
+                .recordType("A")
+                .recordValue("192.168.1.254").build()))
+            .build());
+    ResponseEntity<DnsNodeSaveResult[]> response = restTemplate
+        .withBasicAuth(user, pass)
+        .postForEntity("/api/dns/zones/{zoneName}/nodes/bulk",
+            dnsNodes,
+            DnsNodeSaveResult[].class,
+            properties.getDefaultZone());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    DnsNodeSaveResult[] actual = response.getBody();
+    assertNotNull(actual);
+    assertEquals(2, actual.length);
+    assertEquals("newtestnode1", actual[0].getName());
+    assertEquals(DnsNodeSaveResult.Status.CREATED, actual[0].getStatus());
+    assertEquals("newtestnode2", actual[1].getName());
+    assertEquals(DnsNodeSaveResult.Status.CREATED, actual[1].getStatus());
   }
 
   @Test
@@ -235,4 +315,31 @@ class NameServerManagementControllerTest {
             properties.getDefaultZone());
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
-}
\ No newline at end of file
+
+  @Test
+  void deleteAllDnsNodesAsync() throws Exception {
+    ResponseEntity<Job> response = restTemplate
+        .withBasicAuth(user, pass)
+        .exchange("/api/dns/jobs/zones/{zoneName}/nodes",
+            HttpMethod.DELETE,
+            null,
+            Job.class,
+            properties.getDefaultZone());
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    Job job = response.getBody();
+    assertNotNull(job);
+    assertNotNull(job.getId());
+
+    for (int i = 0; i < 100 && job.getFinished() == null; i++) {
+      Thread.sleep(50L);
+      response = restTemplate
+          .withBasicAuth(user, pass)
+          .getForEntity("/api/dns/jobs/{jobId}", Job.class, job.getId());
+      assertEquals(HttpStatus.OK, response.getStatusCode());
+      job = response.getBody();
+      assertNotNull(job);
+    }
+    assertEquals(Job.Status.SUCCEEDED, job.getStatus());
+    assertEquals(job.getTotal(), job.getDone());
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.bremersee.dccon.model.DhcpLease;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dhcp lease cache test.
+ *
+ * @author Christian Bremer
+ */
+class DhcpLeaseCacheTest {
+
+  private static final DhcpLease LEASE = DhcpLease.builder()
+      .ip("192.168.1.109")
+      .hostname("ukelei")
+      .mac("b8:27:eb:00:00:01")
+      .build();
+
+  /**
+   * Get and expect that the first caller waits for the leases.
+   */
+  @Test
+  void getAndExpectLoading() {
+    AtomicInteger calls = new AtomicInteger();
+    DhcpLeaseCache cache = new DhcpLeaseCache(
+        () -> {
+          calls.incrementAndGet();
+          return Collections.singletonList(LEASE);
+        },
+        Runnable::run,
+        Duration.ofSeconds(30L),
+        Duration.ofMinutes(5L),
+        Duration.ofSeconds(5L),
+        Duration.ofMinutes(1L));
+
+    DhcpLeaseSnapshot snapshot = cache.get();
+    assertEquals(LEASE, snapshot.getByIp().get("192.168.1.109"));
+    assertSame(snapshot, cache.get());
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * Get and expect stale snapshot, while refreshing in background.
+   */
+  @Test
+  void getAndExpectStaleSnapshot() {
+    AtomicInteger calls = new AtomicInteger();
+    Deque<Runnable> tasks = new ArrayDeque<>();
+    DhcpLeaseCache cache = new DhcpLeaseCache(
+        () -> {
+          calls.incrementAndGet();
+          return Collections.singletonList(LEASE);
+        },
+        tasks::add,
+        Duration.ZERO,
+        Duration.ofMinutes(5L),
+        Duration.ofSeconds(5L),
+        Duration.ofMinutes(1L));
+
+    cache.refreshInBackground();
+    assertEquals(1, tasks.size());
+    tasks.poll().run();
+    DhcpLeaseSnapshot first = cache.get();
+    assertEquals(1, calls.get());
+
+    // the snapshot is expired, it is served and only one refresh is started
+    assertSame(first, cache.get());
+    assertSame(first, cache.get());
+    assertEquals(1, tasks.size());
+    tasks.poll().run();
+    assertEquals(2, calls.get());
+    assertNotSame(first, cache.get());
+  }
+
+  /**
+   * Refresh and expect backoff.
+   */
+  @Test
+  void refreshAndExpectBackoff() {
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<List<DhcpLease>> failing = () -> {
+      calls.incrementAndGet();
+      throw ServiceException.internalServerError("dhcp-lease-list failed");
+    };
+    DhcpLeaseCache cache = new DhcpLeaseCache(
+        failing,
+        Runnable::run,
+        Duration.ofSeconds(30L),
+        Duration.ofMinutes(5L),
+        Duration.ofMinutes(1L),
+        Duration.ofMinutes(5L));
+
+    assertThrows(ServiceException.class, cache::get);
+    assertEquals(1, calls.get());
+    assertTrue(cache.isBackingOff());
+
+    // while backing off the last error is thrown without running the command again
+    assertThrows(ServiceException.class, cache::get);
+    cache.refreshInBackground();
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * Refresh and expect that an error releases the waiting callers.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void refreshAndExpectErrorReleasesCallers() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    DhcpLeaseCache cache = new DhcpLeaseCache(
+        () -> {
+          calls.incrementAndGet();
+          throw new NoClassDefFoundError("org/bremersee/Missing");
+        },
+        command -> {
+          Thread thread = new Thread(command);
+          thread.setUncaughtExceptionHandler((t, e) -> {
+          });
+          thread.start();
+        },
+        Duration.ofSeconds(30L),
+        Duration.ofMinutes(5L),
+        Duration.ofMillis(10L),
+        Duration.ofMillis(10L));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5L),
+        () -> assertThrows(ServiceException.class, cache::get));
+    assertEquals(1, calls.get());
+    // while backing off the error is thrown as service exception
+    assertThrows(ServiceException.class, cache::get);
+    assertEquals(1, calls.get());
+
+    // the refresh was finished, so the next one is started after the backoff
+    Thread.sleep(50L);
+    assertTimeoutPreemptively(Duration.ofSeconds(5L),
+        () -> assertThrows(ServiceException.class, cache::get));
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * Get and expect that the max staleness is respected.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void getAndExpectMaxStaleness() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    DhcpLeaseCache cache = new DhcpLeaseCache(
+        () -> {
+          if (calls.incrementAndGet() > 1) {
+            throw ServiceException.internalServerError("dhcp-lease-list failed");
+          }
+          return Collections.singletonList(LEASE);
+        },
+        Runnable::run,
+        Duration.ofMillis(10L),
+        Duration.ofMillis(500L),
+        Duration.ofMinutes(1L),
+        Duration.ofMinutes(5L));
+
+    DhcpLeaseSnapshot snapshot = cache.get();
+    Thread.sleep(20L);
+    // the refresh fails, but the snapshot is within the staleness budget
+    assertSame(snapshot, cache.get());
+    assertEquals(2, calls.get());
+    assertTrue(cache.isBackingOff());
+
+    Thread.sleep(500L);
+    assertThrows(ServiceException.class, cache::get);
+    assertEquals(2, calls.get());
+    assertFalse(snapshot.getByIp().isEmpty());
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.bremersee.dccon.model.DhcpLease;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dhcp lease ip4 index test.
+ *
+ * @author Christian Bremer
+ */
+class DhcpLeaseIp4IndexTest {
+
+  /**
+   * Pack ip4.
+   */
+  @Test
+  void packIp4() {
+    assertEquals(0xC0A8016DL, DhcpLeaseIp4Index.packIp4("192.168.1.109"));
+    assertEquals(0L, DhcpLeaseIp4Index.packIp4("0.0.0.0"));
+    assertEquals(0xFFFFFFFFL, DhcpLeaseIp4Index.packIp4("255.255.255.255"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("256.1.1.1"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("1.1.1"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("1.1.1.1.1"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("1..1.1"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("1.1.1."));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4("fe80::1"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packIp4(null));
+  }
+
+  /**
+   * Pack mac.
+   */
+  @Test
+  void packMac() {
+    assertEquals(0xB827EB000001L, DhcpLeaseIp4Index.packMac("b8:27:eb:00:00:01"));
+    assertEquals(0xB827EB000001L, DhcpLeaseIp4Index.packMac(" B8-27-EB-00-00-01 "));
+    assertEquals(-1L, DhcpLeaseIp4Index.packMac("b8:27:eb:00:00"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packMac("b8:27:eb:00:00:0g"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packMac("b8.27.eb.00.00.01"));
+    assertEquals(-1L, DhcpLeaseIp4Index.packMac(null));
+  }
+
+  /**
+   * Get.
+   */
+  @Test
+  void get() {
+    List<DhcpLease> leases = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      leases.add(DhcpLease.builder()
+          .ip("10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF))
+          .mac(String.format("b8:27:eb:00:%02x:%02x", (i >> 8) & 0xFF, i & 0xFF))
+          .hostname("host" + i)
+          .build());
+    }
+    DhcpLease duplicate = DhcpLease.builder()
+        .ip("10.0.0.1")
+        .mac("b8:27:eb:00:00:01")
+        .hostname("duplicate")
+        .build();
+    leases.add(duplicate);
+    leases.add(DhcpLease.builder().ip("fe80::1").hostname("ip6").build());
+
+    DhcpLeaseIp4Index index = new DhcpLeaseIp4Index(leases);
+    assertEquals(5000, index.size());
+    assertEquals(5000, index.leases().size());
+    assertFalse(index.leases().contains(duplicate));
+    for (int i = 0; i < 5000; i++) {
+      assertSame(leases.get(i), index.get("10.0." + ((i >> 8) & 0xFF) + "." + (i & 0xFF)));
+    }
+    // the first lease wins
+    assertEquals("host1", index.get("10.0.0.1").getHostname());
+    assertEquals("host1", index.getByMac("B8-27-EB-00-00-01").getHostname());
+    assertEquals("host4999", index.getByMac("b8:27:eb:00:13:87").getHostname());
+    assertNull(index.get("10.0.19.136"));
+    assertNull(index.get("fe80::1"));
+    assertNull(index.getByMac("b8:27:eb:00:13:88"));
+  }
+
+  /**
+   * Get from empty index.
+   */
+  @Test
+  void getFromEmptyIndex() {
+    DhcpLeaseIp4Index index = new DhcpLeaseIp4Index(Collections.emptyList());
+    assertEquals(0, index.size());
+    assertTrue(index.leases().isEmpty());
+    assertNull(index.get("192.168.1.109"));
+    assertNull(index.getByMac("b8:27:eb:00:00:01"));
+    assertNull(new DhcpLeaseIp4Index(Arrays.asList(
+        DhcpLease.builder().ip("192.168.1.109").mac("-NA-").build()))
+        .getByMac("b8:27:eb:00:00:01"));
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import org.bremersee.dccon.model.DhcpLease;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dhcp lease snapshot test.
+ *
+ * @author Christian Bremer
+ */
+class DhcpLeaseSnapshotTest {
+
+  private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+  private static DhcpLeaseSnapshot newSnapshot() {
+    return DhcpLeaseSnapshot.of(Arrays.asList(
+        DhcpLease.builder()
+            .ip("192.168.1.109")
+            .hostname("ukelei")
+            .mac("b8:27:eb:00:00:01")
+            .begin(NOW.minusMinutes(20L))
+            .end(NOW.plusMinutes(10L))
+            .build(),
+        DhcpLease.builder()
+            .ip("192.168.1.110")
+            .hostname("ukelei")
+            .mac("b8:27:eb:00:00:02")
+            .begin(NOW.minusMinutes(5L))
+            .end(NOW.plusMinutes(25L))
+            .build()));
+  }
+
+  /**
+   * Find by ip.
+   */
+  @Test
+  void findByIp() {
+    DhcpLeaseSnapshot snapshot = newSnapshot();
+    assertEquals(2, snapshot.getByIp().size());
+    assertEquals("ukelei", snapshot.findByIp("192.168.1.109")
+        .map(DhcpLease::getHostname)
+        .orElse(null));
+    assertFalse(snapshot.findByIp("192.168.1.111").isPresent());
+    assertThrows(UnsupportedOperationException.class,
+        () -> snapshot.getByIp().remove("192.168.1.109"));
+  }
+
+  /**
+   * Find by host name.
+   */
+  @Test
+  void findByHostName() {
+    DhcpLeaseSnapshot snapshot = newSnapshot();
+    // the newest lease wins
+    assertEquals(1, snapshot.getByHostName().size());
+    assertEquals("192.168.1.110", snapshot.getByHostName().get("UKELEI").getIp());
+    assertEquals("192.168.1.110", snapshot.findByHostName("Ukelei")
+        .map(DhcpLease::getIp)
+        .orElse(null));
+  }
+
+  /**
+   * Find by mac.
+   */
+  @Test
+  void findByMac() {
+    DhcpLeaseSnapshot snapshot = newSnapshot();
+    assertEquals("192.168.1.109", snapshot.findByMac("B8-27-EB-00-00-01 ")
+        .map(DhcpLease::getIp)
+        .orElse(null));
+    assertFalse(snapshot.findByMac("b8:27:eb:00:00:03").isPresent());
+    assertFalse(snapshot.findByMac(null).isPresent());
+  }
+
+  /**
+   * Find leases without ip4 address.
+   */
+  @Test
+  void findWithoutIp4() {
+    DhcpLeaseSnapshot snapshot = DhcpLeaseSnapshot.of(Arrays.asList(
+        DhcpLease.builder()
+            .ip("192.168.1.109")
+            .hostname("ukelei")
+            .mac("b8:27:eb:00:00:01")
+            .begin(NOW.minusMinutes(20L))
+            .build(),
+        DhcpLease.builder()
+            .ip("fe80::1")
+            .hostname("ukelei")
+            .mac("b8:27:eb:00:00:01")
+            .begin(NOW.minusMinutes(5L))
+            .build(),
+        DhcpLease.builder()
+            .ip("fe80::2")
+            .hostname("plotze")
+            .mac("b8:27:eb:00:00:02")
+            .begin(NOW.minusMinutes(5L))
+            .build(),
+        DhcpLease.builder()
+            .ip("192.168.1.111")
+            .hostname("plotze")
+            .mac("b8:27:eb:00:00:02")
+            .begin(NOW.minusMinutes(1L))
+            .build()));
+    assertEquals(4, snapshot.getByIp().size());
+    assertEquals("plotze", snapshot.findByIp("fe80::2")
+        .map(DhcpLease::getHostname)
+        .orElse(null));
+    // the newest lease of a mac wins, whether it has an ip4 address or not
+    assertEquals("fe80::1", snapshot.findByMac("b8:27:eb:00:00:01")
+        .map(DhcpLease::getIp)
+        .orElse(null));
+    assertEquals("192.168.1.111", snapshot.findByMac("b8:27:eb:00:00:02")
+        .map(DhcpLease::getIp)
+        .orElse(null));
+  }
+
+  /**
+   * Is older than.
+   */
+  @Test
+  void isOlderThan() {
+    assertTrue(DhcpLeaseSnapshot.empty().isOlderThan(Duration.ofDays(1L)));
+    assertTrue(DhcpLeaseSnapshot.empty().getByIp().isEmpty());
+    DhcpLeaseSnapshot snapshot = newSnapshot();
+    assertFalse(snapshot.isOlderThan(Duration.ofMinutes(1L)));
+    assertTrue(snapshot.isOlderThan(Duration.ZERO));
+  }
+
+}
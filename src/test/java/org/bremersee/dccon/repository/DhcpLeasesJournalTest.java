@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.bremersee.dccon.model.DhcpLease;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dhcp leases journal test.
+ *
+ * @author Christian Bremer
+ */
+class DhcpLeasesJournalTest {
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter
+      .ofPattern("yyyy/MM/dd HH:mm:ss");
+
+  private static String lease(String ip, String mac, String hostname, String state) {
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    return "lease " + ip + " {\n"
+        + "  starts 0 " + FORMATTER.format(now.minusMinutes(5L)) + ";\n"
+        + "  ends 0 " + FORMATTER.format(now.plusMinutes(25L)) + ";\n"
+        + "  cltt 0 " + FORMATTER.format(now.minusMinutes(5L)) + ";\n"
+        + "  binding state " + state + ";\n"
+        + "  next binding state free;\n"
+        + "  hardware ethernet " + mac + ";\n"
+        + (hostname != null ? "  client-hostname \"" + hostname + "\";\n" : "")
+        + "}\n";
+  }
+
+  private static void append(Path file, String content) throws IOException {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Update.
+   *
+   * @throws IOException the io exception
+   */
+  @Test
+  void update() throws IOException {
+    Path dir = Files.createTempDirectory("dhcp-leases");
+    Path file = dir.resolve("dhcpd.leases");
+    append(file, "# The format of this file is documented in the dhcpd.leases(5) manual page.\n"
+        + "authoring-byte-order little-endian;\n\n"
+        + lease("192.168.1.109", "B8:00:00:00:00:01", "ukelei", "active"));
+    String next = lease("192.168.1.188", "ac:00:00:00:00:02", null, "active");
+    // the dhcp server is still writing the second block
+    append(file, next.substring(0, 40));
+
+    DhcpLeasesJournal journal = new DhcpLeasesJournal(file);
+    assertTrue(journal.update());
+    List<DhcpLease> leases = journal.getLeases(false);
+    assertEquals(1, leases.size());
+    assertEquals("192.168.1.109", leases.get(0).getIp());
+    assertEquals("b8:00:00:00:00:01", leases.get(0).getMac());
+    assertEquals("ukelei", leases.get(0).getHostname());
+
+    append(file, next.substring(40));
+    assertTrue(journal.update());
+    assertFalse(journal.update());
+    leases = journal.getLeases(false);
+    assertEquals(2, leases.size());
+    assertEquals("dhcp-192-168-1-188", leases.get(1).getHostname());
+
+    // the last block of an ip wins
+    append(file, lease("192.168.1.109", "b8:00:00:00:00:01", "ukelei", "free"));
+    assertTrue(journal.update());
+    assertEquals(1, journal.getLeases(false).size());
+    assertEquals(2, journal.getLeases(true).size());
+
+    // the dhcp server rewrites the file
+    Path rewritten = dir.resolve("dhcpd.leases~");
+    append(rewritten, lease("192.168.1.200", "ac:00:00:00:00:03", "barsch", "active"));
+    Files.move(rewritten, file, StandardCopyOption.REPLACE_EXISTING);
+    assertTrue(journal.update());
+    leases = journal.getLeases(true);
+    assertEquals(1, leases.size());
+    assertEquals("barsch", leases.get(0).getHostname());
+  }
+
+  /**
+   * Parse time.
+   */
+  @Test
+  void parseTime() {
+    assertEquals(
+        OffsetDateTime.of(2019, 8, 18, 11, 20, 33, 0, ZoneOffset.UTC),
+        DhcpLeasesJournal.parseTime("0 2019/08/18 11:20:33"));
+    assertEquals(
+        OffsetDateTime.of(2019, 8, 18, 11, 20, 33, 0, ZoneOffset.UTC),
+        DhcpLeasesJournal.parseTime("epoch 1566127233 # Sun Aug 18 11:20:33 2019"));
+    assertNull(DhcpLeasesJournal.parseTime("never"));
+  }
+
+}
@@ -17,14 +17,16 @@
 package org.bremersee.dccon.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DhcpLease;
 import org.bremersee.dccon.repository.cli.CommandExecutorResponse;
@@ -63,11 +65,14 @@ class DhcpRepositoryImplTest {
     String lines = line0 + line1;
     DhcpLeaseParser parser = DhcpLeaseParser.defaultParser();
     DomainControllerProperties properties = new DomainControllerProperties();
-    DhcpRepositoryImpl repo = new DhcpRepositoryImpl(properties);
+    // the lease cache calls find of the instance itself, so a spy would run the real command
+    DhcpRepositoryImpl repo = new DhcpRepositoryImpl(properties) {
+      @Override
+      List<DhcpLease> find(boolean all) {
+        return parser.parse(new CommandExecutorResponse(lines, null));
+      }
+    };
     repo.setParser(parser);
-    repo = spy(repo);
-    when(repo.find(anyBoolean()))
-        .thenReturn(parser.parse(new CommandExecutorResponse(lines, null)));
     repository = repo;
   }
 
@@ -103,4 +108,39 @@ class DhcpRepositoryImplTest {
     assertEquals("192.168.1.109", actual.get("UKELEI").getIp());
   }
 
-}
\ No newline at end of file
+  /**
+   * Find active snapshot.
+   */
+  @Test
+  void findActiveSnapshot() {
+    DhcpLease lease = DhcpLease.builder()
+        .ip("192.168.1.109")
+        .hostname("ukelei")
+        .mac("b8:xx:xx:xx:xx:xx")
+        .build();
+    AtomicInteger calls = new AtomicInteger();
+    DhcpRepositoryImpl repo = new DhcpRepositoryImpl(new DomainControllerProperties()) {
+      @Override
+      List<DhcpLease> find(boolean all) {
+        assertFalse(all);
+        calls.incrementAndGet();
+        return new ArrayList<>(Collections.singletonList(lease));
+      }
+    };
+
+    DhcpLeaseSnapshot snapshot = repo.findActiveSnapshot();
+    assertEquals(lease, snapshot.getByIp().get("192.168.1.109"));
+    assertEquals(lease, repo.findActiveByHostName().get("UKELEI"));
+    assertEquals(lease, snapshot.findByMac("B8-XX-XX-XX-XX-XX").orElse(null));
+    assertSame(snapshot, repo.findActiveSnapshot());
+    // both indexes are built from one listing
+    assertEquals(1, calls.get());
+
+    // the snapshot is fresh, so nothing is refreshed
+    repo.keepActiveSnapshotUpToDate();
+    assertSame(snapshot, repo.findActiveSnapshot());
+    assertEquals(1, calls.get());
+    repo.shutdown();
+  }
+
+}
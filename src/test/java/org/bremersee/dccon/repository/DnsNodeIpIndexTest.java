@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.bremersee.dccon.model.DnsNode;
+import org.bremersee.dccon.model.DnsRecord;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dns node ip index test.
+ *
+ * @author Christian Bremer
+ */
+class DnsNodeIpIndexTest {
+
+  private static DnsNode node(String name, String... ips) {
+    Set<DnsRecord> records = new LinkedHashSet<>();
+    for (String ip : ips) {
+      records.add(DnsRecord.builder()
+          .recordType("A")
+          .recordValue(ip)
+          .build());
+    }
+    return DnsNode.builder()
+        .name(name)
+        .records(records)
+        .build();
+  }
+
+  /**
+   * Replace all, put and find.
+   */
+  @Test
+  void replaceAllPutAndFind() {
+    DnsNodeIpIndex index = new DnsNodeIpIndex();
+    assertFalse(index.isInitialized());
+
+    index.replaceAll(Collections.singletonMap("example.org", Arrays.asList(
+        node("node0", "192.168.1.123"),
+        node("node1", "192.168.1.124", "192.168.1.125"))));
+    assertTrue(index.isInitialized());
+
+    Set<DnsNodeIpIndex.Entry> entries = index.find("192.168.1.125");
+    assertEquals(1, entries.size());
+    assertEquals("node1", entries.iterator().next().getNodeName());
+    assertEquals("example.org", entries.iterator().next().getZoneName());
+
+    index.put("example.org", "Node1", node("node1", "192.168.1.126"));
+    assertTrue(index.find("192.168.1.124").isEmpty());
+    assertTrue(index.find("192.168.1.125").isEmpty());
+    assertEquals(1, index.find("192.168.1.126").size());
+
+    index.put("example.org", "node0", null);
+    assertTrue(index.find("192.168.1.123").isEmpty());
+  }
+
+}
@@ -23,21 +23,32 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.bremersee.data.ldaptive.LdaptiveTemplate;
 import org.bremersee.dccon.config.DomainControllerProperties;
 import org.bremersee.dccon.model.DhcpLease;
@@ -46,10 +57,12 @@ import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.DnsZone;
 import org.bremersee.dccon.model.UnknownFilter;
 import org.bremersee.dccon.repository.ldap.DnsNodeLdapMapper;
+import org.bremersee.dccon.service.DnsNodeSaveResult;
 import org.bremersee.exception.ServiceException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.ldaptive.SearchRequest;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.ObjectProvider;
@@ -98,10 +111,8 @@ class DnsNodeRepositoryImplTest {
         .mac("xx:etc")
         .manufacturer("JUnit")
         .build();
-    when(dhcpRepository.findActiveByIp())
-        .thenReturn(Collections.singletonMap("192.168.1.123", lease));
-    when(dhcpRepository.findActiveByHostName())
-        .thenReturn(Collections.singletonMap("NODE0", lease));
+    when(dhcpRepository.findActiveSnapshot())
+        .thenReturn(DhcpLeaseSnapshot.of(Collections.singletonList(lease)));
 
     DnsZone dnsZone0 = DnsZone.builder().defaultZone(true).name("example.org").build();
     DnsZone dnsZone1 = DnsZone.builder().defaultZone(false).name("1.168.192.in-addr.arpa").build();
@@ -142,16 +153,6 @@ class DnsNodeRepositoryImplTest {
     reset(ldaptiveTemplate);
   }
 
-  /**
-   * Keep dhcp lease caches up to date.
-   */
-  @Test
-  void keepDhcpLeaseCachesUpToDate() {
-    dnsNodeRepository.keepDhcpLeaseCachesUpToDate();
-    verify(dhcpRepository, atLeastOnce()).findActiveByIp();
-    verify(dhcpRepository, atLeastOnce()).findActiveByHostName();
-  }
-
   /**
    * Find all.
    */
@@ -172,6 +173,32 @@ class DnsNodeRepositoryImplTest {
     assertTrue(list.stream().anyMatch(node -> node0.getName().equals(node.getName())));
   }
 
+  /**
+   * Find all and expect that the dhcp leases are loaded once.
+   */
+  @Test
+  void findAllAndExpectOneDhcpLeaseSnapshot() {
+    List<DnsNode> nodes = Stream.of("node0", "node1", "node2")
+        .map(nodeName -> DnsNode.builder()
+            .name(nodeName)
+            .records(Collections.singleton(DnsRecord.builder()
+                .recordType("A")
+                .recordValue("192.168.1.123")
+                .build()))
+            .build())
+        .collect(Collectors.toList());
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> nodes.stream());
+    clearInvocations(dhcpRepository);
+    List<DnsNode> actual = dnsNodeRepository
+        .findAll("example.org", UnknownFilter.ALL, null, false, true)
+        .collect(Collectors.toList());
+    assertEquals(3, actual.size());
+    assertTrue(actual.stream()
+        .allMatch(node -> node.getRecords().iterator().next().getDhcpLease() != null));
+    verify(dhcpRepository, times(1)).findActiveSnapshot();
+  }
+
   /**
    * Find all with name query.
    */
@@ -212,6 +239,87 @@ class DnsNodeRepositoryImplTest {
     assertTrue(list.stream().anyMatch(node -> node0.getName().equals(node.getName())));
   }
 
+  /**
+   * Find all with correlation values.
+   */
+  @Test
+  void findAllWithCorrelationValues() {
+    DnsNode node0 = DnsNode.builder()
+        .name("node0")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("A")
+            .recordValue("192.168.1.123")
+            .build()))
+        .build();
+    DnsNode node1 = DnsNode.builder()
+        .name("node1")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("A")
+            .recordValue("192.168.1.124")
+            .build()))
+        .build();
+    DnsNode ptr0 = DnsNode.builder()
+        .name("123")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("PTR")
+            .recordValue("node0.example.org")
+            .build()))
+        .build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> {
+          SearchRequest searchRequest = invocationOnMock.getArgument(0);
+          return searchRequest.getBaseDn().contains("in-addr.arpa")
+              ? Stream.of(ptr0)
+              : Stream.of(node0, node1);
+        });
+    List<DnsNode> list = dnsNodeRepository
+        .findAll("example.org", UnknownFilter.ALL, null)
+        .collect(Collectors.toList());
+    assertEquals(2, list.size());
+    assertEquals(
+        "node0.example.org",
+        list.stream()
+            .filter(node -> "node0".equals(node.getName()))
+            .flatMap(node -> node.getRecords().stream())
+            .findAny()
+            .map(DnsRecord::getCorrelatedRecordValue)
+            .orElse(null));
+    assertNull(list.stream()
+        .filter(node -> "node1".equals(node.getName()))
+        .flatMap(node -> node.getRecords().stream())
+        .findAny()
+        .map(DnsRecord::getCorrelatedRecordValue)
+        .orElse(null));
+    verify(ldaptiveTemplate, never()).findOne(any(), any());
+  }
+
+  /**
+   * Find by ips.
+   */
+  @Test
+  void findByIps() {
+    DnsNode node0 = DnsNode.builder()
+        .name("node0")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("A")
+            .recordValue("192.168.1.123")
+            .build()))
+        .build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of(node0));
+    when(ldaptiveTemplate.findOne(any(), any())).thenReturn(Optional.of(node0));
+    dnsNodeRepository.reconcileDnsNodeIpIndex();
+
+    List<DnsNode> actual = dnsNodeRepository
+        .findByIps(Collections.singleton("192.168.1.123"), UnknownFilter.ALL);
+    assertEquals(1, actual.size());
+    assertEquals("node0", actual.get(0).getName());
+
+    actual = dnsNodeRepository
+        .findByIps(Collections.singleton("192.168.1.124"), UnknownFilter.ALL);
+    assertTrue(actual.isEmpty());
+  }
+
   /**
    * Exists.
    */
@@ -292,6 +400,114 @@ class DnsNodeRepositoryImplTest {
     assertTrue(actual.isPresent());
   }
 
+  /**
+   * Save and expect no read back.
+   */
+  @Test
+  void saveAndExpectNoReadBack() {
+    DnsNode input = DnsNode.builder()
+        .name("node6")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("AAAA")
+            .recordValue("fd00::6")
+            .build()))
+        .build();
+    DnsNode saved = input.toBuilder().build();
+    when(ldaptiveTemplate.findOne(any(), any())).thenReturn(Optional.empty());
+    when(ldaptiveTemplate.save(any(), any())).thenReturn(saved);
+
+    Optional<DnsNode> actual = dnsNodeRepository.save("example.org", input);
+    assertTrue(actual.isPresent());
+    assertEquals(saved, actual.get());
+    // the new dns node wasn't read again, so its modification time is unknown
+    assertNull(actual.get().getModified());
+    // only the pre-image was read
+    verify(ldaptiveTemplate, times(1)).findOne(any(), any());
+  }
+
+  /**
+   * Save all.
+   */
+  @Test
+  void saveAll() {
+    DnsNode node7 = DnsNode.builder()
+        .name("node7")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("AAAA")
+            .recordValue("fd00::7")
+            .build()))
+        .build();
+    DnsNode node8 = DnsNode.builder()
+        .name("node8")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("AAAA")
+            .recordValue("fd00::8")
+            .build()))
+        .build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of(node7));
+    when(ldaptiveTemplate.save(any(), any())).thenReturn(node8.toBuilder().build());
+
+    List<DnsNodeSaveResult> actual = dnsNodeRepository.saveAll("example.org", Arrays.asList(
+        node7.toBuilder().build(),
+        node8,
+        node8.toBuilder().build(),
+        DnsNode.builder().name("_excluded.node0").build()));
+    assertEquals(4, actual.size());
+    assertEquals(DnsNodeSaveResult.Status.UNCHANGED, actual.get(0).getStatus());
+    assertEquals(DnsNodeSaveResult.Status.CREATED, actual.get(1).getStatus());
+    assertEquals(node8.getName(), actual.get(1).getNode().getName());
+    assertEquals(DnsNodeSaveResult.Status.FAILED, actual.get(2).getStatus());
+    assertEquals(DnsNodeSaveResult.Status.FAILED, actual.get(3).getStatus());
+    // the zone was read once and only the new dns node was written
+    verify(ldaptiveTemplate, times(1)).findAll(any(), any());
+    verify(ldaptiveTemplate, never()).findOne(any(), any());
+    verify(ldaptiveTemplate, times(1)).save(any(), any());
+  }
+
+  /**
+   * Save all and expect that only the invalid dns node fails.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void saveAllAndExpectInvalidNodeFails() {
+    DnsNode valid = DnsNode.builder()
+        .name("node7")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("AAAA")
+            .recordValue("fd00::7")
+            .build()))
+        .build();
+    DnsNode invalid = DnsNode.builder()
+        .name("node8")
+        .records(Collections.singleton(DnsRecord.builder()
+            .recordType("AAAA")
+            .build()))
+        .build();
+    ConstraintViolation<DnsNode> violation = mock(ConstraintViolation.class);
+    when(violation.getMessage()).thenReturn("must not be null");
+    Validator validator = mock(Validator.class);
+    doReturn(Collections.emptySet()).when(validator).validate(valid);
+    doReturn(Collections.singleton(violation)).when(validator).validate(invalid);
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of(valid));
+
+    dnsNodeRepository.setValidator(validator);
+    try {
+      List<DnsNodeSaveResult> actual = dnsNodeRepository.saveAll("example.org", Arrays.asList(
+          valid.toBuilder().build(),
+          invalid));
+      assertEquals(2, actual.size());
+      assertEquals(DnsNodeSaveResult.Status.UNCHANGED, actual.get(0).getStatus());
+      assertEquals(DnsNodeSaveResult.Status.FAILED, actual.get(1).getStatus());
+      assertEquals(invalid.getName(), actual.get(1).getName());
+      assertTrue(actual.get(1).getMessage().endsWith("must not be null"));
+      verify(ldaptiveTemplate, never()).save(any(), any());
+    } finally {
+      dnsNodeRepository.setValidator(null);
+    }
+  }
+
   /**
    * Delete and expect node name is not allowed.
    */
@@ -344,15 +560,76 @@ class DnsNodeRepositoryImplTest {
     verify(ldaptiveTemplate).delete(any(), any());
   }
 
+  /**
+   * Delete all and report progress.
+   */
+  @Test
+  void deleteAllAndReportProgress() {
+    DnsNode node0 = DnsNode.builder().name("node0").build();
+    DnsNode node1 = DnsNode.builder().name("node1").build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of(node0, node1));
+    AtomicLong done = new AtomicLong();
+    dnsNodeRepository.deleteAll("example.org", done::addAndGet);
+    verify(ldaptiveTemplate, times(1)).findAll(any(), any());
+    verify(ldaptiveTemplate, times(2)).delete(any(), any());
+    assertEquals(2L, done.get());
+  }
+
   /**
    * Delete all by name.
    */
   @Test
   void deleteAllByName() {
     DnsNode node0 = DnsNode.builder().name("node0").build();
-    when(ldaptiveTemplate.findOne(any(), any())).thenReturn(Optional.of(node0));
-    dnsNodeRepository.deleteAll("example.org", Collections.singletonList("node0"));
-    verify(ldaptiveTemplate).delete(any(), any());
+    DnsNode node1 = DnsNode.builder().name("node1").build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of(node0, node1));
+    dnsNodeRepository.deleteAll("example.org", Arrays.asList("node0", "node1", "node2"));
+    // all nodes are found with one search
+    verify(ldaptiveTemplate, times(1)).findAll(
+        argThat(searchRequest -> searchRequest.getSearchFilter().getFilter().startsWith("(|")),
+        any());
+    verify(ldaptiveTemplate, never()).findOne(any(), any());
+    verify(ldaptiveTemplate, times(2)).delete(any(), any());
+  }
+
+  /**
+   * Delete all and expect one modification of the reverse node.
+   */
+  @Test
+  void deleteAllAndExpectOneModificationOfReverseNode() {
+    DnsNodeRepositoryImpl repository = Mockito.spy(new DnsNodeRepositoryImpl(
+        properties,
+        ldapTemplateProvider(ldaptiveTemplate),
+        dhcpRepository,
+        dnsZoneRepository));
+    repository.setDnsNodeLdapMapperProvider((zoneName, unknownFilter) -> new DnsNodeLdapMapper(
+        properties, zoneName, unknownFilter));
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsNode>>) invocationOnMock -> Stream.of("node0", "node1")
+            .map(nodeName -> DnsNode.builder()
+                .name(nodeName)
+                .records(Collections.singleton(DnsRecord.builder()
+                    .recordType("A")
+                    .recordValue("192.168.1.123")
+                    .build()))
+                .build()));
+    doReturn(Optional.of(DnsNode.builder()
+        .name("123")
+        .records(new HashSet<>(Arrays.asList(
+            DnsRecord.builder().recordType("PTR").recordValue("node0.example.org").build(),
+            DnsRecord.builder().recordType("PTR").recordValue("node1.example.org").build())))
+        .build()))
+        .when(repository).findOne(eq("1.168.192.in-addr.arpa"), eq("123"), any(), anyBoolean(),
+        anyBoolean());
+    doReturn(Optional.empty()).when(repository).save(anyString(), any());
+
+    repository.deleteAll("example.org", Arrays.asList("node0", "node1"));
+    verify(ldaptiveTemplate, times(2)).delete(any(), any());
+    verify(repository, times(1)).save(
+        eq("1.168.192.in-addr.arpa"),
+        argThat(dnsNode -> "123".equals(dnsNode.getName()) && dnsNode.getRecords().isEmpty()));
   }
 
   /**
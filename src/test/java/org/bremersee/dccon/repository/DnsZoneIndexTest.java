@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.model.DnsZone;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dns zone index test.
+ *
+ * @author Christian Bremer
+ */
+class DnsZoneIndexTest {
+
+  private static DnsZoneIndex newIndex() {
+    return new DnsZoneIndex(new DomainControllerProperties(), Arrays.asList(
+        DnsZone.builder().name("example.org").build(),
+        DnsZone.builder().name("sub.example.org").build(),
+        DnsZone.builder().name("168.192.in-addr.arpa").build(),
+        DnsZone.builder().name("1.168.192.in-addr.arpa").build(),
+        DnsZone.builder().name("10.in-addr.arpa").build()));
+  }
+
+  /**
+   * Find dns zone by ip 4.
+   */
+  @Test
+  void findDnsZoneByIp4() {
+    DnsZoneIndex index = newIndex();
+
+    Optional<DnsZone> zone = index.findDnsZoneByIp4("192.168.1.123");
+    assertTrue(zone.isPresent());
+    assertEquals("1.168.192.in-addr.arpa", zone.get().getName());
+
+    zone = index.findDnsZoneByIp4("192.168.2.123");
+    assertTrue(zone.isPresent());
+    assertEquals("168.192.in-addr.arpa", zone.get().getName());
+
+    zone = index.findDnsZoneByIp4("10.1.2.3");
+    assertTrue(zone.isPresent());
+    assertEquals("10.in-addr.arpa", zone.get().getName());
+
+    assertFalse(index.findDnsZoneByIp4("172.16.1.1").isPresent());
+  }
+
+  /**
+   * Find dns zone by fqdn.
+   */
+  @Test
+  void findDnsZoneByFqdn() {
+    DnsZoneIndex index = newIndex();
+
+    Optional<DnsZone> zone = index.findDnsZoneByFqdn("pluto.example.org");
+    assertTrue(zone.isPresent());
+    assertEquals("example.org", zone.get().getName());
+
+    zone = index.findDnsZoneByFqdn("pluto.Sub.Example.org");
+    assertTrue(zone.isPresent());
+    assertEquals("sub.example.org", zone.get().getName());
+
+    zone = index.findDnsZoneByFqdn("sub.example.org");
+    assertTrue(zone.isPresent());
+    assertEquals("example.org", zone.get().getName());
+
+    assertFalse(index.findDnsZoneByFqdn("example.org").isPresent());
+    assertFalse(index.findDnsZoneByFqdn("pluto.example.com").isPresent());
+    assertEquals(2, index.getNonReverseZones().size());
+  }
+
+  /**
+   * Is expired.
+   */
+  @Test
+  void isExpired() {
+    DnsZoneIndex index = newIndex();
+    assertFalse(index.isExpired(Duration.ofMinutes(1L)));
+    assertTrue(index.isExpired(null));
+  }
+
+}
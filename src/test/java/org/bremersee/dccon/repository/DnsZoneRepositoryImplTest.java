@@ -23,11 +23,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +47,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * The dns zone repository impl test.
@@ -92,6 +96,7 @@ class DnsZoneRepositoryImplTest {
   @BeforeEach
   void resetLdaptiveTemplate() {
     reset(ldaptiveTemplate);
+    dnsZoneRepository.invalidateSnapshot();
   }
 
   /**
@@ -127,6 +132,27 @@ class DnsZoneRepositoryImplTest {
         .count());
   }
 
+  /**
+   * Find all from snapshot.
+   */
+  @Test
+  void findAllFromSnapshot() {
+    DnsZone dnsZone0 = DnsZone.builder()
+        .name("example.org")
+        .build();
+    when(ldaptiveTemplate.findAll(any(), any()))
+        .thenAnswer((Answer<Stream<DnsZone>>) invocationOnMock -> Stream.of(dnsZone0));
+    long hits = dnsZoneRepository.getSnapshotHits();
+    long misses = dnsZoneRepository.getSnapshotMisses();
+    assertEquals(1L, dnsZoneRepository.findAll().count());
+    assertTrue(dnsZoneRepository.exists("example.org"));
+    assertEquals(1L, dnsZoneRepository.findNonDnsReverseZones().count());
+    verify(ldaptiveTemplate, times(1)).findAll(any(), any());
+    verify(ldaptiveTemplate, never()).exists(any(), any());
+    assertEquals(hits + 2L, dnsZoneRepository.getSnapshotHits());
+    assertEquals(misses + 1L, dnsZoneRepository.getSnapshotMisses());
+  }
+
   /**
    * Exists.
    */
@@ -134,7 +160,17 @@ class DnsZoneRepositoryImplTest {
   void exists() {
     DnsZone expected = DnsZone.builder().name("example.org").build();
     when(ldaptiveTemplate.exists(any(), any())).thenReturn(true);
-    assertTrue(dnsZoneRepository.exists(expected.getName()));
+    ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    dnsZoneRepository.setApplicationEventPublisher(eventPublisher);
+    try {
+      assertTrue(dnsZoneRepository.exists(expected.getName()));
+      // the zone was created by someone else, so the caches of the nodes must be cleared
+      verify(eventPublisher).publishEvent(argThat((ApplicationEvent event) ->
+          event instanceof DnsZoneChangedEvent
+              && expected.getName().equals(((DnsZoneChangedEvent) event).getZoneName())));
+    } finally {
+      dnsZoneRepository.setApplicationEventPublisher(null);
+    }
   }
 
   /**
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The excluded name patterns test.
+ *
+ * @author Christian Bremer
+ */
+class ExcludedNamePatternsTest {
+
+  /**
+   * Matches.
+   */
+  @Test
+  void matches() {
+    ExcludedNamePatterns patterns = new ExcludedNamePatterns(
+        new DomainControllerProperties().getExcludedNodeRegexList());
+    assertTrue(patterns.matches(""));
+    assertTrue(patterns.matches("@"));
+    assertTrue(patterns.matches("_msdcs"));
+    assertTrue(patterns.matches("_ldap._tcp.dc"));
+    assertFalse(patterns.matches("_msdcs.example"));
+    assertFalse(patterns.matches("pluto"));
+    assertFalse(patterns.matches(null));
+
+    patterns = new ExcludedNamePatterns(Arrays.asList("^node[0-9]+$", "_tcp"));
+    assertTrue(patterns.matches("node12"));
+    assertTrue(patterns.matches("_tcp"));
+    assertFalse(patterns.matches("node"));
+  }
+
+  /**
+   * To search filter.
+   */
+  @Test
+  void toSearchFilter() {
+    ExcludedNamePatterns patterns = new ExcludedNamePatterns(
+        new DomainControllerProperties().getExcludedNodeRegexList());
+    assertEquals("(&(objectClass=dnsNode)(!(|"
+            + "(name=@)(name=ForestDnsZones)(name=_msdcs)(name=_sites)(name=_tcp)(name=_udp)"
+            + "(name=_gc.*)(name=_kerberos.*)(name=_kpasswd.*)(name=_ldap.*))))",
+        patterns.toSearchFilter("name", "(objectClass=dnsNode)"));
+
+    patterns = new ExcludedNamePatterns(Arrays.asList("^node[0-9]+$", "a\\*b"));
+    assertEquals("(&(objectClass=dnsNode)(!(|(name=a\\2ab))))",
+        patterns.toSearchFilter("name", "(objectClass=dnsNode)"));
+
+    patterns = new ExcludedNamePatterns(Collections.singletonList("^node[0-9]+$"));
+    assertEquals("(objectClass=dnsNode)",
+        patterns.toSearchFilter("name", "(objectClass=dnsNode)"));
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.bremersee.dccon.model.DnsRecord;
+import org.bremersee.dccon.repository.PtrRecordChanges.NodeChanges;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The ptr record changes test.
+ *
+ * @author Christian Bremer
+ */
+class PtrRecordChangesTest {
+
+  private static DnsRecord ptr(String value) {
+    return DnsRecord.builder().recordType("PTR").recordValue(value).build();
+  }
+
+  /**
+   * Changes are grouped by node.
+   */
+  @Test
+  void changesAreGroupedByNode() {
+    PtrRecordChanges changes = new PtrRecordChanges();
+    assertTrue(changes.isEmpty());
+    changes.remove("1.168.192.in-addr.arpa", "123", ptr("node0.example.org"));
+    changes.remove("1.168.192.in-addr.arpa", "123", ptr("node1.example.org"));
+    changes.add("1.168.192.IN-ADDR.ARPA", "123", ptr("node2.example.org"));
+    changes.add("1.168.192.in-addr.arpa", "124", ptr("node2.example.org"));
+
+    List<NodeChanges> nodeChanges = new ArrayList<>(changes.getNodeChanges());
+    assertEquals(2, nodeChanges.size());
+    assertEquals("123", nodeChanges.get(0).getNodeName());
+    assertEquals(2, nodeChanges.get(0).getRemovals().size());
+    assertEquals(1, nodeChanges.get(0).getAdditions().size());
+    assertEquals("124", nodeChanges.get(1).getNodeName());
+  }
+
+  /**
+   * The last change of a record wins.
+   */
+  @Test
+  void lastChangeWins() {
+    PtrRecordChanges changes = new PtrRecordChanges();
+    changes.add("1.168.192.in-addr.arpa", "123", ptr("node0.example.org"));
+    changes.remove("1.168.192.in-addr.arpa", "123", ptr("node0.example.org"));
+    NodeChanges nodeChanges = changes.getNodeChanges().iterator().next();
+    assertTrue(nodeChanges.getAdditions().isEmpty());
+    assertEquals(Collections.singleton(ptr("node0.example.org")), nodeChanges.getRemovals());
+  }
+
+  /**
+   * Apply.
+   */
+  @Test
+  void apply() {
+    PtrRecordChanges changes = new PtrRecordChanges();
+    changes.remove("1.168.192.in-addr.arpa", "123", ptr("node0.example.org"));
+    changes.add("1.168.192.in-addr.arpa", "123", ptr("node1.example.org"));
+    NodeChanges nodeChanges = changes.getNodeChanges().iterator().next();
+
+    Set<DnsRecord> records = nodeChanges.apply(Collections.singleton(ptr("node0.example.org")));
+    assertEquals(Collections.singleton(ptr("node1.example.org")), records);
+    assertNull(nodeChanges.apply(Collections.singleton(ptr("node1.example.org"))));
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The command execution scheduler test.
+ *
+ * @author Christian Bremer
+ */
+class CommandExecutionSchedulerTest {
+
+  private static CommandExecutionScheduler newScheduler(int queueCapacity) {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setCliReadConcurrency(1);
+    properties.setCliWriteConcurrency(1);
+    properties.setCliQueueCapacity(queueCapacity);
+    properties.setCliMaxWaitTime(Duration.ofMillis(100L));
+    CommandExecutionScheduler scheduler = new CommandExecutionScheduler(properties);
+    scheduler.setMeterRegistry(new SimpleMeterRegistry());
+    return scheduler;
+  }
+
+  /**
+   * Execute.
+   */
+  @Test
+  void execute() {
+    CommandExecutionScheduler scheduler = newScheduler(0);
+    assertEquals("read", scheduler.execute(CommandType.READ, () -> "read"));
+    assertEquals("write", scheduler.execute(CommandType.WRITE, () -> "write"));
+  }
+
+  /**
+   * Execute and expect rejection.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void executeAndExpectRejection() throws Exception {
+    CommandExecutionScheduler scheduler = newScheduler(0);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    CompletableFuture<String> blocking = CompletableFuture.supplyAsync(
+        () -> scheduler.execute(CommandType.WRITE, () -> {
+          running.countDown();
+          try {
+            assertTrue(finish.await(5L, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "done";
+        }));
+    assertTrue(running.await(5L, TimeUnit.SECONDS));
+
+    // the queue capacity is zero
+    assertThrows(ServiceException.class, () -> scheduler.execute(CommandType.WRITE, () -> "x"));
+    // reads have their own bulkhead
+    assertEquals("read", scheduler.execute(CommandType.READ, () -> "read"));
+
+    finish.countDown();
+    assertEquals("done", blocking.get(5L, TimeUnit.SECONDS));
+    assertEquals("write", scheduler.execute(CommandType.WRITE, () -> "write"));
+  }
+
+  /**
+   * Execute and expect wait timeout.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void executeAndExpectWaitTimeout() throws Exception {
+    CommandExecutionScheduler scheduler = newScheduler(10);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    CompletableFuture<String> blocking = CompletableFuture.supplyAsync(
+        () -> scheduler.execute(CommandType.READ, () -> {
+          running.countDown();
+          try {
+            assertTrue(finish.await(5L, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "done";
+        }));
+    assertTrue(running.await(5L, TimeUnit.SECONDS));
+
+    assertThrows(ServiceException.class, () -> scheduler.execute(CommandType.READ, () -> "x"));
+    assertEquals(0, scheduler.getQueueDepth(CommandType.READ));
+
+    finish.countDown();
+    assertEquals("done", blocking.get(5L, TimeUnit.SECONDS));
+  }
+
+}
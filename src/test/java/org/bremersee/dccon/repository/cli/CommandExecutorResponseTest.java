@@ -111,4 +111,16 @@ class CommandExecutorResponseTest {
     assertEquals("", CommandExecutorResponse.toExceptionMessage(null));
   }
 
-}
\ No newline at end of file
+  /**
+   * Is successful.
+   */
+  @Test
+  void isSuccessful() {
+    assertTrue(new CommandExecutorResponse("", "Warning", 0).isSuccessful());
+    assertFalse(new CommandExecutorResponse("", "", 1).isSuccessful());
+    // without exit code the error output decides
+    assertTrue(new CommandExecutorResponse("out", null).isSuccessful());
+    assertFalse(new CommandExecutorResponse("", "Error", null).isSuccessful());
+  }
+
+}
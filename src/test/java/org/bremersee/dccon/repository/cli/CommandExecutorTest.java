@@ -16,10 +16,20 @@
 
 package org.bremersee.dccon.repository.cli;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.commons.io.IOUtils;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.dccon.repository.cli.CommandExecutionScheduler.CommandType;
 import org.bremersee.exception.ServiceException;
 import org.junit.jupiter.api.Test;
 
@@ -67,4 +77,78 @@ class CommandExecutorTest {
               throw new AssertionError("Should never be called.");
             }));
   }
-}
\ No newline at end of file
+
+  /**
+   * Exec with timeout.
+   */
+  @Test
+  void execWithTimeout() {
+    assertThrows(ServiceException.class, () -> CommandExecutor
+        .exec(
+            Arrays.asList("sleep", "10"),
+            null,
+            System.getProperty("java.io.tmpdir"),
+            null,
+            Duration.ofMillis(200L),
+            response -> response));
+  }
+
+  /**
+   * Exec streaming.
+   */
+  @Test
+  void execStreaming() {
+    String actual = CommandExecutor
+        .execStreaming(
+            Arrays.asList("echo", "streamed"),
+            null,
+            System.getProperty("java.io.tmpdir"),
+            null,
+            inputStream -> IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    assertEquals("streamed", actual.trim());
+
+    assertThrows(ServiceException.class, () -> CommandExecutor
+        .execStreaming(
+            Collections.singletonList(UUID.randomUUID().toString()),
+            null,
+            System.getProperty("java.io.tmpdir"),
+            null,
+            inputStream -> IOUtils.toString(inputStream, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Exec streaming and expect that the process is destroyed, when the parser fails.
+   */
+  @Test
+  void execStreamingAndExpectParserFailure() {
+    long start = System.currentTimeMillis();
+    // yes writes until it is killed, so it blocks on the full pipe, if nobody reads the output
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> CommandExecutor
+        .execStreaming(
+            Collections.singletonList("yes"),
+            null,
+            System.getProperty("java.io.tmpdir"),
+            Duration.ofSeconds(60L),
+            inputStream -> {
+              inputStream.read();
+              throw new IllegalStateException("Parser failed.");
+            }));
+    assertEquals("Parser failed.", e.getMessage());
+    assertTrue(System.currentTimeMillis() - start < 10000L);
+  }
+
+  /**
+   * Exec async.
+   */
+  @Test
+  void execAsync() {
+    CompletableFuture<CommandExecutorResponse> future = CommandExecutor
+        .execAsync(
+            new CommandExecutionScheduler(new DomainControllerProperties()),
+            CommandType.READ,
+            Collections.singletonList(UUID.randomUUID().toString()),
+            System.getProperty("java.io.tmpdir"));
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertTrue(e.getCause() instanceof ServiceException);
+  }
+}
@@ -18,7 +18,13 @@ package org.bremersee.dccon.repository.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
@@ -100,4 +106,48 @@ class DhcpLeaseListParserTest {
     assertEquals("Super Micro Computer, Inc.", lease.getManufacturer());
   }
 
+  /**
+   * Parse dhcp lease list stream.
+   *
+   * @throws IOException the io exception
+   */
+  @Test
+  void parseDhcpLeaseListStream() throws IOException {
+    DhcpLeaseParser parser = DhcpLeaseParser.defaultParser();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      sb.append("MAC b8:xx:xx:xx:").append(String.format("%02x:%02x", i / 256, i % 256))
+          .append(" IP 10.0.").append(i / 256).append('.').append(i % 256)
+          .append(" HOSTNAME host").append(i)
+          .append(" BEGIN 2019-08-18 11:20:33 END 2019-08-18 11:50:33")
+          .append(" MANUFACTURER Apple, Inc.\n");
+    }
+    // an invalid line is skipped
+    sb.append("MAC ac:xx:xx:xx:xx:yy IP 192.168.1.188 HOSTNAME -NA- BEGIN 2019-08-18 END\n");
+    List<DhcpLease> leases = parser.parse(
+        new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    assertEquals(20000, leases.size());
+
+    DhcpLease lease = leases.get(19999);
+    assertEquals("b8:xx:xx:xx:4e:1f", lease.getMac());
+    assertEquals("10.0.78.31", lease.getIp());
+    assertEquals("host19999", lease.getHostname());
+    assertEquals(OffsetDateTime.of(2019, 8, 18, 11, 20, 33, 0, ZoneOffset.UTC), lease.getBegin());
+    assertEquals(OffsetDateTime.of(2019, 8, 18, 11, 50, 33, 0, ZoneOffset.UTC), lease.getEnd());
+    assertEquals("Apple, Inc.", lease.getManufacturer());
+  }
+
+  /**
+   * Parse dhcp lease time.
+   */
+  @Test
+  void parseDhcpLeaseTime() {
+    assertEquals(
+        OffsetDateTime.of(2019, 8, 18, 11, 20, 33, 0, ZoneOffset.UTC),
+        DhcpLeaseParser.Default.parseDhcpLeaseTime("2019-08-18 11:20:33"));
+    assertNull(DhcpLeaseParser.Default.parseDhcpLeaseTime("2019-08-18"));
+    assertNull(DhcpLeaseParser.Default.parseDhcpLeaseTime("2019-08-18 1a:20:33"));
+    assertNull(DhcpLeaseParser.Default.parseDhcpLeaseTime("2019-13-18 11:20:33"));
+  }
+
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The kerberos ticket manager test.
+ *
+ * @author Christian Bremer
+ */
+class KerberosTicketManagerTest {
+
+  /**
+   * Ensure valid ticket.
+   */
+  @Test
+  void ensureValidTicket() {
+    KerberosTicketManager manager = spy(new KerberosTicketManager(
+        new DomainControllerProperties()));
+    doReturn(true).when(manager).execKinit();
+    assertFalse(manager.hasValidTicket());
+
+    manager.ensureValidTicket();
+    manager.ensureValidTicket();
+    assertTrue(manager.hasValidTicket());
+    verify(manager, times(1)).execKinit();
+
+    manager.invalidate();
+    assertFalse(manager.hasValidTicket());
+    manager.ensureValidTicket();
+    verify(manager, times(2)).execKinit();
+  }
+
+  /**
+   * Ensure valid ticket and expect service exception.
+   */
+  @Test
+  void ensureValidTicketAndExpectServiceException() {
+    KerberosTicketManager manager = spy(new KerberosTicketManager(
+        new DomainControllerProperties()));
+    doReturn(false).when(manager).execKinit();
+    assertThrows(ServiceException.class, manager::ensureValidTicket);
+    assertFalse(manager.hasValidTicket());
+  }
+
+  /**
+   * Exec kinit and expect that the exit code decides.
+   */
+  @Test
+  void execKinit() {
+    KerberosTicketManager manager = spy(new KerberosTicketManager(
+        new DomainControllerProperties()));
+    doReturn(new CommandExecutorResponse("", "Warning: Your password will expire in 5 days", 0))
+        .when(manager).runKinit();
+    assertTrue(manager.execKinit());
+
+    doReturn(new CommandExecutorResponse("", "kinit: Preauthentication failed", 1))
+        .when(manager).runKinit();
+    assertFalse(manager.execKinit());
+  }
+
+  /**
+   * Is authentication error.
+   */
+  @Test
+  void isAuthenticationError() {
+    KerberosTicketManager manager = new KerberosTicketManager(new DomainControllerProperties());
+    assertTrue(manager.isAuthenticationError(
+        "ERROR(runtime): uncaught exception - (-1765328352, 'Ticket expired')"));
+    assertTrue(manager.isAuthenticationError(
+        "kinit: No Kerberos credentials available (default cache: /tmp/krb5cc_0)"));
+    assertFalse(manager.isAuthenticationError(
+        "Failed to bind - LDAP error 49 LDAP_INVALID_CREDENTIALS"));
+    assertFalse(manager.isAuthenticationError(
+        "ERROR: Connecting to DCE/RPC failed - NT_STATUS_LOGON_FAILURE"));
+    assertFalse(manager.isAuthenticationError("ERROR: Record already exists"));
+    assertFalse(manager.isAuthenticationError(null));
+  }
+
+  /**
+   * Renew ticket.
+   */
+  @Test
+  void renewTicket() {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setKerberosTicketLifetime(Duration.ofHours(10L));
+    properties.setKerberosTicketRenewBefore(Duration.ofHours(1L));
+    KerberosTicketManager manager = spy(new KerberosTicketManager(properties));
+    doReturn(true).when(manager).execKinit();
+
+    // no ticket was requested before
+    manager.renewTicket();
+    verify(manager, never()).execKinit();
+
+    manager.ensureValidTicket();
+    manager.renewTicket();
+    verify(manager, times(1)).execKinit();
+
+    // ticket is going to expire
+    properties.setKerberosTicketRenewBefore(Duration.ofHours(11L));
+    manager.renewTicket();
+    verify(manager, times(2)).execKinit();
+  }
+
+  /**
+   * Add credential cache.
+   */
+  @Test
+  void addCredentialCache() {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setKerberosCredentialCache("/tmp/krb5cc_test");
+    KerberosTicketManager manager = new KerberosTicketManager(properties);
+    List<String> commands = new ArrayList<>();
+    manager.addCredentialCache(commands);
+    assertEquals(Collections.singletonList("--krb5-ccache=/tmp/krb5cc_test"), commands);
+
+    properties.setKerberosCredentialCache(null);
+    commands.clear();
+    manager.addCredentialCache(commands);
+    assertTrue(commands.isEmpty());
+
+    properties.setKerberosCredentialCache("");
+    commands.clear();
+    manager.addCredentialCache(commands);
+    assertTrue(commands.isEmpty());
+  }
+
+}
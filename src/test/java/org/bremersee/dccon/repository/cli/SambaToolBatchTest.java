@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The samba tool batch test.
+ *
+ * @author Christian Bremer
+ */
+class SambaToolBatchTest {
+
+  /**
+   * To input.
+   */
+  @Test
+  void toInput() {
+    SambaToolBatch batch = new SambaToolBatch()
+        .add("dns", "add", "ns.example.org", "example.org", "pluto", "A", "192.168.1.123")
+        .add("dns", "add", "ns.example.org", "example.org", "pluto", "TXT", "some text");
+    assertEquals(2, batch.getCommands().size());
+    assertEquals(
+        "dns\tadd\tns.example.org\texample.org\tpluto\tA\t192.168.1.123\n"
+            + "dns\tadd\tns.example.org\texample.org\tpluto\tTXT\tsome text\n",
+        batch.toInput());
+  }
+
+  /**
+   * Add and expect illegal argument exception.
+   */
+  @Test
+  void addAndExpectIllegalArgumentException() {
+    assertFalse(SambaToolBatch.isBatchable(Arrays.asList("dns", "add", "a\tb")));
+    assertThrows(IllegalArgumentException.class, () -> new SambaToolBatch()
+        .add("dns", "add", "line\nbreak"));
+  }
+
+  /**
+   * Parse return codes.
+   */
+  @Test
+  void parse() {
+    SambaToolBatch batch = new SambaToolBatch()
+        .add("dns", "add", "a")
+        .add("dns", "add", "b")
+        .add("dns", "add", "c");
+    List<Integer> actual = batch.parse(new CommandExecutorResponse(
+        "Record added successfully\n"
+            + "samba-tool-batch:0:0\n"
+            + "samba-tool-batch:1:Something went wrong\n",
+        null));
+    assertEquals(Arrays.asList(0, 1, null), actual);
+  }
+
+  /**
+   * Get script and expect service exception.
+   */
+  @Test
+  void getScriptAndExpectServiceException() {
+    // the script of the class path is never copied into a temporary file
+    assertThrows(ServiceException.class, () -> SambaToolBatch.getScript(null));
+    assertThrows(ServiceException.class, () -> SambaToolBatch.getScript(""));
+    assertThrows(ServiceException.class, () -> SambaToolBatch.getScript("/opt/not-installed.py"));
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The samba tool worker pool test.
+ *
+ * @author Christian Bremer
+ */
+class SambaToolWorkerPoolTest {
+
+  private final List<StubSambaToolWorkerProcess> processes = new ArrayList<>();
+
+  private SambaToolWorkerPool newPool(boolean enabled) {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setSambaToolWorkerEnabled(enabled);
+    properties.setSambaToolWorkerCount(2);
+    properties.setCliMaxWaitTime(Duration.ofSeconds(5L));
+    SambaToolWorkerPool pool = new SambaToolWorkerPool(properties, name -> {
+      StubSambaToolWorkerProcess process = new StubSambaToolWorkerProcess();
+      processes.add(process);
+      return new SambaToolWorker(name, process);
+    });
+    pool.setPingTimeout(Duration.ofMillis(500L));
+    return pool;
+  }
+
+  /**
+   * Exec.
+   */
+  @Test
+  void exec() {
+    SambaToolWorkerPool pool = newPool(true);
+    CommandExecutorResponse response = pool.exec(Collections.singletonList("user"));
+    assertEquals("user", response.getStdout());
+    response = pool.exec(Collections.singletonList("group"));
+    assertEquals("group", response.getStdout());
+    assertEquals(2, pool.getWorkerCount());
+    pool.shutdown();
+    assertEquals(0, pool.getWorkerCount());
+    assertNull(pool.exec(Collections.singletonList("user")));
+  }
+
+  /**
+   * Exec without installed script.
+   */
+  @Test
+  void execWithoutInstalledScript() {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setSambaToolWorkerEnabled(true);
+    properties.setSambaToolWorkerScript("/opt/not-installed/samba-tool-worker.py");
+    properties.setCliMaxWaitTime(Duration.ofMillis(100L));
+    SambaToolWorkerPool pool = new SambaToolWorkerPool(properties);
+    // no worker is started, the caller executes samba-tool
+    assertNull(pool.exec(Collections.singletonList("user")));
+    assertEquals(0, pool.getWorkerCount());
+  }
+
+  /**
+   * Exec with disabled pool.
+   */
+  @Test
+  void execWithDisabledPool() {
+    SambaToolWorkerPool pool = newPool(false);
+    assertNull(pool.exec(Collections.singletonList("user")));
+    pool.checkHealth();
+    assertEquals(0, pool.getWorkerCount());
+  }
+
+  /**
+   * Exec and expect restart.
+   */
+  @Test
+  void execAndExpectRestart() {
+    SambaToolWorkerPool pool = newPool(true);
+    assertThrows(ServiceException.class, () -> pool.exec(Collections.singletonList("crash")));
+    assertEquals(1, pool.getWorkerCount());
+    CommandExecutorResponse response = pool.exec(Collections.singletonList("user"));
+    assertEquals("user", response.getStdout());
+    assertEquals(2, pool.getWorkerCount());
+    assertEquals(3, processes.size());
+    pool.shutdown();
+  }
+
+  /**
+   * Check health.
+   */
+  @Test
+  void checkHealth() {
+    SambaToolWorkerPool pool = newPool(true);
+    pool.checkHealth();
+    assertEquals(2, pool.getWorkerCount());
+    assertEquals(2, processes.size());
+
+    processes.get(0).stopAnsweringPings();
+    pool.checkHealth();
+    assertEquals(2, pool.getWorkerCount());
+    assertEquals(3, processes.size());
+    pool.shutdown();
+  }
+
+  /**
+   * Check health and expect failed start.
+   */
+  @Test
+  void checkHealthAndExpectFailedStart() {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setSambaToolWorkerEnabled(true);
+    SambaToolWorkerPool pool = new SambaToolWorkerPool(properties, name -> {
+      throw new IOException("No samba.");
+    });
+    pool.checkHealth();
+    assertEquals(0, pool.getWorkerCount());
+  }
+
+}
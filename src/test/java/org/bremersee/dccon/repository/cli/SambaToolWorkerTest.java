@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The samba tool worker test.
+ *
+ * @author Christian Bremer
+ */
+class SambaToolWorkerTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5L);
+
+  /**
+   * Exec.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void exec() throws Exception {
+    SambaToolWorker worker = new SambaToolWorker("test", new StubSambaToolWorkerProcess());
+    assertTrue(worker.ping(TIMEOUT));
+    CommandExecutorResponse response = worker
+        .exec(Arrays.asList("dns", "add", "ns.example.org", "example.org"), TIMEOUT);
+    assertEquals("dns add ns.example.org example.org", response.getStdout());
+    assertFalse(response.stderrHasText());
+    response = worker.exec(Collections.singletonList("group"), TIMEOUT);
+    assertEquals("group", response.getStdout());
+    assertTrue(worker.isAlive());
+    worker.destroy();
+    assertFalse(worker.isAlive());
+  }
+
+  /**
+   * Exec and expect crash.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void execAndExpectCrash() throws Exception {
+    SambaToolWorker worker = new SambaToolWorker("test", new StubSambaToolWorkerProcess());
+    assertThrows(
+        ServiceException.class,
+        () -> worker.exec(Collections.singletonList("crash"), TIMEOUT));
+    assertFalse(worker.isAlive());
+    assertFalse(worker.ping(TIMEOUT));
+    worker.destroy();
+  }
+
+  /**
+   * Exec and expect timeout.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void execAndExpectTimeout() throws Exception {
+    SambaToolWorker worker = new SambaToolWorker("test", new StubSambaToolWorkerProcess());
+    assertThrows(
+        ServiceException.class,
+        () -> worker.exec(Collections.singletonList("hang"), Duration.ofMillis(200L)));
+    assertFalse(worker.isAlive());
+    worker.destroy();
+  }
+
+}
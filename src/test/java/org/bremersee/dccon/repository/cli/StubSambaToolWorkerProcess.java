@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local stub of the samba tool worker process ({@code cli/samba-tool-worker.py}), that speaks
+ * the same line-delimited json protocol. A command is answered with its arguments as output. The
+ * command {@code crash} terminates the process and the command {@code hang} is never answered.
+ *
+ * @author Christian Bremer
+ */
+class StubSambaToolWorkerProcess extends Process {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final CountDownLatch terminated = new CountDownLatch(1);
+
+  private final OutputStream stdin;
+
+  private final InputStream stdinOfWorker;
+
+  private final InputStream stdout;
+
+  private final OutputStream stdoutOfWorker;
+
+  private volatile boolean answeringPings = true;
+
+  /**
+   * Instantiates and starts a new stub samba tool worker process.
+   *
+   * @throws IOException if the pipes can't be created
+   */
+  StubSambaToolWorkerProcess() throws IOException {
+    final Pipe in = Pipe.open();
+    stdin = Channels.newOutputStream(in.sink());
+    stdinOfWorker = Channels.newInputStream(in.source());
+    final Pipe out = Pipe.open();
+    stdout = Channels.newInputStream(out.source());
+    stdoutOfWorker = Channels.newOutputStream(out.sink());
+    final Thread thread = new Thread(this::run, "stub-samba-tool-worker");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Lets the stub ignore pings.
+   */
+  void stopAnsweringPings() {
+    answeringPings = false;
+  }
+
+  private void run() {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(stdinOfWorker, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(stdoutOfWorker, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final JsonNode request = OBJECT_MAPPER.readTree(line);
+        final String stdoutValue;
+        if ("ping".equals(request.path("op").asText())) {
+          if (!answeringPings) {
+            continue;
+          }
+          stdoutValue = "pong";
+        } else {
+          final List<String> args = new ArrayList<>();
+          request.path("args").forEach(arg -> args.add(arg.asText()));
+          if (args.contains("crash")) {
+            return;
+          }
+          if (args.contains("hang")) {
+            continue;
+          }
+          stdoutValue = String.join(" ", args);
+        }
+        writer.write(OBJECT_MAPPER.createObjectNode()
+            .put("id", request.path("id").asLong())
+            .put("rc", 0)
+            .put("stdout", stdoutValue)
+            .put("stderr", "")
+            .toString());
+        writer.write('\n');
+        writer.flush();
+      }
+    } catch (IOException ignored) {
+      // the stub is destroyed
+    } finally {
+      terminated.countDown();
+    }
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return stdin;
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return stdout;
+  }
+
+  @Override
+  public InputStream getErrorStream() {
+    return new ByteArrayInputStream(new byte[0]);
+  }
+
+  @Override
+  public int waitFor() throws InterruptedException {
+    terminated.await();
+    return 0;
+  }
+
+  @Override
+  public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  @Override
+  public int exitValue() {
+    if (terminated.getCount() > 0) {
+      throw new IllegalThreadStateException("Stub is running.");
+    }
+    return 0;
+  }
+
+  @Override
+  public boolean isAlive() {
+    return terminated.getCount() > 0;
+  }
+
+  @Override
+  public void destroy() {
+    try {
+      stdinOfWorker.close();
+    } catch (IOException ignored) {
+      // nothing to do
+    }
+    try {
+      stdoutOfWorker.close();
+    } catch (IOException ignored) {
+      // nothing to do
+    }
+  }
+
+}
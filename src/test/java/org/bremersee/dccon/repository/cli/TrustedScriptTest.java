@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The trusted script test.
+ *
+ * @author Christian Bremer
+ */
+class TrustedScriptTest {
+
+  private static final String OWNER = System.getProperty("user.name");
+
+  private static Path newScript(String dirPermissions, String filePermissions) throws IOException {
+    Path dir = Files.createTempDirectory("trusted-script");
+    Path script = Files.write(dir.resolve("script.py"), "print('ok')\n".getBytes());
+    Files.setPosixFilePermissions(script, PosixFilePermissions.fromString(filePermissions));
+    Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString(dirPermissions));
+    return script;
+  }
+
+  /**
+   * Verify.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void verify() throws Exception {
+    Path script = newScript("rwxr-xr-x", "rw-r--r--");
+    assertEquals(script.toString(), TrustedScript.verify("test", script.toString(), OWNER));
+  }
+
+  /**
+   * Verify and expect service exception.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void verifyAndExpectServiceException() throws Exception {
+    assertThrows(ServiceException.class, () -> TrustedScript.verify("test", null, OWNER));
+    assertThrows(ServiceException.class, () -> TrustedScript.verify("test", "script.py", OWNER));
+    assertThrows(ServiceException.class,
+        () -> TrustedScript.verify("test", "/opt/not-installed.py", OWNER));
+
+    Path writableScript = newScript("rwxr-xr-x", "rw-rw-rw-");
+    assertThrows(ServiceException.class,
+        () -> TrustedScript.verify("test", writableScript.toString(), OWNER));
+
+    Path writableDir = newScript("rwxrwxrwx", "rw-r--r--");
+    assertThrows(ServiceException.class,
+        () -> TrustedScript.verify("test", writableDir.toString(), OWNER));
+
+    Path script = newScript("rwxr-xr-x", "rw-r--r--");
+    assertThrows(ServiceException.class,
+        () -> TrustedScript.verify("test", script.toString(), OWNER + "-other"));
+  }
+
+}
@@ -32,6 +32,7 @@ import org.bremersee.dccon.model.DnsRecord;
 import org.bremersee.dccon.model.UnknownFilter;
 import org.junit.jupiter.api.Test;
 import org.ldaptive.AttributeModification;
+import org.ldaptive.AttributeModificationType;
 import org.ldaptive.LdapAttribute;
 import org.ldaptive.LdapEntry;
 
@@ -57,7 +58,9 @@ class DnsNodeLdapMapperTest {
    */
   @Test
   void getObjectClasses() {
-    assertArrayEquals(new String[0], getMapper(UnknownFilter.ALL).getObjectClasses());
+    assertArrayEquals(
+        new String[]{"top", "dnsNode"},
+        getMapper(UnknownFilter.ALL).getObjectClasses());
   }
 
   /**
@@ -223,4 +226,179 @@ class DnsNodeLdapMapperTest {
     assertFalse(destination.getAttribute("dnsRecord").getBinaryValues()
         .contains(recordAttrValue1));
   }
-}
\ No newline at end of file
+
+  /**
+   * Map and compute modifications with new records.
+   */
+  @Test
+  void mapAndComputeModificationsWithNewRecords() {
+    final DnsNodeLdapMapper mapper = getMapper(UnknownFilter.ALL);
+
+    // A : 192.168.1.41
+    final byte[] recordAttrValue0 = Base64.getDecoder().decode(
+        "BAABAAXwAAAmWwAAAAADhAAAAAD46jcAwKgBKQ==");
+    final LdapAttribute recordAttr = new LdapAttribute(true);
+    recordAttr.setName("dnsRecord");
+    recordAttr.addBinaryValue(recordAttrValue0);
+
+    final LdapEntry destination = new LdapEntry();
+    destination.addAttribute(new LdapAttribute("name", "proxy"));
+    destination.addAttribute(recordAttr);
+
+    final LinkedHashSet<DnsRecord> records = new LinkedHashSet<>();
+    records.add(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.41")
+        .build());
+    records.add(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.42")
+        .build());
+    records.add(DnsRecord.builder()
+        .recordType("HINFO")
+        .recordValue("cannot be encoded")
+        .build());
+    final DnsNode source = DnsNode.builder()
+        .name("proxy")
+        .records(records)
+        .build();
+
+    AttributeModification[] modifications = mapper.mapAndComputeModifications(source, destination);
+    AttributeModification add = Arrays.stream(modifications)
+        .filter(mod -> mod.getAttributeModificationType() == AttributeModificationType.ADD)
+        .findAny()
+        .orElse(null);
+    assertNotNull(add);
+    assertEquals(1, add.getAttribute().getBinaryValues().size());
+    assertEquals(2, destination.getAttribute("dnsRecord").getBinaryValues().size());
+
+    DnsNode actual = mapper.map(destination);
+    assertTrue(actual.getRecords().contains(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.42")
+        .build()));
+  }
+
+  /**
+   * Map and compute modifications with the serial of the zone.
+   */
+  @Test
+  void mapAndComputeModificationsWithZoneSerial() {
+    final DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setDnsNodeBaseDn("dc=eixe,dc=bremersee,dc=org");
+    properties.setDnsNodeRdn("dc");
+    final DnsNodeLdapMapper mapper = new DnsNodeLdapMapper(
+        properties,
+        "eixe.bremersee.org",
+        UnknownFilter.ALL,
+        () -> 2019061501);
+
+    // A : 192.168.1.41 with serial 23334
+    final byte[] recordAttrValue0 = Base64.getDecoder().decode(
+        "BAABAAXwAAAmWwAAAAADhAAAAAD46jcAwKgBKQ==");
+    final LdapAttribute recordAttr = new LdapAttribute(true);
+    recordAttr.setName("dnsRecord");
+    recordAttr.addBinaryValue(recordAttrValue0);
+
+    final LdapEntry destination = new LdapEntry();
+    destination.addAttribute(new LdapAttribute("name", "proxy"));
+    destination.addAttribute(recordAttr);
+
+    final LinkedHashSet<DnsRecord> records = new LinkedHashSet<>();
+    records.add(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.41")
+        .build());
+    records.add(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.42")
+        .build());
+    final DnsNode source = DnsNode.builder()
+        .name("proxy")
+        .records(records)
+        .build();
+
+    mapper.mapAndComputeModifications(source, destination);
+    final DnsNode actual = mapper.map(destination);
+    assertNotNull(actual);
+    assertEquals(Integer.valueOf(2019061501), actual.getRecords().stream()
+        .filter(record -> "192.168.1.42".equals(record.getRecordValue()))
+        .map(DnsRecord::getSerial)
+        .findAny()
+        .orElse(null));
+    assertEquals(Integer.valueOf(23334), actual.getRecords().stream()
+        .filter(record -> "192.168.1.41".equals(record.getRecordValue()))
+        .map(DnsRecord::getSerial)
+        .findAny()
+        .orElse(null));
+
+    // without a serial of the zone, the serial of the existing records is used
+    final LdapEntry other = new LdapEntry();
+    other.addAttribute(new LdapAttribute("name", "proxy"));
+    final LdapAttribute otherRecordAttr = new LdapAttribute(true);
+    otherRecordAttr.setName("dnsRecord");
+    otherRecordAttr.addBinaryValue(recordAttrValue0);
+    other.addAttribute(otherRecordAttr);
+    new DnsNodeLdapMapper(properties, "eixe.bremersee.org", UnknownFilter.ALL, () -> null)
+        .mapAndComputeModifications(source, other);
+    assertEquals(Integer.valueOf(23334), getMapper(UnknownFilter.ALL).map(other).getRecords()
+        .stream()
+        .filter(record -> "192.168.1.42".equals(record.getRecordValue()))
+        .map(DnsRecord::getSerial)
+        .findAny()
+        .orElse(null));
+  }
+
+  /**
+   * Map and compute modifications of a tombstoned dns node.
+   */
+  @Test
+  void mapAndComputeModificationsOfTombstonedNode() {
+    final DnsNodeLdapMapper mapper = getMapper(UnknownFilter.ALL);
+
+    // the tombstone record (type 0)
+    final byte[] tombstone = Base64.getDecoder().decode(
+        "CAAAAAUAAACSWgAAAAAAAAAAAAAAAAAA0iISorCx1AE=");
+    final LdapAttribute recordAttr = new LdapAttribute(true);
+    recordAttr.setName("dnsRecord");
+    recordAttr.addBinaryValue(tombstone);
+
+    final LdapEntry destination = new LdapEntry();
+    destination.addAttribute(new LdapAttribute("name", "proxy"));
+    destination.addAttribute(new LdapAttribute("dNSTombstoned", "TRUE"));
+    destination.addAttribute(recordAttr);
+
+    // the source may contain the tombstone record, if it was read with all records
+    final LinkedHashSet<DnsRecord> records = new LinkedHashSet<>(
+        mapper.map(destination).getRecords());
+    records.add(DnsRecord.builder()
+        .recordType("A")
+        .recordValue("192.168.1.42")
+        .build());
+    final DnsNode source = DnsNode.builder()
+        .name("proxy")
+        .records(records)
+        .build();
+
+    AttributeModification[] modifications = mapper.mapAndComputeModifications(source, destination);
+    assertTrue(Arrays.stream(modifications)
+        .anyMatch(mod -> "dNSTombstoned".equals(mod.getAttribute().getName())
+            && "FALSE".equals(mod.getAttribute().getStringValue())));
+    assertEquals("FALSE", destination.getAttribute("dNSTombstoned").getStringValue());
+    assertEquals(1, destination.getAttribute("dnsRecord").getBinaryValues().size());
+    assertFalse(destination.getAttribute("dnsRecord").getBinaryValues().contains(tombstone));
+
+    // without new records, the tombstoned node isn't changed
+    final LdapEntry unchanged = new LdapEntry();
+    unchanged.addAttribute(new LdapAttribute("name", "proxy"));
+    unchanged.addAttribute(new LdapAttribute("dNSTombstoned", "TRUE"));
+    final LdapAttribute unchangedRecordAttr = new LdapAttribute(true);
+    unchangedRecordAttr.setName("dnsRecord");
+    unchangedRecordAttr.addBinaryValue(tombstone);
+    unchanged.addAttribute(unchangedRecordAttr);
+    modifications = mapper.mapAndComputeModifications(mapper.map(unchanged), unchanged);
+    assertEquals(0, modifications.length);
+    assertEquals("TRUE", unchanged.getAttribute("dNSTombstoned").getStringValue());
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.repository.ldap.transcoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import org.bremersee.dccon.model.DnsRecord;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The dns record data mapper test.
+ *
+ * @author Christian Bremer
+ */
+class DnsRecordDataMapperTest {
+
+  /**
+   * Parse ptr.
+   */
+  @Test
+  void parsePtr() {
+    byte[] data = new byte[]{
+        14, 3,
+        5, 'p', 'l', 'u', 't', 'o',
+        3, 'f', 'o', 'o',
+        3, 'o', 'r', 'g',
+        0};
+    DnsRecord actual = DnsRecordDataMapper.parsePtr(data, DnsRecord::new);
+    assertEquals("pluto.foo.org", actual.getRecordValue());
+    assertNull(actual.getCorrelatedRecordValue());
+  }
+
+  /**
+   * Parse a from slice.
+   */
+  @Test
+  void parseAFromSlice() {
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 2, (byte) 192, (byte) 168, 1, 123});
+    buffer.position(2);
+    DnsRecord actual = DnsRecordDataMapper.parseA(buffer.slice(), DnsRecord::new);
+    assertEquals("192.168.1.123", actual.getRecordValue());
+    assertEquals(2, buffer.position());
+  }
+
+  /**
+   * Parse count name and expect null.
+   */
+  @Test
+  void parseCountNameAndExpectNull() {
+    byte[] data = new byte[]{
+        14, 3,
+        5, 'p', 'l', 'u', 't', 'o',
+        9, 'f', 'o', 'o'};
+    assertNull(DnsRecordDataMapper.parseCountName(data, 0));
+  }
+
+  /**
+   * Encode and parse aaaa.
+   */
+  @Test
+  void encodeAndParseAaaa() {
+    byte[] data = DnsRecordDataMapper.encodeAaaa("2001:DB8:0:0:0:0:0:1");
+    assertEquals(16, data.length);
+    DnsRecord actual = DnsRecordDataMapper.parseAaaa(ByteBuffer.wrap(data), DnsRecord::new);
+    assertEquals("2001:db8::1", actual.getRecordValue());
+    assertNull(DnsRecordDataMapper.encodeAaaa("192.168.1.123"));
+  }
+
+  /**
+   * Encode and parse mx.
+   */
+  @Test
+  void encodeAndParseMx() {
+    byte[] data = DnsRecordDataMapper.encodeMx("mail.foo.org 10");
+    DnsRecord actual = DnsRecordDataMapper.parseMx(ByteBuffer.wrap(data), DnsRecord::new);
+    assertEquals("mail.foo.org 10", actual.getRecordValue());
+    assertNull(DnsRecordDataMapper.encodeMx("mail.foo.org"));
+  }
+
+  /**
+   * Encode and parse srv.
+   */
+  @Test
+  void encodeAndParseSrv() {
+    byte[] data = DnsRecordDataMapper.encodeSrv("dc.foo.org 389 0 100");
+    DnsRecord actual = DnsRecordDataMapper.parseSrv(ByteBuffer.wrap(data), DnsRecord::new);
+    assertEquals("dc.foo.org 389 0 100", actual.getRecordValue());
+    assertNull(DnsRecordDataMapper.encodeSrv("dc.foo.org 70000 0 100"));
+  }
+
+  /**
+   * Encode and parse txt.
+   */
+  @Test
+  void encodeAndParseTxt() {
+    byte[] data = DnsRecordDataMapper.encodeTxt("v=spf1 mx -all");
+    DnsRecord actual = DnsRecordDataMapper.parseTxt(ByteBuffer.wrap(data), DnsRecord::new);
+    assertEquals("v=spf1 mx -all", actual.getRecordValue());
+  }
+
+}
@@ -2,9 +2,13 @@ package org.bremersee.dccon.repository.ldap.transcoder;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
@@ -135,6 +139,61 @@ class DnsRecordValueTranscoderTest {
         transcoder.encodeBinaryValue(dnsRecord));
   }
 
+  /**
+   * Decode soa serial.
+   */
+  @Test
+  void decodeSoaSerial() {
+    final ByteBuffer buffer = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putShort((short) 20); // data length
+    buffer.putShort((short) 6); // SOA
+    buffer.put((byte) 5);
+    buffer.put((byte) 0xF0);
+    buffer.putShort((short) 0);
+    buffer.putInt(7); // serial of the record header
+    buffer.putInt(Integer.reverseBytes(3600));
+    buffer.putInt(0);
+    buffer.putInt(0);
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    buffer.putInt(2019061501); // serial of the zone
+    buffer.putInt(900);
+    buffer.putInt(600);
+    buffer.putInt(86400);
+    buffer.putInt(3600);
+    final DnsRecord soaRecord = transcoder.decodeBinaryValue(buffer.array());
+    assertNotNull(soaRecord);
+    assertEquals("SOA", soaRecord.getRecordType());
+    assertEquals(Integer.valueOf(2019061501), DnsRecordValueTranscoder.decodeSoaSerial(soaRecord));
+
+    assertNull(DnsRecordValueTranscoder.decodeSoaSerial(null));
+    assertNull(DnsRecordValueTranscoder.decodeSoaSerial(
+        transcoder.decodeBinaryValue(Base64.getDecoder().decode(A_RECORD_BASE64))));
+  }
+
+  /**
+   * With serial.
+   */
+  @Test
+  void withSerial() {
+    byte[] value = Base64.getDecoder().decode(A_RECORD_BASE64);
+    byte[] actual = DnsRecordValueTranscoder.withSerial(value, 2019061501);
+    assertEquals(Integer.valueOf(2019061501), transcoder.decodeBinaryValue(actual).getSerial());
+    // the given value isn't changed
+    assertEquals(A_RECORD_SERIAL, transcoder.decodeBinaryValue(value).getSerial());
+  }
+
+  /**
+   * Is tombstone.
+   */
+  @Test
+  void isTombstone() {
+    assertTrue(DnsRecordValueTranscoder.isTombstone(transcoder.decodeBinaryValue(
+        Base64.getDecoder().decode(UNKNOWN_RECORD_BASE64))));
+    assertFalse(DnsRecordValueTranscoder.isTombstone(transcoder.decodeBinaryValue(
+        Base64.getDecoder().decode(A_RECORD_BASE64))));
+    assertFalse(DnsRecordValueTranscoder.isTombstone(null));
+  }
+
   /**
    * Gets type.
    */
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.dccon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.dccon.config.DomainControllerProperties;
+import org.bremersee.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The job service test.
+ *
+ * @author Christian Bremer
+ */
+class JobServiceImplTest {
+
+  private static JobServiceImpl newJobService(Duration timeToLive) {
+    DomainControllerProperties properties = new DomainControllerProperties();
+    properties.setJobConcurrency(1);
+    properties.setJobQueueCapacity(1);
+    properties.setJobTimeToLive(timeToLive);
+    return new JobServiceImpl(properties);
+  }
+
+  private static Job awaitFinished(JobService jobService, String id) throws Exception {
+    for (int i = 0; i < 500; i++) {
+      Job job = jobService.getJob(id).orElseThrow(IllegalStateException::new);
+      if (job.getFinished() != null) {
+        return job;
+      }
+      Thread.sleep(10L);
+    }
+    throw new IllegalStateException("Job is not finished.");
+  }
+
+  /**
+   * Submit.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void submit() throws Exception {
+    JobServiceImpl jobService = newJobService(Duration.ofHours(1L));
+    Job job = jobService.submit("TEST", progress -> {
+      progress.setTotal(3L);
+      progress.addDone(2L);
+      progress.addDone(1L);
+      return "done";
+    });
+    assertNotNull(job.getId());
+    assertEquals("TEST", job.getType());
+    assertNotNull(job.getCreated());
+
+    Job actual = awaitFinished(jobService, job.getId());
+    assertEquals(Job.Status.SUCCEEDED, actual.getStatus());
+    assertEquals(3L, actual.getTotal());
+    assertEquals(3L, actual.getDone());
+    assertEquals("done", actual.getResult());
+    assertNotNull(actual.getStarted());
+    jobService.shutdown();
+  }
+
+  /**
+   * Submit and expect failed job.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void submitAndExpectFailedJob() throws Exception {
+    JobServiceImpl jobService = newJobService(Duration.ofHours(1L));
+    Job job = jobService.submit("TEST", progress -> {
+      throw new IllegalArgumentException("Test failure");
+    });
+    Job actual = awaitFinished(jobService, job.getId());
+    assertEquals(Job.Status.FAILED, actual.getStatus());
+    assertEquals("Test failure", actual.getMessage());
+    jobService.shutdown();
+  }
+
+  /**
+   * Submit and expect failed job because of an error.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void submitAndExpectFailedJobBecauseOfError() throws Exception {
+    JobServiceImpl jobService = newJobService(Duration.ofHours(1L));
+    Job job = jobService.submit("TEST", progress -> {
+      throw new StackOverflowError();
+    });
+    Job actual = awaitFinished(jobService, job.getId());
+    assertEquals(Job.Status.FAILED, actual.getStatus());
+    assertEquals(StackOverflowError.class.getName(), actual.getMessage());
+
+    // the executor replaces the terminated thread
+    job = jobService.submit("TEST", progress -> "done");
+    assertEquals(Job.Status.SUCCEEDED, awaitFinished(jobService, job.getId()).getStatus());
+    jobService.shutdown();
+  }
+
+  /**
+   * Submit and expect rejection.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void submitAndExpectRejection() throws Exception {
+    JobServiceImpl jobService = newJobService(Duration.ofHours(1L));
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    Job blocking = jobService.submit("TEST", progress -> {
+      running.countDown();
+      try {
+        assertTrue(finish.await(5L, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return null;
+    });
+    assertTrue(running.await(5L, TimeUnit.SECONDS));
+    assertEquals(Job.Status.RUNNING,
+        jobService.getJob(blocking.getId()).map(Job::getStatus).orElse(null));
+
+    // the queue capacity is one
+    Job queued = jobService.submit("TEST", progress -> null);
+    assertEquals(Job.Status.QUEUED, queued.getStatus());
+    assertThrows(ServiceException.class, () -> jobService.submit("TEST", progress -> null));
+
+    finish.countDown();
+    assertEquals(Job.Status.SUCCEEDED, awaitFinished(jobService, queued.getId()).getStatus());
+    jobService.shutdown();
+  }
+
+  /**
+   * Evict jobs.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  void evictJobs() throws Exception {
+    JobServiceImpl jobService = newJobService(Duration.ZERO);
+    Job job = jobService.submit("TEST", progress -> null);
+    awaitFinished(jobService, job.getId());
+    Thread.sleep(10L);
+    jobService.evictJobs();
+    assertFalse(jobService.getJob(job.getId()).isPresent());
+    jobService.shutdown();
+  }
+
+}